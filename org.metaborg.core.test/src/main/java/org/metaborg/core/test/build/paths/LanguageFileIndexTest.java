@@ -0,0 +1,164 @@
+package org.metaborg.core.test.build.paths;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.metaborg.core.MetaborgModule;
+import org.metaborg.core.build.paths.LanguageFileIndex;
+import org.metaborg.core.language.ILanguageComponent;
+import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.core.language.IdentifiedResource;
+import org.metaborg.core.resource.IResourceChangeService;
+import org.metaborg.core.resource.ResourceChange;
+import org.metaborg.core.resource.ResourceChangeKind;
+import org.metaborg.core.test.MetaborgTest;
+import org.metaborg.util.iterators.Iterables2;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
+
+import rx.Observable;
+import rx.subjects.PublishSubject;
+
+public class LanguageFileIndexTest extends MetaborgTest {
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+    public LanguageFileIndexTest(MetaborgModule module) {
+        super(module);
+    }
+
+
+    @Test public void createModifyDelete() throws Exception {
+        final ILanguageComponent component = language(groupId, "org.metaborg.lang.entity", version(0, 0, 1),
+            createDir("ram:///Entity"), "Entity", "ent");
+        final ILanguageImpl impl = Iterables.get(component.contributesTo(), 0);
+        final LanguageFileIndex index = metaborg.injector.getInstance(LanguageFileIndex.class);
+        index.setResourceChangeService(new IResourceChangeService() {
+            @Override public Observable<ResourceChange> changes() {
+                return Observable.empty();
+            }
+        });
+
+        final FileObject root = resourceService.resolve(temporaryFolder.newFolder("root"));
+        final FileObject other = resourceService.resolve(temporaryFolder.newFolder("other"));
+        final FileObject a = create(root, "a.ent");
+        assertEquals(names(a), files(index, root, impl));
+
+        // Create
+        final FileObject b = create(root, "sub/b.ent");
+        final FileObject c = create(root, "sub/c.ent");
+        final FileObject x = create(other, "x.ent");
+        update(index, ResourceChangeKind.Create, b, c, x);
+        assertEquals(names(a, b, c), files(index, root, impl));
+
+        // Modify
+        write(a, "modified");
+        update(index, ResourceChangeKind.Modify, a);
+        assertEquals(names(a, b, c), files(index, root, impl));
+
+        // Delete file
+        b.delete();
+        update(index, ResourceChangeKind.Delete, b);
+        assertEquals(names(a, c), files(index, root, impl));
+
+        // Delete folder
+        final FileObject sub = root.resolveFile("sub");
+        sub.deleteAll();
+        update(index, ResourceChangeKind.Delete, sub);
+        assertEquals(names(a), files(index, root, impl));
+
+        // Delete outside of root
+        x.delete();
+        update(index, ResourceChangeKind.Delete, x);
+        assertEquals(names(a), files(index, root, impl));
+    }
+
+    @Test public void resourceChangeService() throws Exception {
+        final ILanguageComponent component = language(groupId, "org.metaborg.lang.entity", version(0, 0, 1),
+            createDir("ram:///Entity"), "Entity", "ent");
+        final ILanguageImpl impl = Iterables.get(component.contributesTo(), 0);
+        final LanguageFileIndex index = metaborg.injector.getInstance(LanguageFileIndex.class);
+        final PublishSubject<ResourceChange> changes = PublishSubject.create();
+        index.setResourceChangeService(new IResourceChangeService() {
+            @Override public Observable<ResourceChange> changes() {
+                return changes;
+            }
+        });
+
+        final FileObject root = resourceService.resolve(temporaryFolder.newFolder("root"));
+        final FileObject a = create(root, "a.ent");
+        assertEquals(names(a), files(index, root, impl));
+
+        final FileObject b = create(root, "b.ent");
+        changes.onNext(new ResourceChange(b, ResourceChangeKind.Create));
+        assertEquals(names(a, b), files(index, root, impl));
+
+        a.delete();
+        changes.onNext(new ResourceChange(a, ResourceChangeKind.Delete));
+        assertEquals(names(b), files(index, root, impl));
+    }
+
+    @Test public void scannedWithoutResourceChangeService() throws Exception {
+        final ILanguageComponent component = language(groupId, "org.metaborg.lang.entity", version(0, 0, 1),
+            createDir("ram:///Entity"), "Entity", "ent");
+        final ILanguageImpl impl = Iterables.get(component.contributesTo(), 0);
+        final LanguageFileIndex index = metaborg.injector.getInstance(LanguageFileIndex.class);
+
+        final FileObject root = resourceService.resolve(temporaryFolder.newFolder("root"));
+        final FileObject a = create(root, "a.ent");
+        assertEquals(names(a), files(index, root, impl));
+
+        // Changes are not passed to the index, but are found since the path is scanned again.
+        final FileObject b = create(root, "b.ent");
+        assertEquals(names(a, b), files(index, root, impl));
+
+        a.delete();
+        assertEquals(names(b), files(index, root, impl));
+    }
+
+
+    private static FileObject create(FileObject root, String path) throws IOException {
+        final FileObject file = root.resolveFile(path);
+        write(file, "");
+        return file;
+    }
+
+    private static void write(FileObject file, String text) throws IOException {
+        file.createFile();
+        try(final OutputStream stream = file.getContent().getOutputStream()) {
+            stream.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void update(LanguageFileIndex index, ResourceChangeKind kind, FileObject... resources) {
+        for(FileObject resource : resources) {
+            index.update(Iterables2.singleton(new ResourceChange(resource, kind)));
+        }
+    }
+
+    private static Set<FileName> names(FileObject... resources) {
+        final Set<FileName> names = Sets.newHashSet();
+        for(FileObject resource : resources) {
+            names.add(resource.getName());
+        }
+        return names;
+    }
+
+    private static Set<FileName> files(LanguageFileIndex index, FileObject root, ILanguageImpl impl) {
+        final Set<FileName> files = Sets.newHashSet();
+        for(IdentifiedResource file : index.files(Iterables2.singleton(root), impl)) {
+            files.add(file.resource.getName());
+        }
+        return files;
+    }
+}
@@ -4,6 +4,7 @@ import java.io.File;
 import java.net.URI;
 import java.util.Collection;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
 
@@ -20,9 +21,13 @@ import org.metaborg.core.language.ILanguageIdentifierService;
 import org.metaborg.core.language.ILanguageImpl;
 import org.metaborg.core.language.ILanguageService;
 import org.metaborg.core.language.dialect.IDialectProcessor;
+import org.metaborg.core.metrics.IMetricsService;
+import org.metaborg.core.metrics.MetricsJmxExporter;
+import org.metaborg.core.plugin.AutoCloseableTracker;
 import org.metaborg.core.plugin.IModulePluginLoader;
 import org.metaborg.core.plugin.IServiceModulePlugin;
 import org.metaborg.core.plugin.InjectorFactory;
+import org.metaborg.core.plugin.LazyServices;
 import org.metaborg.core.plugin.ServiceModulePluginLoader;
 import org.metaborg.core.project.IProjectService;
 import org.metaborg.core.resource.IResourceService;
@@ -30,6 +35,7 @@ import org.metaborg.core.source.ISourceTextService;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.inject.Injector;
 import com.google.inject.Key;
@@ -40,11 +46,18 @@ import com.google.inject.util.Types;
  * Facade for instantiating and accessing the MetaBorg API. Call the public methods to perform common operations, or use
  * the public final fields to access services directly. All services and operations available in this facade are
  * implemented when using the default {@link MetaborgModule}.
+ * 
+ * When the {@value #fastStartProperty} system property is set to {@code true}, services in the public fields are only
+ * created when they are first used, and only auto closeables that were created are closed. This reduces the startup
+ * time of short-lived processes, such as command-line invocations, that only use a few services.
  */
 public class MetaBorg implements AutoCloseable {
     private static final ILogger logger = LoggerUtils.logger(MetaBorg.class);
 
+    public static final String fastStartProperty = "metaborg.faststart";
+
     public final Injector injector;
+    public final boolean fastStart;
 
     public final Set<AutoCloseable> autoCloseables;
 
@@ -66,6 +79,8 @@ public class MetaBorg implements AutoCloseable {
 
     public final IEditorRegistry editorRegistry;
 
+    public final IMetricsService metricsService;
+
 
     /**
      * Instantiate the MetaBorg API.
@@ -82,29 +97,47 @@ public class MetaBorg implements AutoCloseable {
      */
     @SuppressWarnings("unchecked") public MetaBorg(IModulePluginLoader loader, MetaborgModule module,
         Module... additionalModules) throws MetaborgException {
+        this.fastStart = fastStart();
         final Collection<Module> metaborgModules = Lists.newArrayList(additionalModules);
         metaborgModules.add(module);
+        final AutoCloseableTracker autoCloseableTracker = fastStart ? new AutoCloseableTracker() : null;
+        if(autoCloseableTracker != null) {
+            metaborgModules.add(autoCloseableTracker);
+        }
         final Iterable<Module> modules = InjectorFactory.modules(loader, metaborgModules);
         this.injector = InjectorFactory.create(modules);
 
-        this.autoCloseables = (Set<AutoCloseable>) injector.getInstance(Key.get(Types.setOf(AutoCloseable.class)));
+        if(autoCloseableTracker != null) {
+            autoCloseableTracker.initialize(injector);
+            this.autoCloseables = autoCloseableTracker.created();
+        } else {
+            this.autoCloseables =
+                (Set<AutoCloseable>) injector.getInstance(Key.get(Types.setOf(AutoCloseable.class)));
+        }
+
+        this.resourceService = service(IResourceService.class);
+        this.languageService = service(ILanguageService.class);
+        this.languageComponentFactory = service(ILanguageComponentFactory.class);
+        this.languageDiscoveryService = service(ILanguageDiscoveryService.class);
+        this.languageIdentifierService = service(ILanguageIdentifierService.class);
+        this.languagePathService = service(ILanguagePathService.class);
+        this.dialectProcessor = service(IDialectProcessor.class);
 
-        this.resourceService = injector.getInstance(IResourceService.class);
-        this.languageService = injector.getInstance(ILanguageService.class);
-        this.languageComponentFactory = injector.getInstance(ILanguageComponentFactory.class);
-        this.languageDiscoveryService = injector.getInstance(ILanguageDiscoveryService.class);
-        this.languageIdentifierService = injector.getInstance(ILanguageIdentifierService.class);
-        this.languagePathService = injector.getInstance(ILanguagePathService.class);
-        this.dialectProcessor = injector.getInstance(IDialectProcessor.class);
+        this.contextService = service(IContextService.class);
 
-        this.contextService = injector.getInstance(IContextService.class);
+        this.dependencyService = service(IDependencyService.class);
+        this.projectService = service(IProjectService.class);
 
-        this.dependencyService = injector.getInstance(IDependencyService.class);
-        this.projectService = injector.getInstance(IProjectService.class);
+        this.sourceTextService = service(ISourceTextService.class);
 
-        this.sourceTextService = injector.getInstance(ISourceTextService.class);
+        this.editorRegistry = service(IEditorRegistry.class);
 
-        this.editorRegistry = injector.getInstance(IEditorRegistry.class);
+        this.metricsService = service(IMetricsService.class);
+        if(fastStart) {
+            // Not created through the set of auto closeables in fast-start mode, but registers the metrics with JMX
+            // when it is created.
+            injector.getInstance(MetricsJmxExporter.class);
+        }
     }
 
     /**
@@ -153,7 +186,8 @@ public class MetaBorg implements AutoCloseable {
      */
     @Override public void close() {
         logger.debug("Closing the MetaBorg API");
-        for(AutoCloseable autoCloseable : autoCloseables) {
+        // Copy, since closing may create services that register themselves in the tracked auto closeables.
+        for(AutoCloseable autoCloseable : ImmutableList.copyOf(autoCloseables)) {
             try {
                 autoCloseable.close();
             } catch(Exception e) {
@@ -217,6 +251,41 @@ public class MetaBorg implements AutoCloseable {
     }
 
 
+    /**
+     * Gets a service from the injector, or a proxy that gets the service when first used if fast-start is enabled.
+     * 
+     * @param type
+     *            Interface of the service.
+     * @return Service or proxy of the service.
+     */
+    protected <T> T service(Class<T> type) {
+        return service(type, () -> injector.getInstance(type));
+    }
+
+    /**
+     * Gets a service from given supplier, or a proxy that gets the service when first used if fast-start is enabled.
+     * 
+     * @param type
+     *            Interface of the service.
+     * @param supplier
+     *            Supplier of the service.
+     * @return Service or proxy of the service.
+     */
+    protected <T> T service(Class<T> type, Supplier<? extends T> supplier) {
+        if(fastStart && type.isInterface()) {
+            return LazyServices.proxy(type, supplier);
+        }
+        return supplier.get();
+    }
+
+
+    /**
+     * @return True if fast-start is enabled with the {@value #fastStartProperty} system property.
+     */
+    public static boolean fastStart() {
+        return Boolean.getBoolean(fastStartProperty);
+    }
+
     protected static MetaborgModule defaultModule() {
         return new MetaborgModule();
     }
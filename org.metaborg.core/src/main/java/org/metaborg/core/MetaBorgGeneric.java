@@ -109,8 +109,8 @@ public class MetaBorgGeneric<I extends IInputUnit, P extends IParseUnit, A exten
         Module... additionalModules) throws MetaborgException {
         super(loader, module, additionalModules);
 
-        this.dialectService = injector.getInstance(IDialectService.class);
-        this.dialectIdentifier = injector.getInstance(IDialectIdentifier.class);
+        this.dialectService = service(IDialectService.class);
+        this.dialectIdentifier = service(IDialectIdentifier.class);
 
         this.unitService = instance(new TypeLiteral<IUnitService<I, P, A, AU, TP, TA>>() {}, iClass, pClass, aClass,
             auClass, tpClass, taClass);
@@ -130,8 +130,8 @@ public class MetaBorgGeneric<I extends IInputUnit, P extends IParseUnit, A exten
         this.analysisResultRequester =
             instance(new TypeLiteral<IAnalysisResultRequester<I, A>>() {}, iClass, aClass);
 
-        this.actionService = injector.getInstance(IActionService.class);
-        this.menuService = injector.getInstance(IMenuService.class);
+        this.actionService = service(IActionService.class);
+        this.menuService = service(IMenuService.class);
 
         this.tracingService =
             instance(new TypeLiteral<ITracingService<P, A, T, F>>() {}, pClass, aClass, tClass, fClass);
@@ -164,7 +164,8 @@ public class MetaBorgGeneric<I extends IInputUnit, P extends IParseUnit, A exten
     }
 
 
-    private <K> K instance(TypeLiteral<K> typeLiteral, Type... typeArgs) {
-        return GenericInjectUtils.<K>instance(injector, typeLiteral, typeArgs);
+    @SuppressWarnings("unchecked") private <K> K instance(TypeLiteral<K> typeLiteral, Type... typeArgs) {
+        return service((Class<K>) typeLiteral.getRawType(),
+            () -> GenericInjectUtils.<K>instance(injector, typeLiteral, typeArgs));
     }
 }
@@ -14,6 +14,7 @@ import org.metaborg.core.build.dependency.IDependencyService;
 import org.metaborg.core.build.paths.DependencyPathProvider;
 import org.metaborg.core.build.paths.ILanguagePathProvider;
 import org.metaborg.core.build.paths.ILanguagePathService;
+import org.metaborg.core.build.paths.LanguageFileIndex;
 import org.metaborg.core.build.paths.LanguagePathService;
 import org.metaborg.core.build.paths.SourcePathProvider;
 import org.metaborg.core.config.AConfigurationReaderWriter;
@@ -42,6 +43,9 @@ import org.metaborg.core.language.ILanguageIdentifierService;
 import org.metaborg.core.language.ILanguageService;
 import org.metaborg.core.language.LanguageIdentifierService;
 import org.metaborg.core.language.LanguageService;
+import org.metaborg.core.metrics.IMetricsService;
+import org.metaborg.core.metrics.MetricsJmxExporter;
+import org.metaborg.core.metrics.MetricsService;
 import org.metaborg.core.processing.BlockingProcessor;
 import org.metaborg.core.processing.ILanguageChangeProcessor;
 import org.metaborg.core.processing.IProcessor;
@@ -61,6 +65,7 @@ import org.metaborg.core.project.ISimpleProjectService;
 import org.metaborg.core.project.SimpleProjectService;
 import org.metaborg.core.resource.DefaultFileSystemManagerProvider;
 import org.metaborg.core.resource.IResourceService;
+import org.metaborg.core.resource.ReplicaCache;
 import org.metaborg.core.resource.ResourceService;
 import org.metaborg.core.source.ISourceTextService;
 import org.metaborg.core.source.SourceTextService;
@@ -129,6 +134,7 @@ public class MetaborgModule extends AbstractModule {
         bindEditor();
         bindTestFramework();
         bindTestReporter();
+        bindMetrics();
 
         bind(ClassLoader.class).annotatedWith(Names.named("ResourceClassLoader")).toInstance(resourceClassLoader);
     }
@@ -137,6 +143,7 @@ public class MetaborgModule extends AbstractModule {
         bind(ResourceService.class).in(Singleton.class);
         bind(IResourceService.class).to(ResourceService.class);
         autoClosableBinder.addBinding().to(ResourceService.class);
+        bind(ReplicaCache.class).in(Singleton.class);
 
         bind(FileSystemManager.class).toProvider(DefaultFileSystemManagerProvider.class).in(Singleton.class);
     }
@@ -192,6 +199,10 @@ public class MetaborgModule extends AbstractModule {
 
     protected void bindLanguagePath() {
         bind(ILanguagePathService.class).to(LanguagePathService.class).in(Singleton.class);
+
+        bind(LanguageFileIndex.class).in(Singleton.class);
+        languageCacheBinder.addBinding().to(LanguageFileIndex.class);
+        autoClosableBinder.addBinding().to(LanguageFileIndex.class);
     }
 
     protected void bindLanguagePathProviders(Multibinder<ILanguagePathProvider> binder) {
@@ -253,6 +264,17 @@ public class MetaborgModule extends AbstractModule {
         bind(TeamCityLogger.class).in(Singleton.class);
     }
 
+    /**
+     * Binds the metrics registry and its JMX exporter. Override to plug in a different {@link IMetricsService}.
+     */
+    protected void bindMetrics() {
+        bind(MetricsService.class).in(Singleton.class);
+        bind(IMetricsService.class).to(MetricsService.class);
+
+        bind(MetricsJmxExporter.class).in(Singleton.class);
+        autoClosableBinder.addBinding().to(MetricsJmxExporter.class);
+    }
+
     protected void bindTestReporter() {
         // IDE's would override this to show test results in their UI instead.
         bind(ITestReporterService.class).to(LoggingTestReporterService.class).in(Singleton.class);
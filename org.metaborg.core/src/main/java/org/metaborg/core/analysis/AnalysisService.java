@@ -2,16 +2,27 @@ package org.metaborg.core.analysis;
 
 import org.metaborg.core.context.IContext;
 import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.core.metrics.IMetricsService;
+import org.metaborg.core.metrics.Span;
 import org.metaborg.core.syntax.IParseUnit;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
 import org.metaborg.util.task.ICancel;
 import org.metaborg.util.task.IProgress;
 
+import com.google.inject.Inject;
+
 public class AnalysisService<P extends IParseUnit, A extends IAnalyzeUnit, AU extends IAnalyzeUnitUpdate>
     implements IAnalysisService<P, A, AU> {
     private static final ILogger logger = LoggerUtils.logger(AnalysisService.class);
 
+    private final IMetricsService metricsService;
+
+
+    @Inject public AnalysisService(IMetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
 
     @Override public boolean available(ILanguageImpl langImpl) {
         return langImpl.hasFacet(AnalyzerFacet.class);
@@ -27,7 +38,9 @@ public class AnalysisService<P extends IParseUnit, A extends IAnalyzeUnit, AU ex
         }
         final IAnalyzer<P, A, AU> analyzer = facet.analyzer;
 
-        return analyzer.analyze(input, context, progress, cancel);
+        try(final Span span = metricsService.span("analysis")) {
+            return analyzer.analyze(input, context, progress, cancel);
+        }
     }
 
     @Override public IAnalyzeResults<A, AU> analyzeAll(Iterable<P> inputs, IContext context, IProgress progress,
@@ -40,7 +53,9 @@ public class AnalysisService<P extends IParseUnit, A extends IAnalyzeUnit, AU ex
         }
         final IAnalyzer<P, A, AU> analyzer = facet.analyzer;
 
-        return analyzer.analyzeAll(inputs, context, progress, cancel);
+        try(final Span span = metricsService.span("analysis")) {
+            return analyzer.analyzeAll(inputs, context, progress, cancel);
+        }
     }
 
 
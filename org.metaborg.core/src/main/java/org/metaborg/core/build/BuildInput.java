@@ -9,8 +9,11 @@ import org.apache.commons.vfs2.FileSelector;
 import org.metaborg.core.action.ITransformGoal;
 import org.metaborg.core.language.ILanguageImpl;
 import org.metaborg.core.messages.IMessagePrinter;
+import org.metaborg.core.processing.BuildPriority;
 import org.metaborg.core.project.IProject;
 import org.metaborg.core.resource.ResourceChange;
+import org.metaborg.core.transform.ITransformConfig;
+import org.metaborg.core.transform.TransformConfig;
 
 import com.google.common.collect.Multimap;
 
@@ -78,6 +81,11 @@ public class BuildInput {
      */
     public final Iterable<ITransformGoal> transformGoals;
 
+    /**
+     * Configuration for executing transformations.
+     */
+    public final ITransformConfig transformConfig;
+
 
     /**
      * Message printer to use during build, or null to skip printing messages.
@@ -94,12 +102,18 @@ public class BuildInput {
      */
     public final Set<ILanguageImpl> pardonedLanguages;
 
+    /**
+     * Priority of the build when it is executed asynchronously.
+     */
+    public final BuildPriority priority;
+
 
     public BuildInput(BuildState state, IProject project, Iterable<ResourceChange> resourceChanges,
         Multimap<ILanguageImpl, FileObject> includePaths, BuildOrder buildOrder, @Nullable FileSelector parseSelector,
         boolean analyze, @Nullable FileSelector analyzeSelector, boolean transform,
         @Nullable FileSelector transformSelector, Iterable<ITransformGoal> transformGoals,
-        @Nullable IMessagePrinter messagePrinter, boolean throwOnErrors, Set<ILanguageImpl> pardonedLanguages) {
+        ITransformConfig transformConfig, @Nullable IMessagePrinter messagePrinter, boolean throwOnErrors,
+        Set<ILanguageImpl> pardonedLanguages, BuildPriority priority) {
         this.state = state;
         this.project = project;
         this.sourceChanges = resourceChanges;
@@ -111,8 +125,31 @@ public class BuildInput {
         this.transform = transform;
         this.transformSelector = transformSelector;
         this.transformGoals = transformGoals;
+        this.transformConfig = transformConfig;
         this.messagePrinter = messagePrinter;
         this.throwOnErrors = throwOnErrors;
         this.pardonedLanguages = pardonedLanguages;
+        this.priority = priority;
+    }
+
+    public BuildInput(BuildState state, IProject project, Iterable<ResourceChange> resourceChanges,
+        Multimap<ILanguageImpl, FileObject> includePaths, BuildOrder buildOrder, @Nullable FileSelector parseSelector,
+        boolean analyze, @Nullable FileSelector analyzeSelector, boolean transform,
+        @Nullable FileSelector transformSelector, Iterable<ITransformGoal> transformGoals,
+        ITransformConfig transformConfig, @Nullable IMessagePrinter messagePrinter, boolean throwOnErrors,
+        Set<ILanguageImpl> pardonedLanguages) {
+        this(state, project, resourceChanges, includePaths, buildOrder, parseSelector, analyze, analyzeSelector,
+            transform, transformSelector, transformGoals, transformConfig, messagePrinter, throwOnErrors,
+            pardonedLanguages, BuildPriority.Background);
+    }
+
+    public BuildInput(BuildState state, IProject project, Iterable<ResourceChange> resourceChanges,
+        Multimap<ILanguageImpl, FileObject> includePaths, BuildOrder buildOrder, @Nullable FileSelector parseSelector,
+        boolean analyze, @Nullable FileSelector analyzeSelector, boolean transform,
+        @Nullable FileSelector transformSelector, Iterable<ITransformGoal> transformGoals,
+        @Nullable IMessagePrinter messagePrinter, boolean throwOnErrors, Set<ILanguageImpl> pardonedLanguages) {
+        this(state, project, resourceChanges, includePaths, buildOrder, parseSelector, analyze, analyzeSelector,
+            transform, transformSelector, transformGoals, new TransformConfig(), messagePrinter, throwOnErrors,
+            pardonedLanguages);
     }
 }
@@ -16,8 +16,11 @@ import org.metaborg.core.language.ILanguageImpl;
 import org.metaborg.core.language.IdentifiedResource;
 import org.metaborg.core.language.LanguageUtils;
 import org.metaborg.core.messages.IMessagePrinter;
+import org.metaborg.core.processing.BuildPriority;
 import org.metaborg.core.project.IProject;
 import org.metaborg.core.resource.ResourceChange;
+import org.metaborg.core.transform.ITransformConfig;
+import org.metaborg.core.transform.TransformConfig;
 import org.metaborg.util.resource.ResourceUtils;
 
 import com.google.common.collect.HashMultimap;
@@ -54,11 +57,13 @@ public class BuildInputBuilder {
     private boolean transform;
     private @Nullable FileSelector transformSelector;
     private Collection<ITransformGoal> transformGoals;
+    private ITransformConfig transformConfig;
 
     private @Nullable IMessagePrinter messagePrinter;
     private boolean throwOnErrors;
     private Set<ILanguageImpl> pardonedLanguages;
     private Set<String> pardonedLanguageStrings;
+    private BuildPriority priority;
 
 
     @Inject public BuildInputBuilder(IProject project) {
@@ -84,10 +89,12 @@ public class BuildInputBuilder {
         transform = true;
         transformSelector = null;
         transformGoals = Lists.newLinkedList();
+        transformConfig = new TransformConfig();
         messagePrinter = null;
         throwOnErrors = false;
         pardonedLanguages = Sets.newHashSet();
         pardonedLanguageStrings = Sets.newHashSet();
+        priority = BuildPriority.Background;
         return this;
     }
 
@@ -335,6 +342,15 @@ public class BuildInputBuilder {
     }
 
 
+    /**
+     * Sets the transformation configuration to given configuration.
+     */
+    public BuildInputBuilder withTransformConfig(ITransformConfig transformConfig) {
+        this.transformConfig = transformConfig;
+        return this;
+    }
+
+
     /**
      * Sets the message printer to given message printer.
      */
@@ -343,6 +359,15 @@ public class BuildInputBuilder {
         return this;
     }
 
+    /**
+     * Sets the priority of the build when it is executed asynchronously. Defaults to
+     * {@link BuildPriority#Background}.
+     */
+    public BuildInputBuilder withPriority(BuildPriority priority) {
+        this.priority = priority;
+        return this;
+    }
+
     /**
      * Sets if a runtime exception should be thrown when errors occur. Defaults to false.
      */
@@ -422,7 +447,7 @@ public class BuildInputBuilder {
         }
 
         return new BuildInput(state, this.project, sourceChanges, includePaths, new BuildOrder(languages), selector,
-            analyze, analyzeSelector, transform, transformSelector, transformGoals, messagePrinter, throwOnErrors,
-            pardonedLanguages);
+            analyze, analyzeSelector, transform, transformSelector, transformGoals, transformConfig, messagePrinter,
+            throwOnErrors, pardonedLanguages, priority);
     }
 }
@@ -19,6 +19,7 @@ import org.metaborg.core.analysis.IAnalyzeResults;
 import org.metaborg.core.analysis.IAnalyzeUnit;
 import org.metaborg.core.analysis.IAnalyzeUnitUpdate;
 import org.metaborg.core.build.paths.ILanguagePathService;
+import org.metaborg.core.build.paths.LanguageFileIndex;
 import org.metaborg.core.context.ContextException;
 import org.metaborg.core.context.ContextUtils;
 import org.metaborg.core.context.IContext;
@@ -32,6 +33,8 @@ import org.metaborg.core.messages.IMessagePrinter;
 import org.metaborg.core.messages.MessageFactory;
 import org.metaborg.core.messages.MessageSeverity;
 import org.metaborg.core.messages.MessageUtils;
+import org.metaborg.core.metrics.IMetricsService;
+import org.metaborg.core.metrics.Span;
 import org.metaborg.core.processing.analyze.IAnalysisResultUpdater;
 import org.metaborg.core.processing.parse.IParseResultUpdater;
 import org.metaborg.core.resource.IResourceService;
@@ -51,7 +54,6 @@ import org.metaborg.core.transform.TransformException;
 import org.metaborg.core.unit.IUnitService;
 import org.metaborg.util.RefBool;
 import org.metaborg.util.concurrent.IClosableLock;
-import org.metaborg.util.iterators.Iterables2;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
 import org.metaborg.util.resource.FileSelectorUtils;
@@ -101,13 +103,17 @@ public class Builder<I extends IInputUnit, P extends IParseUnit, A extends IAnal
 
     private final Provider<IBuildOutputInternal<P, A, AU, T>> buildOutputProvider;
 
+    private final IMetricsService metricsService;
+    private final LanguageFileIndex fileIndex;
+
 
     @Inject public Builder(IResourceService resourceService, ILanguageIdentifierService languageIdentifier,
         ILanguagePathService languagePathService, IUnitService<I, P, A, AU, TP, TA> unitService,
         ISourceTextService sourceTextService, ISyntaxService<I, P> syntaxService, IContextService contextService,
         IAnalysisService<P, A, AU> analysisService, ITransformService<P, A, TP, TA> transformService,
         IParseResultUpdater<P> parseResultUpdater, IAnalysisResultUpdater<P, A> analysisResultUpdater,
-        Provider<IBuildOutputInternal<P, A, AU, T>> buildOutputProvider) {
+        Provider<IBuildOutputInternal<P, A, AU, T>> buildOutputProvider, IMetricsService metricsService,
+        LanguageFileIndex fileIndex) {
         this.resourceService = resourceService;
         this.languageIdentifier = languageIdentifier;
         this.languagePathService = languagePathService;
@@ -122,6 +128,9 @@ public class Builder<I extends IInputUnit, P extends IParseUnit, A extends IAnal
         this.analysisResultUpdater = analysisResultUpdater;
 
         this.buildOutputProvider = buildOutputProvider;
+
+        this.metricsService = metricsService;
+        this.fileIndex = fileIndex;
     }
 
 
@@ -129,6 +138,9 @@ public class Builder<I extends IInputUnit, P extends IParseUnit, A extends IAnal
         throws InterruptedException {
         cancel.throwIfCancelled();
 
+        // Changes may not have reached the file index yet, update it before getting include files from the index.
+        fileIndex.update(input.sourceChanges);
+
         final Multimap<ILanguageImpl, IdentifiedResourceChange> changes = ArrayListMultimap.create();
         identifyResources(input.sourceChanges, input, changes, cancel);
         if(changes.size() == 0) {
@@ -168,6 +180,7 @@ public class Builder<I extends IInputUnit, P extends IParseUnit, A extends IAnal
 
             final Iterable<ResourceChange> newResourceChanges =
                 ResourceUtils.toChanges(newResources, ResourceChangeKind.Create);
+            fileIndex.update(newResourceChanges);
             identifyResources(newResourceChanges, input, changes, cancel);
 
             newState.add(language, diff.newState);
@@ -404,7 +417,9 @@ public class Builder<I extends IInputUnit, P extends IParseUnit, A extends IAnal
                     }
                     analyzeUpdates.addAll(results.updates());
                 } finally {
-                    context.persist();
+                    try(final Span span = metricsService.span("context.persist")) {
+                        context.persist();
+                    }
                 }
             } catch(AnalysisException e) {
                 final String message = "Analysis failed unexpectedly";
@@ -469,7 +484,8 @@ public class Builder<I extends IInputUnit, P extends IParseUnit, A extends IAnal
                             continue;
                         }
                         try {
-                            final Collection<TA> results = transformService.transform(analysisResult, context, goal);
+                            final Collection<TA> results =
+                                transformService.transform(analysisResult, context, goal, input.transformConfig);
                             for(TA result : results) {
                                 final boolean noErrors =
                                     printMessages(result.messages(), goal + " transformation", input, pardoned);
@@ -544,12 +560,9 @@ public class Builder<I extends IInputUnit, P extends IParseUnit, A extends IAnal
             selector = FileSelectorUtils.and(selector, input.selector);
         }
         try {
-            final FileObject[] resources = location.findFiles(selector);
-            if(resources == null) {
-                return;
-            }
+            final Iterable<FileObject> resources = ResourceUtils.find(location, selector);
             final Set<IContext> contexts =
-                ContextUtils.getAll(Iterables2.from(resources), input.project, languageIdentifier, contextService);
+                ContextUtils.getAll(resources, input.project, languageIdentifier, contextService);
             for(IContext context : contexts) {
                 cancel.throwIfCancelled();
                 try {
@@ -14,6 +14,7 @@ import org.metaborg.core.resource.IResourceService;
 import org.metaborg.core.resource.IdentifiedResourceChange;
 import org.metaborg.core.resource.ResourceChange;
 import org.metaborg.core.resource.ResourceChangeKind;
+import org.metaborg.core.resource.ResourceUtils;
 import org.metaborg.util.iterators.Iterables2;
 
 import com.google.common.collect.Lists;
@@ -125,7 +126,7 @@ class FilesBuildState {
         files.add(name);
         long newModification;
         try {
-            newModification = resource.getContent().getLastModifiedTime();
+            newModification = ResourceUtils.lastModified(resource);
             modification.put(name, newModification);
         } catch(FileSystemException e) {
             newModification = Long.MAX_VALUE;
@@ -3,6 +3,7 @@ package org.metaborg.core.build;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.metaborg.core.MetaborgRuntimeException;
+import org.metaborg.core.resource.ResourceUtils;
 
 class ResourceModificationInfo {
     public final FileObject resource;
@@ -12,7 +13,7 @@ class ResourceModificationInfo {
     public ResourceModificationInfo(FileObject resource) {
         this.resource = resource;
         try {
-            this.modificationDate = resource.getContent().getLastModifiedTime();
+            this.modificationDate = ResourceUtils.lastModified(resource);
         } catch(FileSystemException e) {
             throw new MetaborgRuntimeException("Could not create resource modification info", e);
         }
@@ -0,0 +1,418 @@
+package org.metaborg.core.build.paths;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileType;
+import org.metaborg.core.language.ILanguageCache;
+import org.metaborg.core.language.ILanguageComponent;
+import org.metaborg.core.language.ILanguageIdentifierService;
+import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.core.language.IdentifiedResource;
+import org.metaborg.core.resource.IResourceChangeService;
+import org.metaborg.core.resource.IResourceService;
+import org.metaborg.core.resource.ResourceChange;
+import org.metaborg.util.iterators.Iterables2;
+import org.metaborg.util.log.ILogger;
+import org.metaborg.util.log.LoggerUtils;
+import org.metaborg.util.resource.ResourceUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.inject.Inject;
+
+import rx.functions.Action1;
+
+/**
+ * Index of the files of a language in source and include paths. The files of a path are found and identified once, and
+ * are then served from memory. The index is kept up to date as follows:
+ * <ul>
+ * <li>Paths inside archives are only invalidated when the language is reloaded, since archives of languages do not
+ * change while the language is loaded.</li>
+ * <li>Other paths are only indexed when an {@link IResourceChangeService} is bound, whose changes are processed as they
+ * are reported. Paths on the local file system are additionally watched with a {@link WatchService}, to pick up changes
+ * made outside of the environment that reports resource changes. Pending watch events are processed before files are
+ * served.</li>
+ * </ul>
+ * Without a resource change service, paths outside of archives cannot be kept up to date reliably, and are scanned on
+ * every request.
+ * <p>
+ * Resource changes and watch events are delivered asynchronously, and some platforms (such as macOS) poll for changes
+ * instead of being notified. A request made right after a file was changed may therefore be served from a stale index,
+ * which misses the change. Callers that change files and immediately request them should pass the changes to
+ * {@link #update(Iterable)} first.
+ */
+public class LanguageFileIndex implements ILanguageCache, AutoCloseable {
+    private static final ILogger logger = LoggerUtils.logger(LanguageFileIndex.class);
+
+    private static final Set<String> archiveSchemes = Sets.newHashSet("zip", "jar", "tar", "tgz", "tbz2", "res");
+
+    private final IResourceService resourceService;
+    private final ILanguageIdentifierService languageIdentifierService;
+
+    private final Map<ILanguageImpl, Map<FileName, Entry>> entries = Maps.newConcurrentMap();
+    private final Map<WatchKey, Path> watchedDirectories = Maps.newConcurrentMap();
+    private @Nullable WatchService watchService;
+    private boolean watchFailed = false;
+    private boolean changesObserved = false;
+
+
+    @Inject public LanguageFileIndex(IResourceService resourceService,
+        ILanguageIdentifierService languageIdentifierService) {
+        this.resourceService = resourceService;
+        this.languageIdentifierService = languageIdentifierService;
+    }
+
+    @Inject(optional = true) public void setResourceChangeService(IResourceChangeService resourceChangeService) {
+        changesObserved = true;
+        resourceChangeService.changes().subscribe(new Action1<ResourceChange>() {
+            @Override public void call(ResourceChange change) {
+                update(Iterables2.singleton(change));
+            }
+        });
+    }
+
+
+    /**
+     * Gets the files of given language in given paths.
+     *
+     * @param paths
+     *            Paths to get files from.
+     * @param language
+     *            Language to get files of.
+     * @return Files of given language in given paths.
+     */
+    public Collection<IdentifiedResource> files(Iterable<FileObject> paths, ILanguageImpl language) {
+        processWatchEvents();
+
+        final Map<FileName, IdentifiedResource> files = Maps.newLinkedHashMap();
+        for(FileObject path : paths) {
+            final Entry entry = entry(path, language);
+            if(entry != null) {
+                files.putAll(entry.files());
+            } else {
+                for(IdentifiedResource file : scan(path, language)) {
+                    files.put(file.resource.getName(), file);
+                }
+            }
+        }
+        return files.values();
+    }
+
+    /**
+     * Updates the index with given resource changes.
+     */
+    public void update(Iterable<ResourceChange> changes) {
+        for(ResourceChange change : changes) {
+            switch(change.kind) {
+                case Create:
+                case Copy:
+                case Modify:
+                    changed(change.resource);
+                    break;
+                case Delete:
+                    deleted(change.resource.getName());
+                    break;
+                case Rename:
+                    if(change.from != null) {
+                        deleted(change.from.getName());
+                    }
+                    changed(change.to != null ? change.to : change.resource);
+                    break;
+            }
+        }
+    }
+
+
+    @Override public void invalidateCache(ILanguageComponent component) {
+        for(ILanguageImpl impl : component.contributesTo()) {
+            invalidateCache(impl);
+        }
+    }
+
+    @Override public void invalidateCache(ILanguageImpl impl) {
+        logger.debug("Removing indexed files for {}", impl);
+        entries.remove(impl);
+    }
+
+    @Override public synchronized void close() throws IOException {
+        if(watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+        watchedDirectories.clear();
+        entries.clear();
+    }
+
+
+    private @Nullable Entry entry(FileObject path, ILanguageImpl language) {
+        Map<FileName, Entry> languageEntries = entries.get(language);
+        if(languageEntries == null) {
+            languageEntries = Maps.newConcurrentMap();
+            final Map<FileName, Entry> existing = entries.putIfAbsent(language, languageEntries);
+            if(existing != null) {
+                languageEntries = existing;
+            }
+        }
+
+        final FileName name = path.getName();
+        Entry entry = languageEntries.get(name);
+        if(entry == null) {
+            if(!indexable(path)) {
+                return null;
+            }
+            entry = new Entry(path, language);
+            final Entry existing = languageEntries.putIfAbsent(name, entry);
+            if(existing != null) {
+                entry = existing;
+            }
+        }
+        return entry;
+    }
+
+    private boolean indexable(FileObject path) {
+        if(archiveSchemes.contains(path.getName().getScheme())) {
+            return true;
+        }
+        if(!changesObserved) {
+            return false;
+        }
+        final File localPath = resourceService.localPath(path);
+        if(localPath != null) {
+            watch(localPath.toPath());
+        }
+        return true;
+    }
+
+    private Collection<IdentifiedResource> scan(FileObject path, ILanguageImpl language) {
+        final Collection<FileObject> files = ResourceUtils.expand(Iterables2.singleton(path));
+        final Collection<IdentifiedResource> identifiedFiles = Lists.newArrayListWithExpectedSize(files.size());
+        for(FileObject file : files) {
+            final IdentifiedResource identifiedFile = identify(file, language);
+            if(identifiedFile != null) {
+                identifiedFiles.add(identifiedFile);
+            }
+        }
+        return identifiedFiles;
+    }
+
+    private @Nullable IdentifiedResource identify(FileObject file, ILanguageImpl language) {
+        return languageIdentifierService.identifyToResource(file, Iterables2.singleton(language));
+    }
+
+
+    private void changed(FileObject resource) {
+        final boolean folder;
+        try {
+            folder = resource.getType() == FileType.FOLDER;
+        } catch(FileSystemException e) {
+            logger.warn("Could not determine type of changed resource {}, rescanning affected paths", e, resource);
+            invalidateAffected(resource.getName());
+            return;
+        }
+        if(folder) {
+            // Contents of created, copied, or renamed folders are not reported separately, rescan affected paths.
+            invalidateAffected(resource.getName());
+            return;
+        }
+        final FileName name = resource.getName();
+        for(Map<FileName, Entry> languageEntries : entries.values()) {
+            for(Entry entry : languageEntries.values()) {
+                if(entry.contains(name)) {
+                    entry.changed(resource);
+                }
+            }
+        }
+    }
+
+    private void deleted(FileName name) {
+        for(Map<FileName, Entry> languageEntries : entries.values()) {
+            for(Entry entry : languageEntries.values()) {
+                if(entry.contains(name) || name.isDescendent(entry.root.getName())) {
+                    entry.deleted(name);
+                }
+            }
+        }
+    }
+
+    private void invalidateAffected(FileName name) {
+        for(Map<FileName, Entry> languageEntries : entries.values()) {
+            for(Entry entry : languageEntries.values()) {
+                if(entry.contains(name) || name.isDescendent(entry.root.getName())) {
+                    entry.invalidate();
+                }
+            }
+        }
+    }
+
+
+    private synchronized void watch(Path root) {
+        if(watchFailed) {
+            return;
+        }
+        try {
+            if(watchService == null) {
+                watchService = FileSystems.getDefault().newWatchService();
+            }
+            if(Files.isDirectory(root)) {
+                registerAll(root);
+            } else if(root.getParent() != null) {
+                register(root.getParent());
+            }
+        } catch(IOException e) {
+            logger.warn("Could not watch {} for changes made outside of the environment", e, root);
+            watchFailed = true;
+        }
+    }
+
+    private void registerAll(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+                throws IOException {
+                register(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void register(Path dir) throws IOException {
+        if(watchedDirectories.containsValue(dir)) {
+            return;
+        }
+        final WatchKey key = watchService.register(dir, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+        watchedDirectories.put(key, dir);
+    }
+
+    private synchronized void processWatchEvents() {
+        if(watchService == null) {
+            return;
+        }
+        try {
+            WatchKey key;
+            while((key = watchService.poll()) != null) {
+                final Path dir = watchedDirectories.get(key);
+                if(dir != null) {
+                    processWatchEvents(key, dir);
+                }
+                if(!key.reset()) {
+                    watchedDirectories.remove(key);
+                }
+            }
+        } catch(ClosedWatchServiceException e) {
+            // Index was closed, nothing to process.
+        }
+    }
+
+    private void processWatchEvents(WatchKey key, Path dir) {
+        for(WatchEvent<?> event : key.pollEvents()) {
+            final WatchEvent.Kind<?> kind = event.kind();
+            if(kind == OVERFLOW) {
+                logger.debug("Missed file changes in {}, rescanning affected paths", dir);
+                invalidateAffected(resourceService.resolve(dir.toFile()).getName());
+                continue;
+            }
+            final Path path = dir.resolve((Path) event.context());
+            final FileObject resource = resourceService.resolve(path.toFile());
+            if(kind == ENTRY_DELETE) {
+                deleted(resource.getName());
+                continue;
+            }
+            if(kind == ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    registerAll(path);
+                } catch(IOException e) {
+                    logger.warn("Could not watch {} for changes", e, path);
+                }
+            }
+            changed(resource);
+        }
+    }
+
+
+    private class Entry {
+        private final FileObject root;
+        private final ILanguageImpl language;
+        private @Nullable Map<FileName, IdentifiedResource> files;
+
+
+        public Entry(FileObject root, ILanguageImpl language) {
+            this.root = root;
+            this.language = language;
+        }
+
+
+        public synchronized Map<FileName, IdentifiedResource> files() {
+            if(files == null) {
+                final Map<FileName, IdentifiedResource> newFiles = Maps.newLinkedHashMap();
+                for(IdentifiedResource file : scan(root, language)) {
+                    newFiles.put(file.resource.getName(), file);
+                }
+                files = newFiles;
+            }
+            return Maps.newLinkedHashMap(files);
+        }
+
+        public boolean contains(FileName name) {
+            final FileName rootName = root.getName();
+            return name.equals(rootName) || rootName.isDescendent(name);
+        }
+
+        public synchronized void changed(FileObject resource) {
+            if(files == null) {
+                return;
+            }
+            final IdentifiedResource identifiedFile = identify(resource, language);
+            if(identifiedFile != null) {
+                files.put(resource.getName(), identifiedFile);
+            } else {
+                files.remove(resource.getName());
+            }
+        }
+
+        public synchronized void deleted(FileName name) {
+            if(files == null) {
+                return;
+            }
+            if(name.equals(root.getName()) || name.isDescendent(root.getName())) {
+                files = null;
+                return;
+            }
+            files.remove(name);
+            final Collection<FileName> descendants = Lists.newArrayList();
+            for(FileName file : files.keySet()) {
+                if(name.isDescendent(file)) {
+                    descendants.add(file);
+                }
+            }
+            files.keySet().removeAll(descendants);
+        }
+
+        public synchronized void invalidate() {
+            files = null;
+        }
+    }
+}
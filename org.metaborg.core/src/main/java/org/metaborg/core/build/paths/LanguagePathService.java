@@ -5,30 +5,25 @@ import java.util.Set;
 
 import org.apache.commons.vfs2.FileObject;
 import org.metaborg.core.MetaborgException;
-import org.metaborg.core.language.ILanguageIdentifierService;
 import org.metaborg.core.language.ILanguageImpl;
 import org.metaborg.core.language.IdentifiedResource;
 import org.metaborg.core.project.IProject;
-import org.metaborg.util.iterators.Iterables2;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
-import org.metaborg.util.resource.ResourceUtils;
 
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 
 public class LanguagePathService implements ILanguagePathService {
     private static final ILogger logger = LoggerUtils.logger(LanguagePathService.class);
 
-    private final ILanguageIdentifierService languageIdentifierService;
+    private final LanguageFileIndex fileIndex;
     private final Set<ILanguagePathProvider> providers;
 
 
-    @Inject public LanguagePathService(ILanguageIdentifierService languageIdentifierService,
-        Set<ILanguagePathProvider> providers) {
-        this.languageIdentifierService = languageIdentifierService;
+    @Inject public LanguagePathService(LanguageFileIndex fileIndex, Set<ILanguagePathProvider> providers) {
+        this.fileIndex = fileIndex;
         this.providers = providers;
     }
 
@@ -86,15 +81,6 @@ public class LanguagePathService implements ILanguagePathService {
 
 
     @Override public Collection<IdentifiedResource> toFiles(Iterable<FileObject> paths, ILanguageImpl language) {
-        final Collection<FileObject> files = ResourceUtils.expand(paths);
-        final Collection<IdentifiedResource> identifiedFiles = Lists.newArrayListWithExpectedSize(files.size());
-        for(FileObject file : files) {
-            final IdentifiedResource identifiedFile =
-                languageIdentifierService.identifyToResource(file, Iterables2.singleton(language));
-            if(identifiedFile != null) {
-                identifiedFiles.add(identifiedFile);
-            }
-        }
-        return identifiedFiles;
+        return fileIndex.files(paths, language);
     }
 }
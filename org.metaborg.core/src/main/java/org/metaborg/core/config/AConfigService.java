@@ -1,6 +1,8 @@
 package org.metaborg.core.config;
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
@@ -8,22 +10,36 @@ import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.commons.configuration2.tree.ImmutableNode;
+import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.metaborg.core.messages.IMessage;
 import org.metaborg.core.messages.MessageBuilder;
+import org.metaborg.core.resource.IResourceChangeService;
+import org.metaborg.core.resource.ResourceChange;
+import org.metaborg.core.resource.ResourceUtils;
 import org.metaborg.util.file.IFileAccess;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
 
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+
+import rx.functions.Action1;
+
 /**
- * Stores and retrieves configurations using the {@link Configuration} class.
+ * Stores and retrieves configurations using the {@link Configuration} class. Retrieved configurations are cached per
+ * configuration file, and are read again when the modification time or size of the file changes, when the
+ * configuration is written through this service, or when a change to the file is observed. Configurations whose
+ * modification time was {@link ResourceUtils#racy racy} when they were read are read again as well.
  */
 public abstract class AConfigService<TSubject, TConfig> {
     private static final ILogger logger = LoggerUtils.logger(AConfigService.class);
 
     protected final AConfigurationReaderWriter configReaderWriter;
 
+    private final Map<FileName, CachedConfig<TConfig>> cache = Maps.newConcurrentMap();
+
 
     /**
      * Initializes a new instance of the {@link AConfigService} class.
@@ -35,6 +51,14 @@ public abstract class AConfigService<TSubject, TConfig> {
         this.configReaderWriter = configReaderWriter;
     }
 
+    @Inject(optional = true) public void setResourceChangeService(IResourceChangeService resourceChangeService) {
+        resourceChangeService.changes().subscribe(new Action1<ResourceChange>() {
+            @Override public void call(ResourceChange change) {
+                cache.remove(change.resource.getName());
+            }
+        });
+    }
+
 
     /**
      * Checks if a configuration exists for a subject.
@@ -85,6 +109,35 @@ public abstract class AConfigService<TSubject, TConfig> {
      * @return The configuration, or <code>null</code> when no configuration could be retrieved.
      */
     public ConfigRequest<TConfig> getFromConfigFile(FileObject configFile, FileObject rootFolder) {
+        final FileName configName = configFile.getName();
+        final long modified;
+        final long size;
+        final boolean racy;
+        try {
+            if(configFile.exists()) {
+                modified = ResourceUtils.lastModified(configFile);
+                size = ResourceUtils.size(configFile);
+                racy = ResourceUtils.racy(modified);
+                final CachedConfig<TConfig> cached = cache.get(configName);
+                if(cached != null && cached.matches(rootFolder.getName(), modified, size)) {
+                    return cached.request;
+                }
+            } else {
+                cache.remove(configName);
+                return new ConfigRequest<>();
+            }
+        } catch(FileSystemException e) {
+            // @formatter:off
+            final IMessage message = MessageBuilder
+                .create()
+                .withSource(configFile)
+                .withMessage("Unable to read configuration from " + configFile)
+                .withException(e)
+                .build();
+            // @formatter:on
+            return new ConfigRequest<>(message);
+        }
+
         final HierarchicalConfiguration<ImmutableNode> configuration;
         try {
             configuration = readConfig(configFile, rootFolder);
@@ -101,12 +154,43 @@ public abstract class AConfigService<TSubject, TConfig> {
         }
         
         if(configuration != null) {
-            return toConfig(configuration, configFile);
+            final ConfigRequest<TConfig> request = toConfig(configuration, configFile);
+            cache.put(configName, new CachedConfig<>(rootFolder.getName(), modified, size, racy, request));
+            return request;
         } else {
             return new ConfigRequest<>();
         }
     }
 
+    /**
+     * Gets the configuration for a subject from given text, instead of from its configuration file. The result is not
+     * cached.
+     *
+     * @param rootDirectory
+     *            The root directory of the subject to get the configuration for.
+     * @param text
+     *            Text of the configuration, for example read from the configuration file earlier.
+     * @return The configuration request.
+     */
+    public ConfigRequest<TConfig> getFromText(FileObject rootDirectory, String text) {
+        final FileObject configFile;
+        final HierarchicalConfiguration<ImmutableNode> configuration;
+        try {
+            configFile = getConfigFile(rootDirectory);
+            configuration = configReaderWriter.read(new StringReader(text), rootDirectory);
+        } catch(ConfigurationException | IOException e) {
+            // @formatter:off
+            final IMessage message = MessageBuilder
+                .create()
+                .withMessage("Unable to read configuration for root directory " + rootDirectory)
+                .withException(e)
+                .build();
+            // @formatter:on
+            return new ConfigRequest<>(message);
+        }
+        return toConfig(configuration, configFile);
+    }
+
     /**
      * Writes the configuration for the given subject.
      *
@@ -145,6 +229,7 @@ public abstract class AConfigService<TSubject, TConfig> {
         if(access != null) {
             access.write(configFile);
         }
+        cache.remove(configFile.getName());
         final HierarchicalConfiguration<ImmutableNode> configuration = fromConfig(config);
         writeConfig(configFile, configuration, rootDirectory);
     }
@@ -245,4 +330,28 @@ public abstract class AConfigService<TSubject, TConfig> {
      * @return The configuration.
      */
     protected abstract HierarchicalConfiguration<ImmutableNode> fromConfig(TConfig config);
+
+
+    private static class CachedConfig<TConfig> {
+        public final FileName rootFolder;
+        public final long modified;
+        public final long size;
+        public final boolean racy;
+        public final ConfigRequest<TConfig> request;
+
+
+        public CachedConfig(FileName rootFolder, long modified, long size, boolean racy,
+            ConfigRequest<TConfig> request) {
+            this.rootFolder = rootFolder;
+            this.modified = modified;
+            this.size = size;
+            this.racy = racy;
+            this.request = request;
+        }
+
+
+        public boolean matches(FileName rootFolder, long modified, long size) {
+            return !racy && this.rootFolder.equals(rootFolder) && this.modified == modified && this.size == size;
+        }
+    }
 }
@@ -23,4 +23,16 @@ public interface ILanguageComponentConfigService {
      * @return Configuration request, either with a valid configuration, or a collection of error messages.
      */
     ConfigRequest<ILanguageComponentConfig> get(FileObject rootFolder);
+
+    /**
+     * Gets the configuration for the language component at given location from given text, instead of from its
+     * configuration file.
+     *
+     * @param rootFolder
+     *            The language component root folder.
+     * @param text
+     *            Text of the configuration.
+     * @return Configuration request, either with a valid configuration, or a collection of error messages.
+     */
+    ConfigRequest<ILanguageComponentConfig> getFromText(FileObject rootFolder, String text);
 }
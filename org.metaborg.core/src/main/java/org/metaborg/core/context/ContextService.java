@@ -6,11 +6,14 @@ import java.util.concurrent.ConcurrentMap;
 import org.apache.commons.vfs2.FileObject;
 import org.metaborg.core.language.ILanguageImpl;
 import org.metaborg.core.language.LanguageImplChange;
+import org.metaborg.core.metrics.IMetricsService;
+import org.metaborg.core.metrics.Span;
 import org.metaborg.core.project.IProject;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
 
 import com.google.common.collect.Maps;
+import com.google.inject.Inject;
 
 public class ContextService implements IContextService, IContextProcessor {
     private static final ILogger logger = LoggerUtils.logger(ContextService.class);
@@ -18,6 +21,13 @@ public class ContextService implements IContextService, IContextProcessor {
     private final ConcurrentMap<ContextIdentifier, IContextInternal> idToContext = Maps.newConcurrentMap();
     private final ConcurrentMap<ILanguageImpl, ContextIdentifier> langToContextId = Maps.newConcurrentMap();
 
+    private final IMetricsService metricsService;
+
+
+    @Inject public ContextService(IMetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
 
     @Override public boolean available(ILanguageImpl language) {
         final ContextFacet facet = language.facet(ContextFacet.class);
@@ -26,9 +36,11 @@ public class ContextService implements IContextService, IContextProcessor {
 
     @Override public IContext get(FileObject resource, IProject project, ILanguageImpl language)
         throws ContextException {
-        final ContextFacet facet = getFacet(resource, language);
-        final ContextIdentifier identifier = facet.strategy.get(resource, project, language);
-        return getOrCreate(facet.factory, identifier);
+        try(final Span span = metricsService.span("context.get")) {
+            final ContextFacet facet = getFacet(resource, language);
+            final ContextIdentifier identifier = facet.strategy.get(resource, project, language);
+            return getOrCreate(facet.factory, identifier);
+        }
     }
 
     @Override public ITemporaryContext getTemporary(FileObject resource, IProject project, ILanguageImpl language)
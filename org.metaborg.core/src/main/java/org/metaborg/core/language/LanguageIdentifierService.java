@@ -12,6 +12,8 @@ import org.metaborg.core.MetaborgRuntimeException;
 import org.metaborg.core.build.dependency.IDependencyService;
 import org.metaborg.core.language.dialect.IDialectIdentifier;
 import org.metaborg.core.language.dialect.IdentifiedDialect;
+import org.metaborg.core.metrics.IMetricsService;
+import org.metaborg.core.metrics.Span;
 import org.metaborg.core.project.IProject;
 import org.metaborg.core.project.IProjectService;
 import org.metaborg.util.log.ILogger;
@@ -29,14 +31,16 @@ public class LanguageIdentifierService implements ILanguageIdentifierService {
     private final IDialectIdentifier dialectIdentifier;
     private final IProjectService projectService;
     private final IDependencyService dependencyService;
+    private final IMetricsService metricsService;
 
 
     @Inject public LanguageIdentifierService(ILanguageService languageService, IDialectIdentifier dialectIdentifier,
-        IProjectService projectService, IDependencyService dependencyService) {
+        IProjectService projectService, IDependencyService dependencyService, IMetricsService metricsService) {
         this.languageService = languageService;
         this.dialectIdentifier = dialectIdentifier;
         this.projectService = projectService;
         this.dependencyService = dependencyService;
+        this.metricsService = metricsService;
     }
 
 
@@ -111,49 +115,51 @@ public class LanguageIdentifierService implements ILanguageIdentifierService {
 
     @Override public @Nullable IdentifiedResource identifyToResource(FileObject resource,
         Iterable<? extends ILanguageImpl> impls) {
-        // Ignore directories.
-        try {
-            if(resource.getType() == FileType.FOLDER) {
+        try(final Span span = metricsService.span("identify")) {
+            // Ignore directories.
+            try {
+                if(resource.getType() == FileType.FOLDER) {
+                    return null;
+                }
+            } catch(FileSystemException e) {
+                logger.error("Cannot identify {}, cannot determine its file type", e, resource);
                 return null;
             }
-        } catch(FileSystemException e) {
-            logger.error("Cannot identify {}, cannot determine its file type", e, resource);
-            return null;
-        }
 
-        // Try to identify using the dialect identifier first.
-        try {
-            final IdentifiedDialect dialect = dialectIdentifier.identify(resource);
-            if(dialect != null) {
-                return new IdentifiedResource(resource, dialect);
+            // Try to identify using the dialect identifier first.
+            try {
+                final IdentifiedDialect dialect = dialectIdentifier.identify(resource);
+                if(dialect != null) {
+                    return new IdentifiedResource(resource, dialect);
+                }
+            } catch(MetaborgException e) {
+                logger.error("Cannot identify dialect of {}", e, resource);
+                return null;
+            } catch(MetaborgRuntimeException e) {
+                // Ignore
             }
-        } catch(MetaborgException e) {
-            logger.error("Cannot identify dialect of {}", e, resource);
-            return null;
-        } catch(MetaborgRuntimeException e) {
-            // Ignore
-        }
 
-        // Identify using identification facet.
-        final Set<ILanguage> identifiedLanguages = Sets.newLinkedHashSet();
-        ILanguageImpl identifiedImpl = null;
-        for(ILanguageImpl impl : impls) {
-            if(identify(resource, impl)) {
-                identifiedLanguages.add(impl.belongsTo());
-                identifiedImpl = impl;
+            // Identify using identification facet.
+            final Set<ILanguage> identifiedLanguages = Sets.newLinkedHashSet();
+            ILanguageImpl identifiedImpl = null;
+            for(ILanguageImpl impl : impls) {
+                if(identify(resource, impl)) {
+                    identifiedLanguages.add(impl.belongsTo());
+                    identifiedImpl = impl;
+                }
             }
-        }
 
-        if(identifiedLanguages.size() > 1) {
-            throw new IllegalStateException("Resource " + resource + " identifies to multiple languages: "
-                + Joiner.on(", ").join(identifiedLanguages));
-        }
+            if(identifiedLanguages.size() > 1) {
+                throw new IllegalStateException("Resource " + resource + " identifies to multiple languages: "
+                    + Joiner.on(", ").join(identifiedLanguages));
+            }
 
-        if(identifiedImpl == null) {
-            return null;
-        }
+            if(identifiedImpl == null) {
+                return null;
+            }
 
-        return new IdentifiedResource(resource, null, identifiedImpl);
+            return new IdentifiedResource(resource, null, identifiedImpl);
+        }
     }
 
 
@@ -0,0 +1,64 @@
+package org.metaborg.core.messages;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.metaborg.core.resource.ResourceUtils;
+import org.metaborg.core.source.ISourceTextService;
+import org.metaborg.core.source.SourceLineIndex;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Line indices of sources that messages have been printed for. Indices are stamped with the modification time and size
+ * of their source, such that a printer that is used for multiple builds without printing a summary does not print the
+ * text of an outdated version of a source.
+ */
+class SourceLineIndices {
+    private final ISourceTextService sourceTextService;
+    private final Map<FileName, StampedLineIndex> lineIndices = Maps.newHashMap();
+
+
+    public SourceLineIndices(ISourceTextService sourceTextService) {
+        this.sourceTextService = sourceTextService;
+    }
+
+
+    /**
+     * Gets the line index of given source, creating it if there is no index yet or if the source has changed since.
+     */
+    public SourceLineIndex get(FileObject source) throws IOException {
+        final FileName name = source.getName();
+        final long modified = ResourceUtils.lastModified(source);
+        final long size = ResourceUtils.size(source);
+        StampedLineIndex lineIndex = lineIndices.get(name);
+        if(lineIndex == null || lineIndex.modified != modified || lineIndex.size != size) {
+            lineIndex = new StampedLineIndex(new SourceLineIndex(sourceTextService.text(source)), modified, size);
+            lineIndices.put(name, lineIndex);
+        }
+        return lineIndex.index;
+    }
+
+    /**
+     * Removes all line indices.
+     */
+    public void clear() {
+        lineIndices.clear();
+    }
+
+
+    private static class StampedLineIndex {
+        public final SourceLineIndex index;
+        public final long modified;
+        public final long size;
+
+
+        public StampedLineIndex(SourceLineIndex index, long modified, long size) {
+            this.index = index;
+            this.modified = modified;
+            this.size = size;
+        }
+    }
+}
@@ -10,7 +10,6 @@ import javax.annotation.Nullable;
 
 import org.apache.commons.vfs2.FileObject;
 import org.metaborg.core.project.IProject;
-import org.metaborg.core.source.AffectedSourceHelper;
 import org.metaborg.core.source.ISourceRegion;
 import org.metaborg.core.source.ISourceTextService;
 import org.metaborg.util.log.ILogger;
@@ -21,13 +20,17 @@ import org.metaborg.util.log.LoggerUtils;
  * Message printer implementation that prints detailed messages to a stream.
  */
 public class StreamMessagePrinter implements IMessagePrinter {
-    private final ISourceTextService sourceTextService;
     private final PrintStream infoStream;
     private final PrintStream warnStream;
     private final PrintStream errorStream;
     private final boolean printHighlight;
     private final boolean printExceptions;
 
+    /**
+     * Line indices of sources that messages have been printed for, until the next summary is printed.
+     */
+    private final SourceLineIndices lineIndices;
+
     private int notes = 0;
     private int warnings = 0;
     private int warningsPardoned = 0;
@@ -39,7 +42,7 @@ public class StreamMessagePrinter implements IMessagePrinter {
 
     public StreamMessagePrinter(ISourceTextService sourceTextService, boolean printHighlight, boolean printExceptions,
         OutputStream infoStream, OutputStream warnStream, OutputStream errorStream) {
-        this.sourceTextService = sourceTextService;
+        this.lineIndices = new SourceLineIndices(sourceTextService);
         this.infoStream = new PrintStream(infoStream);
         this.warnStream = new PrintStream(warnStream);
         this.errorStream = new PrintStream(errorStream);
@@ -74,15 +77,11 @@ public class StreamMessagePrinter implements IMessagePrinter {
             sb.append('\n');
         }
 
-        if(printHighlight) {
+        if(printHighlight && source != null && region != null) {
             try {
-                final String sourceText = sourceTextService.text(source);
-                if(region != null) {
-                    final String affected =
-                        AffectedSourceHelper.affectedSourceText(message.region(), sourceText, "    ");
-                    if(affected != null) {
-                        sb.append(affected);
-                    }
+                final String affected = lineIndices.get(source).affectedSourceText(region, "    ");
+                if(affected != null) {
+                    sb.append(affected);
                 }
             } catch(IOException e) {
             }
@@ -190,6 +189,8 @@ public class StreamMessagePrinter implements IMessagePrinter {
     }
 
     @Override public void printSummary() {
+        lineIndices.clear();
+
         final int total =
             notes + warnings + warningsPardoned + errors + errorsPardoned + exceptions + exceptionsPardoned;
         if(total == 0) {
@@ -10,7 +10,6 @@ import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.metaborg.core.project.IProject;
 import org.metaborg.core.project.IProjectService;
-import org.metaborg.core.source.AffectedSourceHelper;
 import org.metaborg.core.source.ISourceRegion;
 import org.metaborg.core.source.ISourceTextService;
 
@@ -20,10 +19,6 @@ import org.metaborg.core.source.ISourceTextService;
  */
 public class WithLocationStreamMessagePrinter implements IMessagePrinter {
 
-    /**
-     * To pretty-print the affected source code of a message.
-     */
-    private final ISourceTextService sourceTextService;
     /**
      * To get the relative filename of source file.
      */
@@ -31,9 +26,14 @@ public class WithLocationStreamMessagePrinter implements IMessagePrinter {
 
     private final PrintStream outputStream;
 
+    /**
+     * To pretty-print the affected source code of a message, until the next summary is printed.
+     */
+    private final SourceLineIndices lineIndices;
+
     public WithLocationStreamMessagePrinter(ISourceTextService sourceTextService, IProjectService projectService,
         OutputStream outputStream) {
-        this.sourceTextService = sourceTextService;
+        this.lineIndices = new SourceLineIndices(sourceTextService);
         this.projectService = projectService;
         this.outputStream = new PrintStream(outputStream);
     }
@@ -51,6 +51,7 @@ public class WithLocationStreamMessagePrinter implements IMessagePrinter {
     }
 
     @Override public void printSummary() {
+        lineIndices.clear();
     }
 
     private void print(String message, boolean pardoned, @Nullable FileObject sourceFile,
@@ -98,8 +99,7 @@ public class WithLocationStreamMessagePrinter implements IMessagePrinter {
         // if available, pretty-print source code
         if(sourceFile != null && sourceRegion != null) {
             try {
-                final String affectedSource =
-                    AffectedSourceHelper.affectedSourceText(sourceRegion, sourceTextService.text(sourceFile), " ");
+                final String affectedSource = lineIndices.get(sourceFile).affectedSourceText(sourceRegion, " ");
                 if(affectedSource != null) { // affectedSourceText() is @Nullable
                     sb.append(affectedSource);
                 }
@@ -110,5 +110,4 @@ public class WithLocationStreamMessagePrinter implements IMessagePrinter {
         outputStream.print(sb.toString());
         outputStream.flush();
     }
-
 }
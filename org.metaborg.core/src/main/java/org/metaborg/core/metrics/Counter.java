@@ -0,0 +1,23 @@
+package org.metaborg.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter that can be incremented concurrently.
+ */
+public class Counter {
+    private final LongAdder count = new LongAdder();
+
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+}
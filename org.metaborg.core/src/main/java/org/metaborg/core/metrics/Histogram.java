@@ -0,0 +1,88 @@
+package org.metaborg.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative values, such as durations in nanoseconds, that can be recorded concurrently without locking.
+ * Values are counted in logarithmic buckets, each power of two is divided into 8 buckets, such that quantiles are
+ * estimated with a relative error of at most 12.5%, in constant memory.
+ */
+public class Histogram {
+    private static final int subBucketBits = 3;
+    private static final int subBuckets = 1 << subBucketBits;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(64 * subBuckets);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+
+    /**
+     * Records given value. Negative values are recorded as 0.
+     */
+    public void record(long value) {
+        final long recorded = Math.max(0, value);
+        buckets.incrementAndGet(bucket(recorded));
+        count.increment();
+        sum.add(recorded);
+        min.accumulateAndGet(recorded, Math::min);
+        max.accumulateAndGet(recorded, Math::max);
+    }
+
+    /**
+     * @return Snapshot of the current distribution of recorded values.
+     */
+    public HistogramSnapshot snapshot() {
+        final long[] counts = new long[buckets.length()];
+        long total = 0;
+        for(int i = 0; i < counts.length; ++i) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if(total == 0) {
+            return new HistogramSnapshot(0, 0, 0, 0, 0, 0, 0);
+        }
+        final long minValue = min.get();
+        final long maxValue = max.get();
+        // @formatter:off
+        return new HistogramSnapshot(total, sum.sum(), minValue, maxValue,
+            quantile(counts, total, 0.5, minValue, maxValue),
+            quantile(counts, total, 0.9, minValue, maxValue),
+            quantile(counts, total, 0.99, minValue, maxValue));
+        // @formatter:on
+    }
+
+
+    private static long quantile(long[] counts, long total, double quantile, long min, long max) {
+        final long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for(int i = 0; i < counts.length; ++i) {
+            seen += counts[i];
+            if(seen >= rank) {
+                return Math.max(min, Math.min(max, upperBound(i)));
+            }
+        }
+        return max;
+    }
+
+    private static int bucket(long value) {
+        if(value < subBuckets) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - subBucketBits)) & (subBuckets - 1);
+        return (exponent - subBucketBits + 1) * subBuckets + subBucket;
+    }
+
+    private static long upperBound(int bucket) {
+        if(bucket < subBuckets) {
+            return bucket;
+        }
+        final int shift = bucket / subBuckets - 1;
+        final long lowerBound = (long) (subBuckets + bucket % subBuckets) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
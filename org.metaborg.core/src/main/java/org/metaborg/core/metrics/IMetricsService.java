@@ -0,0 +1,34 @@
+package org.metaborg.core.metrics;
+
+/**
+ * Interface for a registry of metrics of hot paths, such as counters of cache hits and histograms of parse and analysis
+ * durations. Metrics are created on first use and identified by their name; names are dot-separated, for example
+ * {@code parse} or {@code analysis.solve}.
+ */
+public interface IMetricsService {
+    /**
+     * @return Counter with given name.
+     */
+    Counter counter(String name);
+
+    /**
+     * @return Histogram with given name.
+     */
+    Histogram histogram(String name);
+
+    /**
+     * Starts a span that records its duration, in nanoseconds, in the histogram with given name when it is closed.
+     * 
+     * @param name
+     *            Name of the histogram to record the duration in.
+     * @return Started span, to be closed with try-with-resources.
+     */
+    default Span span(String name) {
+        return new Span(histogram(name));
+    }
+
+    /**
+     * @return Snapshot of the current values of all metrics.
+     */
+    MetricsSnapshot snapshot();
+}
@@ -0,0 +1,81 @@
+package org.metaborg.core.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.metaborg.util.log.ILogger;
+import org.metaborg.util.log.LoggerUtils;
+
+import com.google.inject.Inject;
+
+/**
+ * Exports the metrics of a {@link IMetricsService} to the platform MBean server, when the {@value #enabledProperty}
+ * system property is set to {@code true}. Metrics are registered under {@code org.metaborg:type=Metrics,instance=<n>},
+ * where {@code n} distinguishes multiple MetaBorg instances in the same process.
+ */
+public class MetricsJmxExporter implements MetricsMXBean, AutoCloseable {
+    private static final ILogger logger = LoggerUtils.logger(MetricsJmxExporter.class);
+
+    public static final String enabledProperty = "metaborg.metrics.jmx";
+
+    private static final AtomicInteger instances = new AtomicInteger();
+
+    private final IMetricsService metricsService;
+
+    private @Nullable ObjectName name;
+
+
+    @Inject public MetricsJmxExporter(IMetricsService metricsService) {
+        this.metricsService = metricsService;
+        if(Boolean.getBoolean(enabledProperty)) {
+            register();
+        }
+    }
+
+
+    /**
+     * Registers the metrics with the platform MBean server, if they are not registered yet.
+     */
+    public synchronized void register() {
+        if(name != null) {
+            return;
+        }
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName objectName =
+                new ObjectName("org.metaborg:type=Metrics,instance=" + instances.getAndIncrement());
+            server.registerMBean(this, objectName);
+            name = objectName;
+            logger.debug("Registered metrics as {}", objectName);
+        } catch(JMException e) {
+            logger.error("Registering metrics with the platform MBean server failed", e);
+        }
+    }
+
+    @Override public synchronized void close() {
+        if(name == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch(JMException e) {
+            logger.error("Unregistering metrics {} failed", e, name);
+        }
+        name = null;
+    }
+
+
+    @Override public Map<String, Long> getCounters() {
+        return metricsService.snapshot().counters;
+    }
+
+    @Override public Map<String, HistogramSnapshot> getHistograms() {
+        return metricsService.snapshot().histograms;
+    }
+}
@@ -0,0 +1,18 @@
+package org.metaborg.core.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of the metrics exported by {@link MetricsJmxExporter}.
+ */
+public interface MetricsMXBean {
+    /**
+     * @return Values of all counters, by name.
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * @return Distributions of all histograms, by name. Durations are in nanoseconds.
+     */
+    Map<String, HistogramSnapshot> getHistograms();
+}
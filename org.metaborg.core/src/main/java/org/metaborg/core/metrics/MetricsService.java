@@ -0,0 +1,44 @@
+package org.metaborg.core.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.Maps;
+
+/**
+ * In-process metrics registry. Metrics are kept for the lifetime of the registry, snapshots hold cumulative values.
+ */
+public class MetricsService implements IMetricsService {
+    private final ConcurrentMap<String, Counter> counters = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, Histogram> histograms = Maps.newConcurrentMap();
+
+
+    @Override public Counter counter(String name) {
+        final Counter counter = counters.get(name);
+        if(counter != null) {
+            return counter;
+        }
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    @Override public Histogram histogram(String name) {
+        final Histogram histogram = histograms.get(name);
+        if(histogram != null) {
+            return histogram;
+        }
+        return histograms.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    @Override public MetricsSnapshot snapshot() {
+        final SortedMap<String, Long> counterValues = Maps.newTreeMap();
+        for(Map.Entry<String, Counter> entry : counters.entrySet()) {
+            counterValues.put(entry.getKey(), entry.getValue().count());
+        }
+        final SortedMap<String, HistogramSnapshot> histogramValues = Maps.newTreeMap();
+        for(Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            histogramValues.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return new MetricsSnapshot(counterValues, histogramValues);
+    }
+}
@@ -0,0 +1,48 @@
+package org.metaborg.core.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * Snapshot of the values of all metrics in a {@link IMetricsService}, sorted by name.
+ */
+public class MetricsSnapshot {
+    public final SortedMap<String, Long> counters;
+    public final SortedMap<String, HistogramSnapshot> histograms;
+
+
+    public MetricsSnapshot(SortedMap<String, Long> counters, SortedMap<String, HistogramSnapshot> histograms) {
+        this.counters = counters;
+        this.histograms = histograms;
+    }
+
+
+    /**
+     * @return Value of the counter with given name, or 0 if it does not exist.
+     */
+    public long counter(String name) {
+        final Long count = counters.get(name);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return Snapshot of the histogram with given name, or null if it does not exist.
+     */
+    public @Nullable HistogramSnapshot histogram(String name) {
+        return histograms.get(name);
+    }
+
+
+    @Override public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for(Map.Entry<String, Long> entry : counters.entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        for(Map.Entry<String, HistogramSnapshot> entry : histograms.entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+}
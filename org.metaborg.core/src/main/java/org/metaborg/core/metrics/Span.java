@@ -0,0 +1,35 @@
+package org.metaborg.core.metrics;
+
+/**
+ * Span of time that records its duration in a histogram when it is closed.
+ */
+public class Span implements AutoCloseable {
+    private final Histogram histogram;
+    private final long start;
+    private boolean closed = false;
+
+
+    public Span(Histogram histogram) {
+        this.histogram = histogram;
+        this.start = System.nanoTime();
+    }
+
+
+    /**
+     * @return Nanoseconds elapsed since the span was started.
+     */
+    public long elapsed() {
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Stops the span and records its duration. Closing a span more than once has no effect.
+     */
+    @Override public void close() {
+        if(closed) {
+            return;
+        }
+        closed = true;
+        histogram.record(elapsed());
+    }
+}
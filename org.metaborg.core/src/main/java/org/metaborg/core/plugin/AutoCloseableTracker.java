@@ -0,0 +1,58 @@
+package org.metaborg.core.plugin;
+
+import java.util.Collections;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+import com.google.inject.AbstractModule;
+import com.google.inject.Binding;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.matcher.Matchers;
+import com.google.inject.spi.LinkedKeyBinding;
+import com.google.inject.spi.ProvisionListener;
+
+/**
+ * Module that tracks which of the {@link AutoCloseable}s bound in the set of auto closeables are actually created, such
+ * that they can be closed without creating the ones that were never used. Call {@link #initialize(Injector)} after the
+ * injector is created.
+ */
+public class AutoCloseableTracker extends AbstractModule implements ProvisionListener {
+    private final Set<AutoCloseable> created = Collections.synchronizedSet(Sets.newLinkedHashSet());
+    private volatile Set<Key<?>> keys = Collections.emptySet();
+
+
+    /**
+     * Collects the keys of the auto closeables bound in given injector. Auto closeables that were created before this
+     * call are not tracked.
+     */
+    public void initialize(Injector injector) {
+        final Set<Key<?>> closeableKeys = Sets.newHashSet();
+        for(Binding<?> binding : injector.getAllBindings().values()) {
+            if(binding.getKey().getTypeLiteral().getRawType() == AutoCloseable.class
+                && binding instanceof LinkedKeyBinding) {
+                closeableKeys.add(((LinkedKeyBinding<?>) binding).getLinkedKey());
+            }
+        }
+        keys = closeableKeys;
+    }
+
+    /**
+     * @return Auto closeables that have been created, in order of creation.
+     */
+    public Set<AutoCloseable> created() {
+        return created;
+    }
+
+
+    @Override protected void configure() {
+        bindListener(Matchers.any(), this);
+    }
+
+    @Override public <T> void onProvision(ProvisionInvocation<T> provision) {
+        final T instance = provision.provision();
+        if(instance instanceof AutoCloseable && keys.contains(provision.getBinding().getKey())) {
+            created.add((AutoCloseable) instance);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.metaborg.core.plugin;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * Utility methods for creating services lazily, on their first use.
+ */
+public class LazyServices {
+    /**
+     * Creates a proxy of given service interface, which gets the service from given supplier when one of its methods is
+     * called for the first time, and forwards all calls to it.
+     *
+     * @param type
+     *            Interface of the service.
+     * @param supplier
+     *            Supplier of the service.
+     * @return Proxy of the service.
+     */
+    public static <T> T proxy(Class<T> type, Supplier<? extends T> supplier) {
+        final Object proxy =
+            Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new Handler<>(supplier));
+        return type.cast(proxy);
+    }
+
+
+    private static class Handler<T> implements InvocationHandler {
+        private final Supplier<? extends T> supplier;
+        private volatile T service;
+
+
+        public Handler(Supplier<? extends T> supplier) {
+            this.supplier = supplier;
+        }
+
+
+        @Override public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            T target = service;
+            if(target == null) {
+                synchronized(this) {
+                    target = service;
+                    if(target == null) {
+                        target = supplier.get();
+                        service = target;
+                    }
+                }
+            }
+            try {
+                return method.invoke(target, args);
+            } catch(InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,519 @@
+package org.metaborg.core.processing;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.metaborg.core.analysis.IAnalyzeUnit;
+import org.metaborg.core.analysis.IAnalyzeUnitUpdate;
+import org.metaborg.core.build.BuildInput;
+import org.metaborg.core.build.CleanInput;
+import org.metaborg.core.build.IBuildOutput;
+import org.metaborg.core.build.IBuilder;
+import org.metaborg.core.language.LanguageComponentChange;
+import org.metaborg.core.language.LanguageImplChange;
+import org.metaborg.core.language.dialect.IDialectProcessor;
+import org.metaborg.core.resource.ResourceChange;
+import org.metaborg.core.syntax.IParseUnit;
+import org.metaborg.core.transform.ITransformUnit;
+import org.metaborg.util.log.ILogger;
+import org.metaborg.util.log.LoggerUtils;
+import org.metaborg.util.task.ICancel;
+import org.metaborg.util.task.IProgress;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+
+import rx.functions.Func0;
+
+/**
+ * Processor implementation that executes builds asynchronously on a thread pool. Scheduling a build task does not
+ * block.
+ * <p>
+ * Builds of the same project are debounced and coalesced: a build is only started after no new build input for the same
+ * project has been scheduled for {@link #debounceDelay} milliseconds, and all inputs scheduled in the meantime are merged
+ * into a single build, by merging their source changes. The configuration of the most recently scheduled input is used
+ * for the merged build. When a build of a project is scheduled while another build of that project is running, the
+ * running build is cancelled through its {@link ICancel}, and its source changes are merged into the new build. At most
+ * one build per project runs at the same time. Tasks of coalesced and superseded builds complete when the build they
+ * were merged into completes, with the output of that build.
+ * <p>
+ * Cancelling a task only cancels its build when all tasks that were coalesced into that build have been cancelled. When
+ * a pending build that superseded a running build is cancelled, the tasks of the superseded build no longer follow the
+ * cancelled build, and the source changes of the superseded build are merged into the next build of the project.
+ * <p>
+ * Builds with {@link BuildPriority#Interactive} priority are started before builds with
+ * {@link BuildPriority#Background} priority. The priority of a build is taken from {@link BuildInput#priority}, unless
+ * it is passed explicitly. The threads of this processor are only started when the first build is scheduled. Cleaning, dialect updates, and language changes are not asynchronous,
+ * they are executed in the same way as {@link BlockingProcessor} does.
+ */
+public class AsyncProcessor<P extends IParseUnit, A extends IAnalyzeUnit, AU extends IAnalyzeUnitUpdate, T extends ITransformUnit<?>>
+    implements IProcessor<P, A, AU, T>, AutoCloseable {
+    private static final ILogger logger = LoggerUtils.logger(AsyncProcessor.class);
+
+    public static final long defaultDebounceDelay = 100;
+
+    private final IDialectProcessor dialectProcessor;
+    private final IBuilder<P, A, AU, T> builder;
+    private final ILanguageChangeProcessor languageChangeProcessor;
+
+    private final long debounceDelay;
+    private final int threads;
+    private @Nullable ScheduledExecutorService debouncer;
+    private @Nullable ThreadPoolExecutor executor;
+    private boolean closed = false;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Object lock = new Object();
+    private final Map<FileName, BuildJob> pending = Maps.newHashMap();
+    private final Map<FileName, BuildJob> running = Maps.newHashMap();
+    private final Map<FileName, BuildInput> unbuilt = Maps.newHashMap();
+
+
+    public AsyncProcessor(IDialectProcessor dialectProcessor, IBuilder<P, A, AU, T> builder,
+        ILanguageChangeProcessor languageChangeProcessor, long debounceDelay, int threads) {
+        this.dialectProcessor = dialectProcessor;
+        this.builder = builder;
+        this.languageChangeProcessor = languageChangeProcessor;
+        this.debounceDelay = debounceDelay;
+        this.threads = threads;
+    }
+
+    @Inject public AsyncProcessor(IDialectProcessor dialectProcessor, IBuilder<P, A, AU, T> builder,
+        ILanguageChangeProcessor languageChangeProcessor) {
+        this(dialectProcessor, builder, languageChangeProcessor, defaultDebounceDelay,
+            Runtime.getRuntime().availableProcessors());
+    }
+
+
+    /**
+     * Creates a task that builds given input asynchronously with the priority of the input.
+     *
+     * @see IProcessorRunner#build(BuildInput, IProgress, ICancel)
+     */
+    @Override public ITask<? extends IBuildOutput<P, A, AU, T>> build(BuildInput input,
+        @Nullable IProgress progressReporter, @Nullable ICancel cancellationToken) {
+        return build(input, input.priority, progressReporter, cancellationToken);
+    }
+
+    /**
+     * Creates a task that builds given input asynchronously with given priority.
+     *
+     * @param input
+     *            Build input.
+     * @param priority
+     *            Priority of the build.
+     * @param progressReporter
+     *            Progress reporter, or null to use a processor-specific implementation for progress reporting.
+     * @param cancellationToken
+     *            Cancellation token, or null to use a processor-specific implementation for cancellation.
+     * @return Task that builds with given input.
+     */
+    public ITask<? extends IBuildOutput<P, A, AU, T>> build(BuildInput input, BuildPriority priority,
+        @Nullable IProgress progressReporter, @Nullable ICancel cancellationToken) {
+        final IProgress progress = progressReporter != null ? progressReporter : new NullProgress();
+        final ICancel cancel = cancellationToken != null ? cancellationToken : new NullCancel();
+        return new BuildTask(input, priority, progress, cancel);
+    }
+
+    @Override public ITask<?> clean(final CleanInput input, final @Nullable IProgress progressReporter,
+        final @Nullable ICancel cancellationToken) {
+        return new BlockingTask<>(new Func0<Object>() {
+            @Override public Object call() {
+                final IProgress pr = progressReporter != null ? progressReporter : new NullProgress();
+                final ICancel ct = cancellationToken != null ? cancellationToken : new NullCancel();
+                try {
+                    builder.clean(input, pr, ct);
+                } catch(InterruptedException e) {
+                }
+                return null;
+            }
+        });
+    }
+
+
+    @Override public ITask<?> updateDialects(final FileObject location, final Iterable<ResourceChange> changes) {
+        return new BlockingTask<>(new Func0<Object>() {
+            @Override public Object call() {
+                dialectProcessor.update(location, changes);
+                return null;
+            }
+        });
+    }
+
+
+    @Override public ITask<?> languageChange(final LanguageComponentChange change) {
+        return new BlockingTask<>(new Func0<Object>() {
+            @Override public Object call() {
+                languageChangeProcessor.processComponentChange(change);
+                return null;
+            }
+        });
+    }
+
+    @Override public ITask<?> languageChange(final LanguageImplChange change) {
+        return new BlockingTask<>(new Func0<Object>() {
+            @Override public Object call() {
+                languageChangeProcessor.processImplChange(change);
+                return null;
+            }
+        });
+    }
+
+
+    private BuildJob submit(BuildInput input, BuildPriority priority, IProgress progress, ICancel cancel) {
+        final FileName key = input.project.location().getName();
+        synchronized(lock) {
+            start();
+            BuildJob job = pending.get(key);
+            if(job != null) {
+                logger.trace("Coalescing build of {} with pending build", key);
+                job.debounce.cancel(false);
+                job.merge(input, priority, progress, cancel);
+            } else {
+                job = new BuildJob(key, input, priority, progress, cancel);
+                final BuildInput unbuiltInput = unbuilt.remove(key);
+                if(unbuiltInput != null) {
+                    job.input = merge(unbuiltInput, job.input);
+                }
+                pending.put(key, job);
+            }
+
+            final BuildJob runningJob = running.get(key);
+            if(runningJob != null && runningJob.supersededBy == null) {
+                logger.trace("Cancelling running build of {}, superseded by new build", key);
+                runningJob.token.cancel();
+                runningJob.supersededBy = job;
+                job.supersedes = runningJob;
+                job.input = merge(runningJob.input, job.input);
+            }
+
+            final BuildJob scheduledJob = job;
+            job.debounce = debouncer.schedule(new Runnable() {
+                @Override public void run() {
+                    dispatch(scheduledJob);
+                }
+            }, debounceDelay, TimeUnit.MILLISECONDS);
+            return job;
+        }
+    }
+
+    /**
+     * Starts the threads of this processor, if they have not been started yet. Must be called while holding the lock.
+     */
+    private void start() {
+        if(closed) {
+            throw new IllegalStateException("Cannot schedule a build, processor has been closed");
+        }
+        if(executor != null) {
+            return;
+        }
+        debouncer = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("metaborg-build-debouncer").setDaemon(true).build());
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<Runnable>(),
+            new ThreadFactoryBuilder().setNameFormat("metaborg-build-%d").setDaemon(true).build());
+    }
+
+    private void dispatch(BuildJob job) {
+        synchronized(lock) {
+            job.ready = true;
+            if(pending.get(job.key) != job || running.containsKey(job.key)) {
+                // Job was cancelled, or will be dispatched when the running build of the same project completes.
+                return;
+            }
+            pending.remove(job.key);
+            running.put(job.key, job);
+            executor.execute(job);
+        }
+    }
+
+    private void completed(BuildJob job) {
+        synchronized(lock) {
+            running.remove(job.key);
+            final BuildJob next = pending.get(job.key);
+            if(next != null && next.ready) {
+                dispatch(next);
+            }
+        }
+    }
+
+    private void cancel(BuildJob job) {
+        synchronized(lock) {
+            if(--job.callers > 0) {
+                logger.trace("Not cancelling build of {}, {} other tasks still wait for it", job.key, job.callers);
+                return;
+            }
+            job.token.cancel();
+            if(pending.get(job.key) == job) {
+                job.debounce.cancel(false);
+                pending.remove(job.key);
+                final BuildJob superseded = job.supersedes;
+                if(superseded != null && superseded.supersededBy == job) {
+                    // Superseded build was cancelled in favor of this build, keep its changes for the next build.
+                    superseded.supersededBy = null;
+                    unbuilt.put(job.key, superseded.input);
+                }
+                job.done.countDown();
+            }
+        }
+    }
+
+    /**
+     * Cancels all pending and running builds, and stops the threads of this processor. Tasks of builds that were not
+     * started complete as cancelled.
+     */
+    @Override public void close() {
+        final ScheduledExecutorService debouncer;
+        final ThreadPoolExecutor executor;
+        synchronized(lock) {
+            closed = true;
+            debouncer = this.debouncer;
+            executor = this.executor;
+            if(executor == null) {
+                return;
+            }
+            for(BuildJob job : pending.values()) {
+                job.token.cancel();
+                job.debounce.cancel(false);
+                job.done.countDown();
+            }
+            pending.clear();
+            unbuilt.clear();
+            for(BuildJob job : running.values()) {
+                job.token.cancel();
+            }
+        }
+        debouncer.shutdownNow();
+        final List<Runnable> queued = executor.shutdownNow();
+        synchronized(lock) {
+            for(BuildJob job : Lists.newArrayList(running.values())) {
+                if(queued.contains(job)) {
+                    running.remove(job.key);
+                    job.done.countDown();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Merges two build inputs of the same project. Source changes of {@code newer} take precedence over changes to the
+     * same resource in {@code older}, and the highest priority of both inputs is used. All other properties are taken
+     * from {@code newer}.
+     */
+    private static BuildInput merge(BuildInput older, BuildInput newer) {
+        final Map<FileName, ResourceChange> changes = Maps.newLinkedHashMap();
+        for(ResourceChange change : older.sourceChanges) {
+            changes.put(change.resource.getName(), change);
+        }
+        for(ResourceChange change : newer.sourceChanges) {
+            final FileName name = change.resource.getName();
+            changes.remove(name);
+            changes.put(name, change);
+        }
+        final Collection<ResourceChange> sourceChanges = Lists.newArrayList(changes.values());
+        return new BuildInput(newer.state, newer.project, sourceChanges, newer.includePaths, newer.buildOrder,
+            newer.selector, newer.analyze, newer.analyzeSelector, newer.transform, newer.transformSelector,
+            newer.transformGoals, newer.transformConfig, newer.messagePrinter, newer.throwOnErrors, newer.pardonedLanguages,
+            newer.priority.compareTo(older.priority) <= 0 ? newer.priority : older.priority);
+    }
+
+
+    /**
+     * Build of a single project, which may be the result of coalescing multiple build inputs.
+     */
+    private class BuildJob implements Runnable, Comparable<BuildJob>, ICancel {
+        private final FileName key;
+        private final Collection<ICancel> callerCancels = Lists.newArrayList();
+        private final CancellationToken token = new CancellationToken();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private BuildInput input;
+        private BuildPriority priority;
+        private IProgress progress;
+        private long sequenceNumber;
+        private ScheduledFuture<?> debounce;
+        private boolean ready = false;
+        private int callers = 1;
+        private @Nullable BuildJob supersedes;
+
+        private volatile @Nullable IBuildOutput<P, A, AU, T> output;
+        private volatile @Nullable BuildJob supersededBy;
+
+
+        public BuildJob(FileName key, BuildInput input, BuildPriority priority, IProgress progress, ICancel cancel) {
+            this.key = key;
+            this.input = input;
+            this.priority = priority;
+            this.progress = progress;
+            this.sequenceNumber = sequence.getAndIncrement();
+            this.callerCancels.add(cancel);
+        }
+
+
+        public void merge(BuildInput newInput, BuildPriority newPriority, IProgress newProgress, ICancel cancel) {
+            input = AsyncProcessor.merge(input, newInput);
+            if(newPriority.compareTo(priority) < 0) {
+                priority = newPriority;
+            }
+            progress = newProgress;
+            ready = false;
+            sequenceNumber = sequence.getAndIncrement();
+            callerCancels.add(cancel);
+            ++callers;
+        }
+
+
+        @Override public void run() {
+            try {
+                if(!cancelled()) {
+                    output = builder.build(input, progress, this);
+                }
+            } catch(InterruptedException e) {
+                logger.trace("Build of {} was cancelled", key);
+            } catch(RuntimeException e) {
+                logger.error("Build of {} failed unexpectedly", e, key);
+            } finally {
+                completed(this);
+                done.countDown();
+            }
+        }
+
+        @Override public int compareTo(BuildJob other) {
+            final int compare = priority.compareTo(other.priority);
+            if(compare != 0) {
+                return compare;
+            }
+            return Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+
+
+        /**
+         * A build is cancelled when it is superseded or explicitly cancelled, or when all of its callers have requested
+         * cancellation.
+         */
+        @Override public boolean cancelled() {
+            if(token.cancelled()) {
+                return true;
+            }
+            synchronized(lock) {
+                for(ICancel cancel : callerCancels) {
+                    if(!cancel.cancelled()) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override public void throwIfCancelled() throws InterruptedException {
+            if(cancelled()) {
+                throw new InterruptedException();
+            }
+        }
+
+        @Override public void cancel() {
+            token.cancel();
+        }
+    }
+
+    /**
+     * Task that follows a build job, and the jobs it was superseded by, to completion.
+     */
+    private class BuildTask implements ITask<IBuildOutput<P, A, AU, T>> {
+        private final BuildInput input;
+        private final BuildPriority priority;
+        private final IProgress progress;
+        private final ICancel cancel;
+        private final AtomicBoolean cancelRequested = new AtomicBoolean();
+
+        private volatile @Nullable BuildJob job;
+
+
+        public BuildTask(BuildInput input, BuildPriority priority, IProgress progress, ICancel cancel) {
+            this.input = input;
+            this.priority = priority;
+            this.progress = progress;
+            this.cancel = cancel;
+        }
+
+
+        @Override public ITask<IBuildOutput<P, A, AU, T>> schedule() {
+            if(job == null) {
+                job = submit(input, priority, progress, cancel);
+            }
+            return this;
+        }
+
+        /**
+         * Cancels the build this task was coalesced into, once all other tasks coalesced into that build have been
+         * cancelled as well.
+         */
+        @Override public void cancel() {
+            final BuildJob submitted = job;
+            if(submitted != null && cancelRequested.compareAndSet(false, true)) {
+                AsyncProcessor.this.cancel(submitted);
+            }
+        }
+
+        @Override public void cancel(int forceTimeout) {
+            // Builds are cancelled cooperatively, a build cannot be forcibly stopped.
+            cancel();
+        }
+
+        @Override public boolean completed() {
+            final BuildJob current = current();
+            return current != null && current.done.getCount() == 0 && !current.token.cancelled();
+        }
+
+        @Override public boolean cancelled() {
+            final BuildJob current = current();
+            return current != null && current.done.getCount() == 0 && current.token.cancelled();
+        }
+
+        @Override public @Nullable IBuildOutput<P, A, AU, T> result() {
+            final BuildJob current = current();
+            if(current == null) {
+                return null;
+            }
+            return current.output;
+        }
+
+        @Override public ITask<IBuildOutput<P, A, AU, T>> block() throws InterruptedException {
+            BuildJob current = job;
+            while(current != null) {
+                current.done.await();
+                current = current.supersededBy;
+            }
+            return this;
+        }
+
+
+        private @Nullable BuildJob current() {
+            BuildJob current = job;
+            if(current == null) {
+                return null;
+            }
+            while(current.supersededBy != null) {
+                current = current.supersededBy;
+            }
+            return current;
+        }
+    }
+}
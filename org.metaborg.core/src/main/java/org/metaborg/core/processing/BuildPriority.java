@@ -0,0 +1,17 @@
+package org.metaborg.core.processing;
+
+/**
+ * Priority of a build that is executed asynchronously. Builds with a higher priority are started before builds with a
+ * lower priority.
+ */
+public enum BuildPriority {
+    /**
+     * Build requested by an interactive client, for example to process the file that is open in an editor.
+     */
+    Interactive,
+
+    /**
+     * Build of a project in the background, for example after resources in the workspace have changed.
+     */
+    Background
+}
@@ -1,7 +1,6 @@
 package org.metaborg.core.project;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
@@ -10,17 +9,30 @@ import org.metaborg.core.config.ConfigRequest;
 import org.metaborg.core.config.IProjectConfig;
 import org.metaborg.core.config.IProjectConfigService;
 import org.metaborg.core.messages.StreamMessagePrinter;
+import org.metaborg.core.resource.IResourceChangeService;
+import org.metaborg.core.resource.ResourceChange;
 import org.metaborg.core.source.ISourceTextService;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
 
-import com.google.common.collect.Maps;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.inject.Inject;
 
+import rx.functions.Action1;
+
 public class ConfigBasedProjectService implements IProjectService {
     private static final ILogger logger = LoggerUtils.logger(ConfigBasedProjectService.class);
 
-    private final ConcurrentMap<FileName, IProject> projects = Maps.newConcurrentMap();
+    /**
+     * Time after which directories that are known to have no project configuration are checked again. Directories are
+     * checked again immediately when resource changes are observed in them.
+     */
+    private static final long noConfigExpirySeconds = 10;
+
+    private final ProjectTrie projects = new ProjectTrie();
+    private final Cache<FileName, Boolean> noConfigDirs =
+        CacheBuilder.newBuilder().expireAfterWrite(noConfigExpirySeconds, TimeUnit.SECONDS).build();
 
     private final ISourceTextService sourceTextService;
     private final IProjectConfigService projectConfigService;
@@ -30,6 +42,18 @@ public class ConfigBasedProjectService implements IProjectService {
         this.sourceTextService = sourceTextService;
         this.projectConfigService = projectConfigService;
     }
+
+    @Inject(optional = true) public void setResourceChangeService(IResourceChangeService resourceChangeService) {
+        resourceChangeService.changes().subscribe(new Action1<ResourceChange>() {
+            @Override public void call(ResourceChange change) {
+                final FileName parent = change.resource.getName().getParent();
+                if(parent != null) {
+                    noConfigDirs.invalidate(parent);
+                }
+                noConfigDirs.invalidate(change.resource.getName());
+            }
+        });
+    }
  
  
     @Override public IProject get(FileObject resource) {
@@ -41,12 +65,7 @@ public class ConfigBasedProjectService implements IProjectService {
     }
 
     private IProject getProject(FileObject resource) {
-        for(Map.Entry<FileName,IProject> entry : projects.entrySet()) {
-            if(resource.getName().isAncestor(entry.getKey())) {
-                return entry.getValue();
-            }
-        }
-        return null;
+        return projects.get(resource.getName());
     }
  
     private IProject findProject(FileObject resource) {
@@ -54,7 +73,8 @@ public class ConfigBasedProjectService implements IProjectService {
             FileObject dir = (resource.isFolder() ? resource : resource.getParent());
             while(dir != null) {
                 FileName name = dir.getName();
-                if(projectConfigService.available(dir)) {
+                final boolean knownNoConfig = noConfigDirs.getIfPresent(name) != null;
+                if(!knownNoConfig && projectConfigService.available(dir)) {
                     final ConfigRequest<? extends IProjectConfig> configRequest = projectConfigService.get(dir);
                     if(!configRequest.valid()) {
                         logger.error("Errors occurred when retrieving project configuration from project directory {}", dir);
@@ -75,6 +95,10 @@ public class ConfigBasedProjectService implements IProjectService {
                     }
                     return project;
                 }
+                if(!knownNoConfig) {
+                    // Only remember directories that were actually checked, such that entries expire.
+                    noConfigDirs.put(name, true);
+                }
                 dir = dir.getParent();
             }
         } catch(FileSystemException e) {
@@ -0,0 +1,108 @@
+package org.metaborg.core.project;
+
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.vfs2.FileName;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Trie of projects, indexed by the segments of their location. Finding the project that contains a resource takes time
+ * proportional to the depth of the resource, independent of the number of projects.
+ */
+class ProjectTrie {
+    private final Node root = new Node();
+
+
+    /**
+     * @return Project whose location is equal to or an ancestor of given file name. If multiple projects match, the
+     *         innermost project is returned. Returns null if no project matches.
+     */
+    public synchronized @Nullable IProject get(FileName name) {
+        Node node = root.children.get(name.getRootURI());
+        if(node == null) {
+            return null;
+        }
+        IProject project = node.project;
+        for(String segment : segments(name)) {
+            node = node.children.get(segment);
+            if(node == null) {
+                break;
+            }
+            if(node.project != null) {
+                project = node.project;
+            }
+        }
+        return project;
+    }
+
+    /**
+     * Adds given project at given location, if there is no project at that location yet.
+     *
+     * @return Project that already existed at given location, or null if given project was added.
+     */
+    public synchronized @Nullable IProject putIfAbsent(FileName name, IProject project) {
+        Node node = child(root, name.getRootURI());
+        for(String segment : segments(name)) {
+            node = child(node, segment);
+        }
+        if(node.project != null) {
+            return node.project;
+        }
+        node.project = project;
+        return null;
+    }
+
+    /**
+     * Removes the project at given location.
+     *
+     * @return Removed project, or null if there was no project at given location.
+     */
+    public synchronized @Nullable IProject remove(FileName name) {
+        return remove(root, name.getRootURI(), segments(name), 0);
+    }
+
+
+    private @Nullable IProject remove(Node parent, String key, String[] segments, int index) {
+        final Node node = parent.children.get(key);
+        if(node == null) {
+            return null;
+        }
+        final IProject removed;
+        if(index == segments.length) {
+            removed = node.project;
+            node.project = null;
+        } else {
+            removed = remove(node, segments[index], segments, index + 1);
+        }
+        if(node.project == null && node.children.isEmpty()) {
+            parent.children.remove(key);
+        }
+        return removed;
+    }
+
+    private static Node child(Node node, String segment) {
+        Node child = node.children.get(segment);
+        if(child == null) {
+            child = new Node();
+            node.children.put(segment, child);
+        }
+        return child;
+    }
+
+    private static String[] segments(FileName name) {
+        final String path = name.getPath();
+        if(path.isEmpty() || path.equals(FileName.ROOT_PATH)) {
+            return new String[0];
+        }
+        return path.substring(1).split(FileName.SEPARATOR);
+    }
+
+
+    private static class Node {
+        public final Map<String, Node> children = Maps.newHashMap();
+        public @Nullable IProject project;
+    }
+}
@@ -1,8 +1,5 @@
 package org.metaborg.core.project;
 
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentMap;
-
 import javax.annotation.Nullable;
 
 import org.apache.commons.vfs2.FileName;
@@ -16,7 +13,6 @@ import org.metaborg.core.source.ISourceTextService;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
 
-import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 
 public class SimpleProjectService implements ISimpleProjectService {
@@ -25,7 +21,7 @@ public class SimpleProjectService implements ISimpleProjectService {
     private final ISourceTextService sourceTextService;
     private final IProjectConfigService projectConfigService;
 
-    private final ConcurrentMap<FileName, IProject> projects = Maps.newConcurrentMap();
+    private final ProjectTrie projects = new ProjectTrie();
 
 
     @Inject public SimpleProjectService(ISourceTextService sourceTextService,
@@ -36,24 +32,16 @@ public class SimpleProjectService implements ISimpleProjectService {
 
 
     @Override public @Nullable IProject get(FileObject resource) {
-        final FileName name = resource.getName();
-        for(Entry<FileName, IProject> entry : projects.entrySet()) {
-            final FileName projectName = entry.getKey();
-            if(name.equals(projectName) || name.isAncestor(projectName)) {
-                return entry.getValue();
-            }
-        }
-        return null;
+        return projects.get(resource.getName());
     }
 
     @Override public IProject create(FileObject location) throws MetaborgException {
         final FileName name = location.getName();
-        for(FileName projectName : projects.keySet()) {
-            if(name.equals(projectName) || name.isAncestor(projectName)) {
-                final String message =
-                    String.format("Location %s is equal to or nested in project %s", name, projectName);
-                throw new MetaborgException(message);
-            }
+        final IProject existingProject = projects.get(name);
+        if(existingProject != null) {
+            final String message = String.format("Location %s is equal to or nested in project %s", name,
+                existingProject.location().getName());
+            throw new MetaborgException(message);
         }
 
         final ConfigRequest<? extends IProjectConfig> configRequest = projectConfigService.get(location);
@@ -0,0 +1,125 @@
+package org.metaborg.core.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.metaborg.util.log.ILogger;
+import org.metaborg.util.log.LoggerUtils;
+
+/**
+ * Utility functions for directories of persistent caches. Caches are stored per user, in a directory that only the user
+ * can access, such that other users cannot read cached data or plant entries in the cache. Entries that have not been
+ * used for {@link #maxAgeDays} days are evicted.
+ */
+public class CacheDirectories {
+    private static final ILogger logger = LoggerUtils.logger(CacheDirectories.class);
+
+    public static final long maxAgeDays = 30;
+
+    private static final Set<PosixFilePermission> ownerOnly = PosixFilePermissions.fromString("rwx------");
+
+
+    /**
+     * Gets the directory of a cache, which is set with given system property, or defaults to a directory with given
+     * name in the {@code .metaborg/cache} directory of the home directory of the user.
+     */
+    public static File directory(String property, String name) {
+        final String directory = System.getProperty(property);
+        if(directory != null) {
+            return new File(directory);
+        }
+        return new File(new File(new File(System.getProperty("user.home"), ".metaborg"), "cache"), name);
+    }
+
+    /**
+     * Creates given cache directory and its parents if it does not exist yet, such that only the owner can access the
+     * directory.
+     */
+    public static void create(Path directory) throws IOException {
+        if(Files.isDirectory(directory)) {
+            return;
+        }
+        final Path parent = directory.getParent();
+        if(parent != null) {
+            Files.createDirectories(parent);
+        }
+        if(FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(ownerOnly));
+        } else {
+            Files.createDirectories(directory);
+            final File file = directory.toFile();
+            file.setReadable(false, false);
+            file.setWritable(false, false);
+            file.setExecutable(false, false);
+            file.setReadable(true, true);
+            file.setWritable(true, true);
+            file.setExecutable(true, true);
+        }
+    }
+
+    /**
+     * Marks given cache entry as used, such that it is not evicted.
+     */
+    public static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch(IOException e) {
+            logger.trace("Could not mark cache entry {} as used", e, entry);
+        }
+    }
+
+    /**
+     * Deletes the entries of given cache directory that have not been used for {@link #maxAgeDays} days. Failures are
+     * logged, not thrown, since entries may be deleted concurrently by other processes.
+     */
+    public static void evict(Path directory) {
+        if(!Files.isDirectory(directory)) {
+            return;
+        }
+        final long threshold = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(maxAgeDays);
+        try(final DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for(Path entry : entries) {
+                try {
+                    if(Files.getLastModifiedTime(entry).toMillis() < threshold) {
+                        logger.debug("Evicting unused cache entry {}", entry);
+                        delete(entry);
+                    }
+                } catch(IOException e) {
+                    logger.debug("Could not evict cache entry {}", e, entry);
+                }
+            }
+        } catch(IOException e) {
+            logger.warn("Could not evict entries of cache {}", e, directory);
+        }
+    }
+
+
+    private static void delete(Path entry) throws IOException {
+        Files.walkFileTree(entry, new SimpleFileVisitor<Path>() {
+            @Override public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.deleteIfExists(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                if(e != null) {
+                    throw e;
+                }
+                Files.deleteIfExists(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
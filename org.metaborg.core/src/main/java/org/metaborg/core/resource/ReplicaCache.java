@@ -0,0 +1,347 @@
+package org.metaborg.core.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.FileTypeSelector;
+import org.metaborg.util.log.ILogger;
+import org.metaborg.util.log.LoggerUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+
+/**
+ * Persistent, content-addressed cache of local replicas of resources that are not on the local file system, such as
+ * files inside language archives. Replicas are stored in a directory named after the checksum of their contents, such
+ * that they are reused across calls and process restarts. Replicated files are verified by their checksum before they
+ * are reused, and written atomically, such that multiple processes can share the cache directory.
+ * <p>
+ * Resources are identified by the stamp of the local file that contains them, such as the language archive, since
+ * archives do not change without changing their stamp. For every replicated resource, a manifest keyed by that stamp
+ * and the path of the resource records the checksums of the replicated files. As long as the stamp is unchanged, a
+ * replica is reused by only verifying the checksums of the replicated files, without reading the resource from the
+ * archive. Within a process, a replica is reused without verifying its checksums. Stamps that are
+ * {@link ResourceUtils#racy racy} are not trusted.
+ *
+ * The cache directory is set with the {@value #directoryProperty} system property, and defaults to a per-user directory
+ * that only the user can access. Replicas that have not been used for {@link CacheDirectories#maxAgeDays} days are
+ * evicted.
+ */
+public class ReplicaCache {
+    private static final ILogger logger = LoggerUtils.logger(ReplicaCache.class);
+
+    public static final String directoryProperty = "metaborg.replicas";
+
+    private static final HashFunction hashFunction = Hashing.sha256();
+    private static final String manifestExtension = ".manifest";
+
+    private final File directory;
+    private final Map<FileName, Replica> replicas = Maps.newConcurrentMap();
+    private final AtomicBoolean evicted = new AtomicBoolean();
+
+
+    @Inject public ReplicaCache() {
+        this(defaultDirectory());
+    }
+
+    public ReplicaCache(File directory) {
+        this.directory = directory;
+    }
+
+
+    /**
+     * @return Directory in which replicas are stored.
+     */
+    public File directory() {
+        return directory;
+    }
+
+    /**
+     * Gets a local replica of given resource, reusing an earlier replica if it has the same contents.
+     *
+     * @param resource
+     *            File or folder to replicate.
+     * @return Replicated file or folder.
+     * @throws IOException
+     *             When reading the resource, or writing the replica, fails.
+     */
+    public File replicate(FileObject resource) throws IOException {
+        final FileName name = resource.getName();
+        final boolean file = resource.getType() == FileType.FILE;
+        final @Nullable Stamp stamp = stamp(resource, file);
+
+        // Replicas were verified when they were created in this process, and are reused while the local file that
+        // contains the resource is unchanged.
+        final Replica replica = replicas.get(name);
+        if(replica != null && stamp != null && !stamp.racy && stamp.equals(replica.stamp) && replica.file.exists()) {
+            return replica.file;
+        }
+        if(evicted.compareAndSet(false, true)) {
+            CacheDirectories.evict(directory.toPath());
+        }
+
+        final @Nullable Path manifest = stamp != null ? manifest(stamp, name) : null;
+        if(manifest != null) {
+            final @Nullable File local = reuse(manifest, name, file);
+            if(local != null) {
+                replicas.put(name, new Replica(stamp, local));
+                return local;
+            }
+        }
+
+        final List<FileObject> files = files(resource, file);
+        final List<HashCode> hashes = Lists.newArrayListWithCapacity(files.size());
+        final Hasher treeHasher = hashFunction.newHasher();
+        for(FileObject child : files) {
+            final HashCode hash;
+            try(final InputStream stream = child.getContent().getInputStream()) {
+                hash = hashFunction.hashBytes(IOUtils.toByteArray(stream));
+            }
+            hashes.add(hash);
+            treeHasher.putString(relativePath(resource, child), StandardCharsets.UTF_8);
+            treeHasher.putBytes(hash.asBytes());
+        }
+
+        final String treeHash = treeHasher.hash().toString();
+        final Path root = directory.toPath().resolve(treeHash);
+        final Path target = root.resolve(name.getBaseName());
+        CacheDirectories.create(directory.toPath());
+        Files.createDirectories(root);
+        CacheDirectories.touch(root);
+        final List<String> manifestLines = Lists.newArrayListWithCapacity(files.size() + 1);
+        manifestLines.add(treeHash);
+        for(int i = 0; i < files.size(); ++i) {
+            final FileObject child = files.get(i);
+            final String path = relativePath(resource, child);
+            store(child, file ? target : target.resolve(path), hashes.get(i));
+            manifestLines.add(hashes.get(i) + " " + path);
+        }
+        if(!file) {
+            Files.createDirectories(target);
+        }
+
+        final File local = target.toFile();
+        if(stamp != null) {
+            if(manifest != null) {
+                write(manifest, manifestLines);
+            }
+            replicas.put(name, new Replica(stamp, local));
+        }
+        return local;
+    }
+
+
+    /**
+     * Reuses the replica recorded in given manifest, if the manifest exists and the checksums of all replicated files
+     * are still valid.
+     *
+     * @return Replicated file or folder, or null if the replica cannot be reused.
+     */
+    private @Nullable File reuse(Path manifest, FileName name, boolean file) throws IOException {
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+        } catch(NoSuchFileException e) {
+            return null;
+        }
+        if(lines.isEmpty()) {
+            return null;
+        }
+
+        final Path root = directory.toPath().resolve(lines.get(0));
+        final Path target = root.resolve(name.getBaseName());
+        if(file ? !Files.isRegularFile(target) : !Files.isDirectory(target)) {
+            return null;
+        }
+        for(String line : lines.subList(1, lines.size())) {
+            final int separator = line.indexOf(' ');
+            if(separator == -1) {
+                logger.warn("Replica manifest {} is corrupt, replicating {} again", manifest, name);
+                return null;
+            }
+            final String hash = line.substring(0, separator);
+            final Path childTarget = file ? target : target.resolve(line.substring(separator + 1));
+            if(!Files.isRegularFile(childTarget)
+                || !hashFunction.hashBytes(Files.readAllBytes(childTarget)).toString().equals(hash)) {
+                logger.warn("Replica {} of {} is missing or corrupt, replicating again", childTarget, name);
+                return null;
+            }
+        }
+
+        logger.trace("Reusing replica {} of {}", target, name);
+        CacheDirectories.touch(root);
+        CacheDirectories.touch(manifest);
+        return target.toFile();
+    }
+
+    /**
+     * @return Path of the manifest of given resource with given stamp, or null if the stamp is racy.
+     */
+    private @Nullable Path manifest(Stamp stamp, FileName name) {
+        if(stamp.racy) {
+            return null;
+        }
+        // @formatter:off
+        final String key = hashFunction.newHasher()
+            .putString(stamp.container.getURI(), StandardCharsets.UTF_8)
+            .putLong(stamp.modified)
+            .putLong(stamp.size)
+            .putString(name.getURI(), StandardCharsets.UTF_8)
+            .hash().toString();
+        // @formatter:on
+        return directory.toPath().resolve(key + manifestExtension);
+    }
+
+    private static void write(Path target, List<String> lines) throws IOException {
+        final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch(AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+
+    private void store(FileObject resource, Path target, HashCode hash) throws IOException {
+        if(Files.isRegularFile(target)) {
+            if(hashFunction.hashBytes(Files.readAllBytes(target)).equals(hash)) {
+                logger.trace("Reusing replica {} of {}", target, resource);
+                return;
+            }
+            logger.warn("Replica {} of {} is corrupt, replicating again", target, resource);
+        }
+
+        logger.debug("Replicating {} to {}", resource, target);
+        Files.createDirectories(target.getParent());
+        final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try(final InputStream stream = resource.getContent().getInputStream()) {
+                Files.copy(stream, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Gets the stamp of the local file that contains given resource: the innermost file on the local file system of
+     * the layers of archives the resource is in, or the resource itself if it is a local file. The stamp of a local
+     * folder does not change when its descendants change, local folders therefore do not have a stamp.
+     *
+     * @return Stamp, or null if the resource is not contained in a local file.
+     */
+    private static @Nullable Stamp stamp(FileObject resource, boolean file) throws FileSystemException {
+        FileObject container = resource;
+        FileSystem fileSystem = resource.getFileSystem();
+        while(fileSystem.getParentLayer() != null) {
+            container = fileSystem.getParentLayer();
+            fileSystem = container.getFileSystem();
+        }
+        if(ResourceUtils.localPath(container) == null || (!file && container == resource)) {
+            return null;
+        }
+        final long containerModified = ResourceUtils.lastModified(container);
+        final long containerSize = ResourceUtils.size(container);
+        return new Stamp(container.getName(), containerModified, containerSize);
+    }
+
+    private static List<FileObject> files(FileObject resource, boolean file) throws FileSystemException {
+        if(file) {
+            return Collections.singletonList(resource);
+        }
+        final List<FileObject> files =
+            Lists.newArrayList(ResourceUtils.find(resource, new FileTypeSelector(FileType.FILE)));
+        // Sort files such that the checksum of the tree does not depend on the order of traversal.
+        Collections.sort(files, (f1, f2) -> f1.getName().getPath().compareTo(f2.getName().getPath()));
+        return files;
+    }
+
+    private static String relativePath(FileObject base, FileObject file) throws FileSystemException {
+        if(base.equals(file)) {
+            return base.getName().getBaseName();
+        }
+        return base.getName().getRelativeName(file.getName());
+    }
+
+    private static File defaultDirectory() {
+        return CacheDirectories.directory(directoryProperty, "replicas");
+    }
+
+
+    private static class Stamp {
+        public final FileName container;
+        public final long modified;
+        public final long size;
+        public final boolean racy;
+
+
+        public Stamp(FileName container, long modified, long size) {
+            this.container = container;
+            this.modified = modified;
+            this.size = size;
+            this.racy = ResourceUtils.racy(modified);
+        }
+
+
+        @Override public int hashCode() {
+            return Objects.hash(container, modified, size);
+        }
+
+        @Override public boolean equals(Object obj) {
+            if(this == obj) {
+                return true;
+            }
+            if(obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Stamp other = (Stamp) obj;
+            return container.equals(other.container) && modified == other.modified && size == other.size;
+        }
+    }
+
+    private static class Replica {
+        public final Stamp stamp;
+        public final File file;
+
+
+        public Replica(Stamp stamp, File file) {
+            this.stamp = stamp;
+            this.file = file;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.metaborg.core.resource;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 
@@ -22,6 +23,8 @@ import org.metaborg.util.file.URIEncode;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 
@@ -30,11 +33,19 @@ public class ResourceService implements IResourceService {
 
     private final FileSystemManager fileSystemManager;
     private final FileSystemOptions fileSystemOptions;
+    private final ReplicaCache replicaCache;
+    /**
+     * Encoded URIs of strings that were resolved. Resolving the same paths over and over again is common, for example
+     * from Stratego primitives, and skips encoding the URI again. Resolved files are not cached, since the file system
+     * manager refreshes files when they are resolved, which keeps their type and existence up to date.
+     */
+    private final Cache<String, String> encodedUris = CacheBuilder.newBuilder().maximumSize(10000).build();
 
 
     @Inject public ResourceService(FileSystemManager fileSystemManager,
-        @Named("ResourceClassLoader") ClassLoader classLoader) {
+        @Named("ResourceClassLoader") ClassLoader classLoader, ReplicaCache replicaCache) {
         this.fileSystemManager = fileSystemManager;
+        this.replicaCache = replicaCache;
         this.fileSystemOptions = new FileSystemOptions();
 
         if(classLoader == null) {
@@ -70,8 +81,12 @@ public class ResourceService implements IResourceService {
     }
 
     @Override public FileObject resolve(String uri) {
+        String uriEncoded = encodedUris.getIfPresent(uri);
+        if(uriEncoded == null) {
+            uriEncoded = URIEncode.encode(uri);
+            encodedUris.put(uri, uriEncoded);
+        }
         try {
-            final String uriEncoded = URIEncode.encode(uri);
             return fileSystemManager.resolveFile(uriEncoded, fileSystemOptions);
         } catch(FileSystemException e) {
             throw new MetaborgRuntimeException(e);
@@ -139,6 +154,12 @@ public class ResourceService implements IResourceService {
             return FileUtils.toFile(resource);
         }
 
+        try {
+            return replicaCache.replicate(resource);
+        } catch(IOException e) {
+            logger.warn("Could not use replica cache for {}, replicating to a temporary file", e, resource);
+        }
+
         try {
             return resource.getFileSystem().replicateFile(resource, new AllFileSelector());
         } catch(FileSystemException e) {
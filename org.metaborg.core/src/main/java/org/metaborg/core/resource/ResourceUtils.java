@@ -1,18 +1,46 @@
 package org.metaborg.core.resource;
 
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+
+import javax.annotation.Nullable;
 
 import org.apache.commons.vfs2.AllFileSelector;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelectInfo;
 import org.apache.commons.vfs2.FileSelector;
 import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemManager;
+import org.apache.commons.vfs2.provider.local.LocalFile;
+import org.metaborg.util.file.FileUtils;
 import org.metaborg.util.iterators.Iterables2;
 
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Queues;
 
 public class ResourceUtils {
+    /**
+     * Interval in milliseconds after the modification of a file, in which its modification time does not reliably
+     * identify its content.
+     */
+    public static final long racyInterval = 2000;
+
     public static Iterable<FileObject> find(FileObject base, FileSelector selector) throws FileSystemException {
+        final @Nullable Path localBase = localPath(base);
+        if(localBase != null) {
+            return findLocal(base, localBase, selector);
+        }
+
         final FileObject[] files = base.findFiles(selector);
         if(files == null) {
             return Iterables2.empty();
@@ -25,6 +53,63 @@ public class ResourceUtils {
     }
 
 
+    /**
+     * Gets the last modification time of given resource. Local files are accessed directly through NIO instead of
+     * through the VFS content layer.
+     */
+    public static long lastModified(FileObject resource) throws FileSystemException {
+        final @Nullable Path path = localPath(resource);
+        if(path == null) {
+            return resource.getContent().getLastModifiedTime();
+        }
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch(IOException e) {
+            throw new FileSystemException(e);
+        }
+    }
+
+    /**
+     * Gets the size of given resource in bytes. Local files are accessed directly through NIO instead of through the
+     * VFS content layer.
+     */
+    public static long size(FileObject resource) throws FileSystemException {
+        final @Nullable Path path = localPath(resource);
+        if(path == null) {
+            return resource.getContent().getSize();
+        }
+        try {
+            return Files.size(path);
+        } catch(IOException e) {
+            throw new FileSystemException(e);
+        }
+    }
+
+    /**
+     * Checks if a stamp of a file with given modification time, taken now, is racy. A file that is changed again within
+     * the granularity of the modification times of the file system keeps its modification time, and possibly its size.
+     * Stamps taken within {@link #racyInterval} of the modification time cannot detect such changes, and must not be
+     * trusted to identify the content of the file.
+     *
+     * @param modified
+     *            Modification time of the file, in milliseconds since the epoch.
+     * @return True if the stamp is racy.
+     */
+    public static boolean racy(long modified) {
+        return System.currentTimeMillis() - modified < racyInterval;
+    }
+
+    /**
+     * @return Path of given resource if it is a file on the local file system, or null otherwise.
+     */
+    public static @Nullable Path localPath(FileObject resource) {
+        if(resource instanceof LocalFile) {
+            return FileUtils.toFile(resource).toPath();
+        }
+        return null;
+    }
+
+
     public static Iterable<ResourceChange> toChanges(Iterable<FileObject> resources, ResourceChangeKind kind) {
         final int size = Iterables.size(resources);
         final Collection<ResourceChange> changes = Lists.newArrayListWithCapacity(size);
@@ -33,4 +118,107 @@ public class ResourceUtils {
         }
         return changes;
     }
+
+
+    /**
+     * Finds files in a local directory with a single bulk walk of the file tree, instead of listing and attaching every
+     * folder through VFS. Selection order is the same as {@link FileObject#findFiles(FileSelector)}: descendants are
+     * selected before the folder that contains them.
+     */
+    private static Collection<FileObject> findLocal(final FileObject base, Path localBase, final FileSelector selector)
+        throws FileSystemException {
+        final List<FileObject> files = Lists.newArrayList();
+        if(!Files.exists(localBase)) {
+            return files;
+        }
+
+        final FileSystemManager manager = base.getFileSystem().getFileSystemManager();
+        final Deque<LocalSelectInfo> folders = Queues.newArrayDeque();
+        try {
+            Files.walkFileTree(localBase, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+                new SimpleFileVisitor<Path>() {
+                    @Override public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+                        throws IOException {
+                        final LocalSelectInfo info = info(dir);
+                        if(!select(selector, info, true)) {
+                            if(select(selector, info, false)) {
+                                files.add(info.file);
+                            }
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        folders.push(info);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+                        throws IOException {
+                        final LocalSelectInfo info = info(file);
+                        if(select(selector, info, false)) {
+                            files.add(info.file);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                        if(e != null) {
+                            throw e;
+                        }
+                        final LocalSelectInfo info = folders.pop();
+                        if(select(selector, info, false)) {
+                            files.add(info.file);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    private LocalSelectInfo info(Path path) throws FileSystemException {
+                        if(path.equals(localBase)) {
+                            return new LocalSelectInfo(base, base, 0);
+                        }
+                        final FileObject file = manager.toFileObject(path.toFile());
+                        return new LocalSelectInfo(base, file, localBase.relativize(path).getNameCount());
+                    }
+                });
+        } catch(IOException | RuntimeException e) {
+            // Wrap all exceptions, including those of the selector, like FileObject#findFiles does.
+            throw new FileSystemException(e);
+        }
+        return files;
+    }
+
+    private static boolean select(FileSelector selector, FileSelectInfo info, boolean traverse) throws IOException {
+        try {
+            return traverse ? selector.traverseDescendents(info) : selector.includeFile(info);
+        } catch(IOException | RuntimeException e) {
+            throw e;
+        } catch(Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+
+    private static class LocalSelectInfo implements FileSelectInfo {
+        private final FileObject base;
+        private final FileObject file;
+        private final int depth;
+
+
+        public LocalSelectInfo(FileObject base, FileObject file, int depth) {
+            this.base = base;
+            this.file = file;
+            this.depth = depth;
+        }
+
+
+        @Override public FileObject getBaseFolder() {
+            return base;
+        }
+
+        @Override public FileObject getFile() {
+            return file;
+        }
+
+        @Override public int getDepth() {
+            return depth;
+        }
+    }
 }
@@ -0,0 +1,159 @@
+package org.metaborg.core.source;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Strings;
+
+/**
+ * Index of the lines of a source text. Precomputes the offsets at which lines start and end, such that the lines that
+ * are affected by a source region can be found with a binary search instead of by splitting the whole text.
+ */
+public class SourceLineIndex {
+    private final String text;
+    /**
+     * Offset of the first character of each line.
+     */
+    private final int[] lineStarts;
+    /**
+     * Offset of the newline characters that end each line, or the length of the text for the last line.
+     */
+    private final int[] lineEnds;
+
+
+    public SourceLineIndex(String text) {
+        this.text = text;
+
+        final int length = text.length();
+        int[] starts = new int[64];
+        int[] ends = new int[64];
+        int lines = 0;
+        int start = 0;
+        for(int i = 0; i < length; ++i) {
+            if(text.charAt(i) == '\n') {
+                if(lines == starts.length) {
+                    starts = Arrays.copyOf(starts, lines * 2);
+                    ends = Arrays.copyOf(ends, lines * 2);
+                }
+                starts[lines] = start;
+                ends[lines] = i > start && text.charAt(i - 1) == '\r' ? i - 1 : i;
+                ++lines;
+                start = i + 1;
+            }
+        }
+        if(start < length) {
+            if(lines == starts.length) {
+                starts = Arrays.copyOf(starts, lines + 1);
+                ends = Arrays.copyOf(ends, lines + 1);
+            }
+            starts[lines] = start;
+            ends[lines] = length;
+            ++lines;
+        }
+        this.lineStarts = Arrays.copyOf(starts, lines);
+        this.lineEnds = Arrays.copyOf(ends, lines);
+    }
+
+
+    /**
+     * @return Number of lines in the source text.
+     */
+    public int lineCount() {
+        return lineStarts.length;
+    }
+
+    /**
+     * @return Text of given line, without newline characters.
+     */
+    public String line(int line) {
+        return text.substring(lineStarts[line], lineEnds[line]);
+    }
+
+    /**
+     * Returns a multi-line string that highlights the affected source code region.
+     *
+     * @param region
+     *            Region in the source text that should be highlighted.
+     * @param indentation
+     *            Indentation to add to each line in the resulting string.
+     * @return Multi-line string that highlights the affected source code region, or null if the region is not inside
+     *         the source text.
+     * @see AffectedSourceHelper#affectedSourceText(ISourceRegion, String, String)
+     */
+    public @Nullable String affectedSourceText(ISourceRegion region, String indentation) {
+        final int startOffset = region.startOffset();
+        final int endOffset = region.endOffset();
+
+        final int startRow = lineAtOrAfter(startOffset, 0);
+        if(startRow == -1) {
+            return null;
+        }
+        final int endRow = lineAtOrAfter(endOffset, startRow);
+        if(endRow == -1) {
+            return null;
+        }
+
+        int startExtend = Integer.MAX_VALUE;
+        int endExtend = 0;
+        for(int i = startRow; i <= endRow; ++i) {
+            final int length = lineEnds[i] - lineStarts[i];
+
+            final int startDist = startOffset - lineStarts[i];
+            if(startDist >= 0 && startDist <= length) {
+                startExtend = Math.min(startExtend, startDist);
+            }
+
+            final int endDist = endOffset - lineStarts[i];
+            if(endDist >= 0 && endDist <= length) {
+                endExtend = Math.max(endExtend, endDist + 1);
+            }
+
+            if(i != endRow) {
+                startExtend = 0;
+                endExtend = Math.max(endExtend, length);
+            }
+        }
+
+        if(startExtend == Integer.MAX_VALUE) {
+            return null;
+        }
+
+        final StringBuilder builder = new StringBuilder();
+        for(int i = startRow; i <= endRow; ++i) {
+            builder.append(indentation);
+            builder.append(line(i).replace('\t', ' '));
+            builder.append('\n');
+        }
+        if(startExtend <= endExtend) {
+            builder.append(indentation);
+            builder.append(Strings.repeat(" ", startExtend));
+            builder.append(Strings.repeat("^", endExtend - startExtend));
+            builder.append('\n');
+        }
+
+        return builder.toString();
+    }
+
+
+    /**
+     * @return First line, starting at {@code fromLine}, that contains given offset or ends after it, where the newline
+     *         characters belong to the line they end. Returns -1 if there is no such line.
+     */
+    private int lineAtOrAfter(int offset, int fromLine) {
+        int low = fromLine;
+        int high = lineEnds.length - 1;
+        int result = -1;
+        while(low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int nextStart = mid + 1 < lineStarts.length ? lineStarts[mid + 1] : text.length() + 1;
+            if(nextStart > offset) {
+                result = mid;
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return result;
+    }
+}
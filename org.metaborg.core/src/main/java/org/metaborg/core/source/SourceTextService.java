@@ -2,12 +2,20 @@ package org.metaborg.core.source;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.vfs2.FileObject;
+import org.metaborg.core.resource.ResourceUtils;
 
 public class SourceTextService implements ISourceTextService {
     @Override public String text(FileObject resource) throws IOException {
+        final Path path = ResourceUtils.localPath(resource);
+        if(path != null) {
+            // Read local files in bulk, bypassing the VFS content stream.
+            return new String(Files.readAllBytes(path), Charset.defaultCharset());
+        }
         return IOUtils.toString(resource.getContent().getInputStream(), Charset.defaultCharset());
     }
 }
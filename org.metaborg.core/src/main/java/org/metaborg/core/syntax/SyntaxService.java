@@ -4,6 +4,8 @@ import java.util.Collection;
 import java.util.Map;
 
 import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.core.metrics.IMetricsService;
+import org.metaborg.core.metrics.Span;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
 import org.metaborg.util.task.ICancel;
@@ -16,10 +18,12 @@ public abstract class SyntaxService<I extends IInputUnit, P extends IParseUnit>
     private static final ILogger logger = LoggerUtils.logger(SyntaxService.class);
 
     private final Map<String, ? extends IParser<I, P>> parsers;
+    private final IMetricsService metricsService;
 
 
-    @Inject public SyntaxService(Map<String, ? extends IParser<I, P>> parsers) {
+    @Inject public SyntaxService(Map<String, ? extends IParser<I, P>> parsers, IMetricsService metricsService) {
         this.parsers = parsers;
+        this.metricsService = metricsService;
     }
 
 
@@ -35,7 +39,9 @@ public abstract class SyntaxService<I extends IInputUnit, P extends IParseUnit>
             final String message = logger.format("Cannot get a parser for {}", langImpl);
             throw new ParseException(input, message);
         }
-        return parser.parse(input, progress, cancel);
+        try(final Span span = metricsService.span("parse")) {
+            return parser.parse(input, progress, cancel);
+        }
     }
 
     @Override public Collection<P> parseAll(Iterable<I> inputs, IProgress progress, ICancel cancel)
@@ -8,4 +8,24 @@ public interface ITransformConfig {
      * If this returns true, the transformation should be performed without side effects like writing output files.
      */
     public boolean dryRun();
+
+    /**
+     * If this returns true, output files are only written when their content differs from the content that is already
+     * on disk. Unchanged output files keep their modification time, which prevents unnecessary rebuilds of downstream
+     * tools.
+     */
+    public boolean writeIfChanged();
+
+    /**
+     * If this returns true, output files of transformations of multiple units are written in the background, such that
+     * writing does not block transforming the next units. All outputs are written when the transformation of all units
+     * returns.
+     */
+    public boolean backgroundWrite();
+
+    /**
+     * If this returns true, transformation results are memoised, and reused when the same transformation is executed on
+     * a structurally equal input. Only enable this when transformations do not depend on anything but their input.
+     */
+    public boolean memoize();
 }
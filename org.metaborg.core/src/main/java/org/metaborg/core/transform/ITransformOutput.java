@@ -17,4 +17,9 @@ public interface ITransformOutput {
      * Output file, or null if output was not written to a file.
      */
     @Nullable FileObject output();
+
+    /**
+     * @return True if the output file was not written because it already had identical content, false otherwise.
+     */
+    boolean unchanged();
 }
@@ -2,18 +2,44 @@ package org.metaborg.core.transform;
 
 public class TransformConfig implements ITransformConfig {
     private final boolean dry;
+    private final boolean writeIfChanged;
+    private final boolean backgroundWrite;
+    private final boolean memoize;
 
 
     public TransformConfig() {
-        this.dry = false;
+        this(false);
     }
 
     public TransformConfig(boolean dry) {
+        this(dry, false, false);
+    }
+
+    public TransformConfig(boolean dry, boolean writeIfChanged, boolean backgroundWrite) {
+        this(dry, writeIfChanged, backgroundWrite, false);
+    }
+
+    public TransformConfig(boolean dry, boolean writeIfChanged, boolean backgroundWrite, boolean memoize) {
         this.dry = dry;
+        this.writeIfChanged = writeIfChanged;
+        this.backgroundWrite = backgroundWrite;
+        this.memoize = memoize;
     }
 
 
     @Override public boolean dryRun() {
         return dry;
     }
+
+    @Override public boolean writeIfChanged() {
+        return writeIfChanged;
+    }
+
+    @Override public boolean backgroundWrite() {
+        return backgroundWrite;
+    }
+
+    @Override public boolean memoize() {
+        return memoize;
+    }
 }
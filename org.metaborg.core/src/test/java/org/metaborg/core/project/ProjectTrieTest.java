@@ -0,0 +1,105 @@
+package org.metaborg.core.project;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.VFS;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProjectTrieTest {
+    private ProjectTrie trie;
+
+
+    @Before public void setUp() {
+        trie = new ProjectTrie();
+    }
+
+
+    @Test public void outsideProjects() throws FileSystemException {
+        assertNull(trie.get(name("ram:///a/b/c.txt")));
+
+        final IProject ab = add("ram:///a/b");
+        assertSame(ab, trie.get(name("ram:///a/b")));
+        assertSame(ab, trie.get(name("ram:///a/b/c.txt")));
+        assertNull(trie.get(name("ram:///a")));
+        assertNull(trie.get(name("ram:///")));
+        assertNull(trie.get(name("ram:///x/c.txt")));
+        assertNull(trie.get(name("file:///a/b/c.txt")));
+    }
+
+    @Test public void nestedRoots() throws FileSystemException {
+        final IProject a = add("ram:///a");
+        final IProject abc = add("ram:///a/b/c");
+
+        assertSame(a, trie.get(name("ram:///a/x.txt")));
+        assertSame(a, trie.get(name("ram:///a/b")));
+        assertSame(a, trie.get(name("ram:///a/b/x.txt")));
+        assertSame(abc, trie.get(name("ram:///a/b/c")));
+        assertSame(abc, trie.get(name("ram:///a/b/c/d/x.txt")));
+    }
+
+    @Test public void siblingPrefixes() throws FileSystemException {
+        final IProject ab = add("ram:///a/b");
+        final IProject abc = add("ram:///a/bc");
+
+        assertSame(ab, trie.get(name("ram:///a/b/x.txt")));
+        assertSame(abc, trie.get(name("ram:///a/bc/x.txt")));
+        assertNull(trie.get(name("ram:///a/bcd/x.txt")));
+        assertNull(trie.get(name("ram:///a/x.txt")));
+    }
+
+    @Test public void putExisting() throws FileSystemException {
+        final IProject a = add("ram:///a");
+        final IProject other = project("ram:///a");
+
+        assertSame(a, trie.putIfAbsent(name("ram:///a"), other));
+        assertSame(a, trie.get(name("ram:///a/x.txt")));
+    }
+
+    @Test public void remove() throws FileSystemException {
+        final IProject a = add("ram:///a");
+        final IProject abc = add("ram:///a/b/c");
+
+        assertSame(abc, trie.remove(name("ram:///a/b/c")));
+        assertSame(a, trie.get(name("ram:///a/b/c/x.txt")));
+        assertNull(trie.remove(name("ram:///a/b/c")));
+        assertNull(trie.remove(name("ram:///a/b")));
+        assertSame(a, trie.get(name("ram:///a/b/x.txt")));
+
+        assertSame(a, trie.remove(name("ram:///a")));
+        assertNull(trie.get(name("ram:///a/x.txt")));
+        assertNull(trie.remove(name("ram:///a")));
+
+        final IProject newA = add("ram:///a");
+        assertSame(newA, trie.get(name("ram:///a/b/c/x.txt")));
+    }
+
+    @Test public void removeOuter() throws FileSystemException {
+        add("ram:///a");
+        final IProject ab = add("ram:///a/b");
+
+        trie.remove(name("ram:///a"));
+        assertNull(trie.get(name("ram:///a/x.txt")));
+        assertSame(ab, trie.get(name("ram:///a/b/x.txt")));
+    }
+
+
+    private IProject add(String uri) throws FileSystemException {
+        final IProject project = project(uri);
+        assertNull(trie.putIfAbsent(project.location().getName(), project));
+        return project;
+    }
+
+    private static IProject project(String uri) throws FileSystemException {
+        return new Project(VFS.getManager().resolveFile(uri), null);
+    }
+
+    private static FileName name(String uri) throws FileSystemException {
+        final FileObject resource = VFS.getManager().resolveFile(uri);
+        return resource.getName();
+    }
+}
@@ -0,0 +1,176 @@
+package org.metaborg.core.test.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.VFS;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.metaborg.core.analysis.IAnalyzeUnit;
+import org.metaborg.core.analysis.IAnalyzeUnitUpdate;
+import org.metaborg.core.build.BuildInput;
+import org.metaborg.core.build.BuildOrder;
+import org.metaborg.core.build.BuildState;
+import org.metaborg.core.build.CleanInput;
+import org.metaborg.core.build.IBuildOutput;
+import org.metaborg.core.build.IBuilder;
+import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.core.processing.AsyncProcessor;
+import org.metaborg.core.processing.ITask;
+import org.metaborg.core.project.IProject;
+import org.metaborg.core.project.Project;
+import org.metaborg.core.resource.ResourceChange;
+import org.metaborg.core.syntax.IParseUnit;
+import org.metaborg.core.transform.ITransformGoal;
+import org.metaborg.core.transform.ITransformUnit;
+import org.metaborg.util.iterators.Iterables2;
+import org.metaborg.util.task.ICancel;
+import org.metaborg.util.task.IProgress;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class AsyncProcessorTest {
+    private static final long debounceDelay = 100;
+
+    private TestBuilder builder;
+    private AsyncProcessor<IParseUnit, IAnalyzeUnit, IAnalyzeUnitUpdate, ITransformUnit<?>> processor;
+    private FileObject location;
+    private IProject project;
+
+
+    @Before public void setUp() throws FileSystemException {
+        builder = new TestBuilder();
+        processor = new AsyncProcessor<>(null, builder, null, debounceDelay, 1);
+        location = VFS.getManager().resolveFile("ram:///project");
+        project = new Project(location, null);
+    }
+
+    @After public void tearDown() {
+        processor.close();
+    }
+
+
+    @Test(timeout = 10000) public void testCoalescedBuildsRunOnce() throws Exception {
+        final ITask<?> task1 = processor.build(input("a"), null, null).schedule();
+        final ITask<?> task2 = processor.build(input("b"), null, null).schedule();
+        task1.block();
+        task2.block();
+
+        assertEquals(1, builder.inputs.size());
+        assertEquals(Sets.newHashSet("a", "b"), changed(builder.inputs.get(0)));
+        assertTrue(task1.completed());
+        assertTrue(task2.completed());
+    }
+
+    @Test(timeout = 10000) public void testCancelWaitsForAllCallers() throws Exception {
+        final ITask<?> task1 = processor.build(input("a"), null, null).schedule();
+        final ITask<?> task2 = processor.build(input("b"), null, null).schedule();
+        task1.cancel();
+        task2.block();
+
+        assertEquals(1, builder.inputs.size());
+        assertTrue(task2.completed());
+
+        final ITask<?> task3 = processor.build(input("c"), null, null).schedule();
+        final ITask<?> task4 = processor.build(input("d"), null, null).schedule();
+        task3.cancel();
+        task4.cancel();
+        task3.block();
+        task4.block();
+
+        assertEquals(1, builder.inputs.size());
+        assertTrue(task3.cancelled());
+        assertTrue(task4.cancelled());
+    }
+
+    @Test(timeout = 10000) public void testCancelledSupersedingBuildKeepsChanges() throws Exception {
+        builder.release = new CountDownLatch(1);
+        final ITask<?> task1 = processor.build(input("a"), null, null).schedule();
+        builder.started.await();
+
+        final ITask<?> task2 = processor.build(input("b"), null, null).schedule();
+        task2.cancel();
+        task1.block();
+        task2.block();
+
+        assertTrue(task1.cancelled());
+        assertTrue(task2.cancelled());
+
+        builder.release.countDown();
+        final ITask<?> task3 = processor.build(input("c"), null, null).schedule();
+        task3.block();
+
+        assertEquals(2, builder.inputs.size());
+        assertEquals(Sets.newHashSet("a", "c"), changed(builder.inputs.get(1)));
+        assertTrue(task3.completed());
+    }
+
+    @Test(timeout = 10000) public void testCloseCompletesPendingTasks() throws Exception {
+        final ITask<?> task = processor.build(input("a"), null, null).schedule();
+        processor.close();
+        task.block();
+
+        assertTrue(task.cancelled());
+        assertTrue(builder.inputs.isEmpty());
+    }
+
+    @Test(timeout = 10000) public void testCloseWithoutBuilds() throws Exception {
+        final AsyncProcessor<IParseUnit, IAnalyzeUnit, IAnalyzeUnitUpdate, ITransformUnit<?>> unused =
+            new AsyncProcessor<>(null, builder, null, debounceDelay, 1);
+        unused.close();
+        unused.close();
+    }
+
+
+    private BuildInput input(String... changed) throws FileSystemException {
+        final List<ResourceChange> changes = Lists.newArrayList();
+        for(String name : changed) {
+            changes.add(new ResourceChange(location.resolveFile(name)));
+        }
+        return new BuildInput(new BuildState(), project, changes, HashMultimap.<ILanguageImpl, FileObject>create(),
+            new BuildOrder(Iterables2.<ILanguageImpl>empty()), null, false, null, false, null,
+            Iterables2.<ITransformGoal>empty(), null, false, Sets.<ILanguageImpl>newHashSet());
+    }
+
+    private static Set<String> changed(BuildInput input) {
+        final Set<String> names = Sets.newHashSet();
+        for(ResourceChange change : input.sourceChanges) {
+            names.add(change.resource.getName().getBaseName());
+        }
+        return names;
+    }
+
+
+    private static class TestBuilder
+        implements IBuilder<IParseUnit, IAnalyzeUnit, IAnalyzeUnitUpdate, ITransformUnit<?>> {
+        public final List<BuildInput> inputs = Collections.synchronizedList(Lists.<BuildInput>newArrayList());
+        public final CountDownLatch started = new CountDownLatch(1);
+        public volatile CountDownLatch release = new CountDownLatch(0);
+
+
+        @Override public IBuildOutput<IParseUnit, IAnalyzeUnit, IAnalyzeUnitUpdate, ITransformUnit<?>>
+            build(BuildInput input, IProgress progress, ICancel cancel) throws InterruptedException {
+            inputs.add(input);
+            started.countDown();
+            while(!release.await(1, TimeUnit.MILLISECONDS)) {
+                cancel.throwIfCancelled();
+            }
+            cancel.throwIfCancelled();
+            return null;
+        }
+
+        @Override public void clean(CleanInput input, IProgress progress, ICancel cancellation) {
+        }
+    }
+}
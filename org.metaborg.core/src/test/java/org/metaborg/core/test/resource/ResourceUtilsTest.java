@@ -0,0 +1,202 @@
+package org.metaborg.core.test.resource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.vfs2.AllFileSelector;
+import org.apache.commons.vfs2.FileDepthSelector;
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelectInfo;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.VFS;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.metaborg.core.resource.ResourceUtils;
+import org.metaborg.util.iterators.Iterables2;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Compares {@link ResourceUtils#find(FileObject, FileSelector)}, which walks local file trees with NIO, with
+ * {@link FileObject#findFiles(FileSelector)} on a real file tree.
+ */
+public class ResourceUtilsTest {
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File root;
+
+
+    @Before public void setUp() throws IOException {
+        root = temporaryFolder.newFolder("root");
+        create("a.txt");
+        create("b.ent");
+        create("sub/c.txt");
+        create("sub/d.ent");
+        create("sub/deeper/e.ent");
+        create("skip/f.ent");
+        temporaryFolder.newFolder("root", "empty");
+    }
+
+
+    @Test public void allFiles() throws FileSystemException {
+        assertSameAsVfs(resolve(root), new AllFileSelector());
+    }
+
+    @Test public void depth() throws FileSystemException {
+        assertSameAsVfs(resolve(root), new FileDepthSelector(0, 0));
+        assertSameAsVfs(resolve(root), new FileDepthSelector(1, 1));
+        assertSameAsVfs(resolve(root), new FileDepthSelector(1, 2));
+    }
+
+    @Test public void selector() throws FileSystemException {
+        final FileSelector selector = new FileSelector() {
+            @Override public boolean includeFile(FileSelectInfo info) throws Exception {
+                return info.getFile().getName().getExtension().equals("ent");
+            }
+
+            @Override public boolean traverseDescendents(FileSelectInfo info) throws Exception {
+                return !info.getFile().getName().getBaseName().equals("skip");
+            }
+        };
+        final List<FileObject> files = assertSameAsVfs(resolve(root), selector);
+        assertEquals(names("b.ent", "sub/d.ent", "sub/deeper/e.ent"), names(files));
+    }
+
+    @Test public void folderSelectedAfterDescendants() throws FileSystemException {
+        final List<FileObject> files = assertSameAsVfs(resolve(root), new AllFileSelector());
+        for(int i = 0; i < files.size(); ++i) {
+            final FileName name = files.get(i).getName();
+            for(int j = i + 1; j < files.size(); ++j) {
+                assertFalse(name + " is selected before its ancestor",
+                    files.get(j).getName().isDescendent(name));
+            }
+        }
+    }
+
+    @Test public void fileAsBase() throws FileSystemException {
+        final FileObject file = resolve(new File(root, "sub/c.txt"));
+        final List<FileObject> files = assertSameAsVfs(file, new AllFileSelector());
+        assertEquals(1, files.size());
+        assertEquals(file.getName(), files.get(0).getName());
+        assertSameAsVfs(file, new FileDepthSelector(1, 1));
+    }
+
+    @Test public void nonExistentBase() throws FileSystemException {
+        final FileObject base = resolve(new File(root, "nonexistent"));
+        assertTrue(Lists.newArrayList(ResourceUtils.find(base, new AllFileSelector())).isEmpty());
+        assertSameAsVfs(base, new AllFileSelector());
+    }
+
+    @Test public void followLinks() throws IOException {
+        final Path link = root.toPath().resolve("link");
+        try {
+            Files.createSymbolicLink(link, root.toPath().resolve("sub"));
+        } catch(UnsupportedOperationException | IOException e) {
+            Assume.assumeNoException(e);
+        }
+        final List<FileObject> files = assertSameAsVfs(resolve(root), new AllFileSelector());
+        assertTrue(names(files).contains(name("link/deeper/e.ent")));
+        assertEquals(FileType.FOLDER, resolve(link.toFile()).getType());
+    }
+
+    @Test public void selectorExceptions() throws FileSystemException {
+        assertThrowsLikeVfs(resolve(root), new FileSelector() {
+            @Override public boolean includeFile(FileSelectInfo info) throws Exception {
+                throw new Exception("include");
+            }
+
+            @Override public boolean traverseDescendents(FileSelectInfo info) throws Exception {
+                return true;
+            }
+        });
+        assertThrowsLikeVfs(resolve(root), new FileSelector() {
+            @Override public boolean includeFile(FileSelectInfo info) throws Exception {
+                return true;
+            }
+
+            @Override public boolean traverseDescendents(FileSelectInfo info) throws Exception {
+                throw new IllegalStateException("traverse");
+            }
+        });
+        assertThrowsLikeVfs(resolve(root), new FileSelector() {
+            @Override public boolean includeFile(FileSelectInfo info) throws Exception {
+                throw new IOException("include");
+            }
+
+            @Override public boolean traverseDescendents(FileSelectInfo info) throws Exception {
+                return true;
+            }
+        });
+    }
+
+
+    private static List<FileObject> assertSameAsVfs(FileObject base, FileSelector selector)
+        throws FileSystemException {
+        final FileObject[] expected = base.findFiles(selector);
+        final List<FileObject> actual = Lists.newArrayList(ResourceUtils.find(base, selector));
+        assertEquals(expected == null ? Sets.<FileName>newHashSet() : names(Iterables2.from(expected)), names(actual));
+        assertEquals(expected == null ? 0 : expected.length, actual.size());
+        return actual;
+    }
+
+    private static void assertThrowsLikeVfs(FileObject base, FileSelector selector) {
+        try {
+            base.findFiles(selector);
+            fail("Expected FileObject#findFiles to throw");
+        } catch(FileSystemException e) {
+            // Expected.
+        }
+        try {
+            ResourceUtils.find(base, selector);
+            fail("Expected ResourceUtils#find to throw");
+        } catch(FileSystemException e) {
+            // Expected.
+        }
+    }
+
+    private void create(String path) throws IOException {
+        final File file = new File(root, path);
+        file.getParentFile().mkdirs();
+        assertTrue(file.createNewFile());
+    }
+
+    private static FileObject resolve(File file) throws FileSystemException {
+        return VFS.getManager().toFileObject(file);
+    }
+
+    private FileName name(String path) throws FileSystemException {
+        return resolve(new File(root, path)).getName();
+    }
+
+    private Set<FileName> names(String... paths) throws FileSystemException {
+        final Set<FileName> names = Sets.newHashSet();
+        for(String path : paths) {
+            names.add(name(path));
+        }
+        return names;
+    }
+
+    private static Set<FileName> names(Iterable<FileObject> files) {
+        final Set<FileName> names = Sets.newHashSet();
+        for(FileObject file : files) {
+            names.add(file.getName());
+        }
+        return names;
+    }
+}
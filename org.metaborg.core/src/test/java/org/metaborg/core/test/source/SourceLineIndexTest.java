@@ -0,0 +1,47 @@
+package org.metaborg.core.test.source;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.metaborg.core.source.SourceLineIndex;
+import org.metaborg.core.source.SourceRegion;
+
+public class SourceLineIndexTest {
+    @Test public void testLines() {
+        final SourceLineIndex index = new SourceLineIndex("foo\nbar baz\r\n\nqux");
+        assertEquals(4, index.lineCount());
+        assertEquals("foo", index.line(0));
+        assertEquals("bar baz", index.line(1));
+        assertEquals("", index.line(2));
+        assertEquals("qux", index.line(3));
+    }
+
+    @Test public void testEmpty() {
+        final SourceLineIndex index = new SourceLineIndex("");
+        assertEquals(0, index.lineCount());
+        assertNull(index.affectedSourceText(new SourceRegion(0, 0), ""));
+    }
+
+    @Test public void testSingleLineRegion() {
+        final SourceLineIndex index = new SourceLineIndex("foo\nbar baz\nqux");
+        assertEquals("  bar baz\n  ^^^\n", index.affectedSourceText(new SourceRegion(4, 6), "  "));
+        assertEquals("  foo\n  ^\n", index.affectedSourceText(new SourceRegion(0, 0), "  "));
+        assertEquals("  qux\n    ^\n", index.affectedSourceText(new SourceRegion(14, 14), "  "));
+    }
+
+    @Test public void testMultiLineRegion() {
+        final SourceLineIndex index = new SourceLineIndex("foo\nbar baz\nqux");
+        assertEquals("foo\nbar baz\n^^^\n", index.affectedSourceText(new SourceRegion(1, 5), ""));
+    }
+
+    @Test public void testCarriageReturnNewlines() {
+        final SourceLineIndex index = new SourceLineIndex("foo\r\nbar baz\r\nqux");
+        assertEquals("bar baz\n    ^^^\n", index.affectedSourceText(new SourceRegion(9, 11), ""));
+    }
+
+    @Test public void testOutOfBounds() {
+        final SourceLineIndex index = new SourceLineIndex("foo\nbar");
+        assertNull(index.affectedSourceText(new SourceRegion(20, 25), ""));
+    }
+}
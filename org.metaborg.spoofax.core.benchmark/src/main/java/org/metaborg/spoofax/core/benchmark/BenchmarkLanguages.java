@@ -0,0 +1,89 @@
+package org.metaborg.spoofax.core.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.vfs2.AllFileSelector;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.metaborg.core.MetaborgException;
+import org.metaborg.core.config.JSGLRVersion;
+import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.spoofax.core.Spoofax;
+
+/**
+ * Languages used in benchmarks. Languages are copied from the class path into a temporary directory before they are
+ * loaded, such that benchmarks can change their configuration.
+ */
+public class BenchmarkLanguages {
+    /**
+     * Name of the Entity language, which is bundled with the benchmarks.
+     */
+    public static final String entity = "Entity";
+
+    private static final String componentConfig = "src-gen/metaborg.component.yaml";
+    private static final String temporaryPrefix = "spoofax-benchmark-language";
+
+
+    /**
+     * Copies the language with given name from the class path into a new temporary directory.
+     *
+     * @return Location of the copied language.
+     */
+    public static FileObject copy(Spoofax spoofax, String name) throws IOException {
+        final File directory = Files.createTempDirectory(temporaryPrefix).toFile();
+        final FileObject source = spoofax.resourceService.resolve("res:" + name);
+        final FileObject location = spoofax.resourceService.resolve(directory).resolveFile(name);
+        location.copyFrom(source, new AllFileSelector());
+        return location;
+    }
+
+    /**
+     * Loads the language with given name from the class path, or from the directory or archive at given path when no
+     * language with that name is bundled.
+     *
+     * @return Loaded language implementation.
+     */
+    public static ILanguageImpl load(Spoofax spoofax, String nameOrPath) throws IOException, MetaborgException {
+        if(spoofax.resourceService.resolve("res:" + nameOrPath).exists()) {
+            return spoofax.languageDiscoveryService.languageFromDirectory(copy(spoofax, nameOrPath));
+        }
+        final FileObject location = spoofax.resourceService.resolve(nameOrPath);
+        if(location.isFolder()) {
+            return spoofax.languageDiscoveryService.languageFromDirectory(location);
+        }
+        return spoofax.languageDiscoveryService.languageFromArchive(location);
+    }
+
+    /**
+     * Copies the language with given name from the class path, configures it to be parsed with given JSGLR version,
+     * and loads it.
+     *
+     * @return Loaded language implementation.
+     */
+    public static ILanguageImpl load(Spoofax spoofax, String name, JSGLRVersion version)
+        throws IOException, MetaborgException {
+        final FileObject location = copy(spoofax, name);
+        final FileObject config = location.resolveFile(componentConfig);
+        try(final OutputStream stream = config.getContent().getOutputStream(true)) {
+            final String properties = "\nlanguage:\n  sdf:\n    jsglr-version: " + version.name() + "\n";
+            stream.write(properties.getBytes(StandardCharsets.UTF_8));
+        }
+        return spoofax.languageDiscoveryService.languageFromDirectory(location);
+    }
+
+    /**
+     * Deletes the temporary directory that given language was copied into, if it was copied.
+     */
+    public static void delete(ILanguageImpl language) throws FileSystemException {
+        for(FileObject location : language.locations()) {
+            final FileObject directory = location.getParent();
+            if(directory.getName().getBaseName().startsWith(temporaryPrefix)) {
+                directory.delete(new AllFileSelector());
+            }
+        }
+    }
+}
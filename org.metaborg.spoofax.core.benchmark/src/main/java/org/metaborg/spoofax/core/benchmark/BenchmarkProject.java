@@ -0,0 +1,152 @@
+package org.metaborg.spoofax.core.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.AllFileSelector;
+import org.apache.commons.vfs2.FileObject;
+import org.metaborg.core.MetaborgException;
+import org.metaborg.core.action.CompileGoal;
+import org.metaborg.core.build.BuildInput;
+import org.metaborg.core.build.BuildInputBuilder;
+import org.metaborg.core.build.BuildState;
+import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.core.project.IProject;
+import org.metaborg.core.project.ISimpleProjectService;
+import org.metaborg.core.resource.ResourceChange;
+import org.metaborg.core.resource.ResourceChangeKind;
+import org.metaborg.spoofax.core.Spoofax;
+import org.metaborg.util.iterators.Iterables2;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Generated project with a given number of source files of a language, used in build benchmarks. Sources of the bundled
+ * Entity language are generated; sources of other languages are copies of a template file.
+ */
+public class BenchmarkProject implements AutoCloseable {
+    private static final int entitiesPerFile = 10;
+
+    public final Spoofax spoofax;
+    public final ILanguageImpl language;
+    public final IProject project;
+    public final List<FileObject> sources;
+
+    private final File directory;
+    private final String template;
+    private int version = 0;
+
+
+    private BenchmarkProject(Spoofax spoofax, ILanguageImpl language, IProject project, List<FileObject> sources,
+        File directory, String template) {
+        this.spoofax = spoofax;
+        this.language = language;
+        this.project = project;
+        this.sources = sources;
+        this.directory = directory;
+        this.template = template;
+    }
+
+
+    /**
+     * Creates a project in a temporary directory.
+     *
+     * @param language
+     *            Name of a bundled language, or the path to a language directory or archive.
+     * @param template
+     *            Path to a source file whose contents are copied to every generated source file, or an empty string to
+     *            generate Entity sources.
+     * @param files
+     *            Number of source files to generate.
+     */
+    public static BenchmarkProject create(Spoofax spoofax, String language, String template, int files)
+        throws IOException, MetaborgException {
+        final ILanguageImpl languageImpl = BenchmarkLanguages.load(spoofax, language);
+        final File directory = Files.createTempDirectory("spoofax-benchmark-project").toFile();
+        final FileObject location = spoofax.resourceService.resolve(directory);
+        final IProject project = spoofax.injector.getInstance(ISimpleProjectService.class).create(location);
+
+        final String templateText;
+        final String extension;
+        if(template.isEmpty()) {
+            templateText = "";
+            extension = "ent";
+        } else {
+            final FileObject templateFile = spoofax.resourceService.resolve(template);
+            templateText = spoofax.sourceTextService.text(templateFile);
+            extension = templateFile.getName().getExtension();
+        }
+
+        final BenchmarkProject benchmarkProject =
+            new BenchmarkProject(spoofax, languageImpl, project, Lists.newArrayList(), directory, templateText);
+        for(int i = 0; i < files; ++i) {
+            final FileObject source = location.resolveFile("src/module" + i + "." + extension);
+            benchmarkProject.sources.add(source);
+            benchmarkProject.write(i);
+        }
+        return benchmarkProject;
+    }
+
+
+    /**
+     * @return Input for building all sources, starting from given state.
+     */
+    public BuildInput input(BuildState state) throws MetaborgException {
+        return input(state, ResourceChangeKind.Create, sources);
+    }
+
+    /**
+     * Changes the source file at given index.
+     *
+     * @return Input for building the changed source file, starting from given state.
+     */
+    public BuildInput change(BuildState state, int index) throws IOException, MetaborgException {
+        ++version;
+        write(index);
+        return input(state, ResourceChangeKind.Modify, Iterables2.singleton(sources.get(index)));
+    }
+
+    @Override public void close() throws Exception {
+        spoofax.resourceService.resolve(directory).delete(new AllFileSelector());
+        BenchmarkLanguages.delete(language);
+    }
+
+
+    private BuildInput input(BuildState state, ResourceChangeKind kind, Iterable<FileObject> changed)
+        throws MetaborgException {
+        final List<ResourceChange> changes = Lists.newArrayList();
+        for(FileObject source : changed) {
+            changes.add(new ResourceChange(source, kind));
+        }
+        // @formatter:off
+        return new BuildInputBuilder(project)
+            .withState(state)
+            .addLanguage(language)
+            .withCompileDependencyLanguages(false)
+            .withSourceChanges(changes)
+            .addTransformGoal(new CompileGoal())
+            .withThrowOnErrors(false)
+            .build(spoofax.dependencyService, spoofax.languagePathService);
+        // @formatter:on
+    }
+
+    private void write(int index) throws IOException {
+        final String text;
+        if(template.isEmpty()) {
+            // Vary the number of entities between versions, such that changed files have a different AST.
+            text = EntityPrograms.module("module" + index, entitiesPerFile + version % 2);
+        } else {
+            text = template + (version % 2 == 0 ? "" : "\n");
+        }
+        final FileObject source = sources.get(index);
+        source.createFile();
+        try(final OutputStream stream = source.getContent().getOutputStream()) {
+            IOUtils.write(text, stream, StandardCharsets.UTF_8);
+        }
+    }
+}
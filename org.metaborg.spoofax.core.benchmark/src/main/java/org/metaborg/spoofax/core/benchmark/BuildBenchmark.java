@@ -0,0 +1,102 @@
+package org.metaborg.spoofax.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.metaborg.core.build.BuildInput;
+import org.metaborg.core.build.BuildState;
+import org.metaborg.core.build.CleanInput;
+import org.metaborg.core.build.IBuildOutput;
+import org.metaborg.spoofax.core.Spoofax;
+import org.metaborg.util.iterators.Iterables2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks building generated projects end to end with the {@link org.metaborg.spoofax.core.build.ISpoofaxBuilder},
+ * from scratch and incrementally after changing a single file.
+ *
+ * By default, projects of the bundled Entity language are built, which is analyzed with the Stratego analyzer. Other
+ * analyzers are benchmarked by passing a language that uses them, and a source file of that language whose contents are
+ * copied to every file of the project, for example: {@code java -jar target/benchmarks.jar BuildBenchmark
+ * -p language=/path/to/language -p template=/path/to/source -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xss16m")
+public class BuildBenchmark {
+    @Param({ BenchmarkLanguages.entity }) public String language;
+    @Param({ "" }) public String template;
+    @Param({ "100", "1000", "10000" }) public int files;
+
+    private Spoofax spoofax;
+    private BenchmarkProject project;
+    private BuildState state;
+    private int changed = 0;
+
+
+    @Setup(Level.Trial) public void setup() throws Exception {
+        spoofax = new Spoofax();
+        project = BenchmarkProject.create(spoofax, language, template, files);
+    }
+
+    @TearDown(Level.Trial) public void tearDown() throws Exception {
+        project.close();
+        spoofax.close();
+    }
+
+
+    @State(Scope.Benchmark)
+    public static class Cold {
+        @Setup(Level.Invocation) public void clean(BuildBenchmark benchmark) throws Exception {
+            final BenchmarkProject project = benchmark.project;
+            final CleanInput input = new CleanInput(project.project, Iterables2.singleton(project.language), null);
+            benchmark.spoofax.builder.clean(input);
+            benchmark.state = null;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Incremental {
+        @Setup(Level.Iteration) public void build(BuildBenchmark benchmark) throws Exception {
+            if(benchmark.state == null) {
+                benchmark.state = benchmark.build(benchmark.project.input(null)).state();
+            }
+        }
+    }
+
+
+    /**
+     * Builds all files of a clean project.
+     */
+    @Benchmark public IBuildOutput<?, ?, ?, ?> coldBuild(Cold cold) throws Exception {
+        return build(project.input(null));
+    }
+
+    /**
+     * Builds a single changed file of a project that was built before.
+     */
+    @Benchmark public IBuildOutput<?, ?, ?, ?> incrementalBuild(Incremental incremental) throws Exception {
+        final IBuildOutput<?, ?, ?, ?> output = build(project.change(state, changed++ % files));
+        state = output.state();
+        return output;
+    }
+
+
+    private IBuildOutput<?, ?, ?, ?> build(BuildInput input) throws InterruptedException {
+        return spoofax.builder.build(input);
+    }
+}
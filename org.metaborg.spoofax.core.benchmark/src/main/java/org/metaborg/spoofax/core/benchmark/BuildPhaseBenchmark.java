@@ -0,0 +1,119 @@
+package org.metaborg.spoofax.core.benchmark;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.vfs2.FileObject;
+import org.metaborg.core.action.CompileGoal;
+import org.metaborg.core.context.IContext;
+import org.metaborg.spoofax.core.Spoofax;
+import org.metaborg.spoofax.core.analysis.ISpoofaxAnalyzeResults;
+import org.metaborg.spoofax.core.unit.ISpoofaxAnalyzeUnit;
+import org.metaborg.spoofax.core.unit.ISpoofaxInputUnit;
+import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
+import org.metaborg.spoofax.core.unit.ISpoofaxTransformUnit;
+import org.metaborg.util.concurrent.IClosableLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Benchmarks the phases of a build separately: parsing, analysis, persisting the analysis context, and compiling, of all
+ * files of generated projects. The builder does not time its phases, so each phase is measured by running it on the
+ * output of the previous phases, which are run during setup.
+ *
+ * Takes the same parameters as {@link BuildBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xss16m")
+public class BuildPhaseBenchmark {
+    @Param({ BenchmarkLanguages.entity }) public String language;
+    @Param({ "" }) public String template;
+    @Param({ "100", "1000", "10000" }) public int files;
+
+    private Spoofax spoofax;
+    private BenchmarkProject project;
+    private IContext context;
+    private List<ISpoofaxInputUnit> inputs;
+    private Collection<ISpoofaxParseUnit> parsed;
+    private Collection<ISpoofaxAnalyzeUnit> analyzed;
+
+
+    @Setup(Level.Trial) public void setup() throws Exception {
+        spoofax = new Spoofax();
+        project = BenchmarkProject.create(spoofax, language, template, files);
+        context = spoofax.contextService.get(project.project.location(), project.project, project.language);
+
+        inputs = Lists.newArrayListWithCapacity(files);
+        for(FileObject source : project.sources) {
+            final String text = spoofax.sourceTextService.text(source);
+            inputs.add(spoofax.unitService.inputUnit(source, text, project.language, null));
+        }
+        parsed = parse();
+        analyzed = analyze().results();
+    }
+
+    @TearDown(Level.Trial) public void tearDown() throws Exception {
+        project.close();
+        spoofax.close();
+    }
+
+
+    @State(Scope.Benchmark)
+    public static class Reset {
+        @Setup(Level.Invocation) public void reset(BuildPhaseBenchmark benchmark) throws Exception {
+            try(IClosableLock lock = benchmark.context.write()) {
+                benchmark.context.reset();
+            }
+        }
+    }
+
+
+    @Benchmark public Collection<ISpoofaxParseUnit> parse() throws Exception {
+        return spoofax.syntaxService.parseAll(inputs);
+    }
+
+    @Benchmark public ISpoofaxAnalyzeResults analyze(Reset reset) throws Exception {
+        return analyze();
+    }
+
+    @Benchmark public void persist() throws Exception {
+        try(IClosableLock lock = context.write()) {
+            context.persist();
+        }
+    }
+
+    @Benchmark public Collection<ISpoofaxTransformUnit<ISpoofaxAnalyzeUnit>> compile() throws Exception {
+        final CompileGoal goal = new CompileGoal();
+        if(!spoofax.transformService.available(context, goal)) {
+            return null;
+        }
+        try(IClosableLock lock = context.read()) {
+            return spoofax.transformService.transformAllAnalyzed(analyzed, context, goal);
+        }
+    }
+
+
+    private ISpoofaxAnalyzeResults analyze() throws Exception {
+        try(IClosableLock lock = context.write()) {
+            return spoofax.analysisService.analyzeAll(parsed, context);
+        }
+    }
+}
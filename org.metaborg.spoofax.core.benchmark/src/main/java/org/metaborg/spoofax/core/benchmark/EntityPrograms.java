@@ -0,0 +1,44 @@
+package org.metaborg.spoofax.core.benchmark;
+
+/**
+ * Generates synthetic Entity programs of a given size.
+ */
+public class EntityPrograms {
+    private static final int propertiesPerEntity = 8;
+
+
+    /**
+     * Generates a module with given number of entities. Each entity has a fixed number of properties, which refer to
+     * built-in types and to other entities in the module.
+     */
+    public static String module(String name, int entities) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("module ").append(name).append("\n\n");
+        for(int i = 0; i < entities; ++i) {
+            sb.append("entity ").append(entityName(name, i)).append(" {\n");
+            for(int j = 0; j < propertiesPerEntity; ++j) {
+                sb.append("  property").append(j).append(" : ").append(type(name, i, j, entities)).append("\n");
+            }
+            sb.append("}\n\n");
+        }
+        return sb.toString();
+    }
+
+
+    private static String type(String module, int entity, int property, int entities) {
+        switch(property % 4) {
+            case 0:
+                return "String";
+            case 1:
+                return "Int";
+            case 2:
+                return entityName(module, (entity + 1) % entities);
+            default:
+                return entityName(module, (entity + entities - 1) % entities);
+        }
+    }
+
+    private static String entityName(String module, int entity) {
+        return Character.toUpperCase(module.charAt(0)) + module.substring(1) + "Entity" + entity;
+    }
+}
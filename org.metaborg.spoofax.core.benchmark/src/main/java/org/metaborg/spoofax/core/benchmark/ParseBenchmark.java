@@ -0,0 +1,70 @@
+package org.metaborg.spoofax.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.metaborg.core.config.JSGLRVersion;
+import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.core.processing.NullCancel;
+import org.metaborg.core.processing.NullProgress;
+import org.metaborg.spoofax.core.Spoofax;
+import org.metaborg.spoofax.core.syntax.JSGLRParseService;
+import org.metaborg.spoofax.core.unit.ISpoofaxInputUnit;
+import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks parsing synthetic Entity programs of growing size with {@link JSGLRParseService}, for each JSGLR version.
+ * The parse table is loaded during setup, such that only parsing is measured.
+ *
+ * Run with {@code java -jar target/benchmarks.jar ParseBenchmark -prof gc} to also report allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xss16m")
+public class ParseBenchmark {
+    @Param({ "v1", "v2", "layoutSensitive", "dataDependent" }) public JSGLRVersion version;
+    @Param({ "10", "100", "1000" }) public int entities;
+
+    private Spoofax spoofax;
+    private ILanguageImpl language;
+    private JSGLRParseService parser;
+    private ISpoofaxInputUnit input;
+
+
+    @Setup(Level.Trial) public void setup() throws Exception {
+        spoofax = new Spoofax();
+        language = BenchmarkLanguages.load(spoofax, BenchmarkLanguages.entity, version);
+        parser = spoofax.injector.getInstance(JSGLRParseService.class);
+        input = spoofax.unitService.inputUnit(EntityPrograms.module("benchmark", entities), language, null);
+
+        final ISpoofaxParseUnit unit = parse();
+        if(!unit.success()) {
+            throw new IllegalStateException("Parsing benchmark input failed: " + unit.messages());
+        }
+    }
+
+    @TearDown(Level.Trial) public void tearDown() throws Exception {
+        BenchmarkLanguages.delete(language);
+        spoofax.close();
+    }
+
+
+    @Benchmark public ISpoofaxParseUnit parse() throws Exception {
+        return parser.parse(input, new NullProgress(), new NullCancel());
+    }
+}
@@ -0,0 +1,64 @@
+package org.metaborg.spoofax.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.vfs2.FileObject;
+import org.metaborg.spoofax.core.Spoofax;
+import org.metaborg.spoofax.core.syntax.IParseTableProvider;
+import org.metaborg.spoofax.core.syntax.JSGLR1FileParseTableProvider;
+import org.metaborg.spoofax.core.syntax.JSGLR2FileParseTableProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.interpreter.terms.ITermFactory;
+
+/**
+ * Benchmarks loading the parse table of the Entity language with the JSGLR1 and JSGLR2 parse table providers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class ParseTableBenchmark {
+    @Param({ "jsglr1", "jsglr2" }) public String provider;
+
+    private Spoofax spoofax;
+    private FileObject parseTable;
+    private ITermFactory termFactory;
+
+
+    @Setup(Level.Trial) public void setup() throws Exception {
+        spoofax = new Spoofax();
+        parseTable = spoofax.resourceService.resolve("res:" + BenchmarkLanguages.entity + "/target/metaborg/sdf.tbl");
+        termFactory = spoofax.termFactoryService.getGeneric().getFactoryWithStorageType(IStrategoTerm.MUTABLE);
+    }
+
+    @TearDown(Level.Trial) public void tearDown() throws Exception {
+        spoofax.close();
+    }
+
+
+    @Benchmark public Object load() throws Exception {
+        // Providers memoise the loaded parse table, create a new provider for every load.
+        final IParseTableProvider tableProvider;
+        if(provider.equals("jsglr1")) {
+            tableProvider = new JSGLR1FileParseTableProvider(parseTable, termFactory);
+        } else {
+            tableProvider = new JSGLR2FileParseTableProvider(parseTable, termFactory);
+        }
+        return tableProvider.parseTable();
+    }
+}
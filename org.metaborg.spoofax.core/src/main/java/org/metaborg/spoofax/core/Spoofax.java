@@ -85,30 +85,31 @@ public class Spoofax extends
             Types.newParameterizedType(ISpoofaxTransformUnit.class, ISpoofaxAnalyzeUnit.class), IStrategoTerm.class,
             loader, module, additionalModules);
         
-        this.unitService = injector.getInstance(ISpoofaxUnitService.class);
+        this.unitService = service(ISpoofaxUnitService.class);
         
-        this.syntaxService = injector.getInstance(ISpoofaxSyntaxService.class);
-        this.analysisService = injector.getInstance(ISpoofaxAnalysisService.class);
-        this.transformService = injector.getInstance(ISpoofaxTransformService.class);
+        this.syntaxService = service(ISpoofaxSyntaxService.class);
+        this.analysisService = service(ISpoofaxAnalysisService.class);
+        this.transformService = service(ISpoofaxTransformService.class);
         
-        this.builder = injector.getInstance(ISpoofaxBuilder.class);
+        this.builder = service(ISpoofaxBuilder.class);
+        // Created eagerly, also in fast-start mode, since it subscribes to language changes when it is created.
         this.processorRunner = injector.getInstance(ISpoofaxProcessorRunner.class);
 
-        this.parseResultProcessor = injector.getInstance(ISpoofaxParseResultProcessor.class);
-        this.analysisResultProcessor = injector.getInstance(ISpoofaxAnalysisResultProcessor.class);
+        this.parseResultProcessor = service(ISpoofaxParseResultProcessor.class);
+        this.analysisResultProcessor = service(ISpoofaxAnalysisResultProcessor.class);
         
-        this.tracingService = injector.getInstance(ISpoofaxTracingService.class);
+        this.tracingService = service(ISpoofaxTracingService.class);
         
-        this.categorizerService = injector.getInstance(ISpoofaxCategorizerService.class);
-        this.stylerService = injector.getInstance(ISpoofaxStylerService.class);
-        this.hoverService = injector.getInstance(ISpoofaxHoverService.class);
-        this.resolverService = injector.getInstance(ISpoofaxResolverService.class);
-        this.outlineService = injector.getInstance(ISpoofaxOutlineService.class);
-        this.completionService = injector.getInstance(ISpoofaxCompletionService.class);
+        this.categorizerService = service(ISpoofaxCategorizerService.class);
+        this.stylerService = service(ISpoofaxStylerService.class);
+        this.hoverService = service(ISpoofaxHoverService.class);
+        this.resolverService = service(ISpoofaxResolverService.class);
+        this.outlineService = service(ISpoofaxOutlineService.class);
+        this.completionService = service(ISpoofaxCompletionService.class);
         
-        this.termFactoryService = injector.getInstance(ITermFactoryService.class);
-        this.strategoRuntimeService = injector.getInstance(IStrategoRuntimeService.class);
-        this.strategoCommon = injector.getInstance(IStrategoCommon.class);
+        this.termFactoryService = service(ITermFactoryService.class);
+        this.strategoRuntimeService = service(IStrategoRuntimeService.class);
+        this.strategoCommon = service(IStrategoCommon.class);
     }
 
     /**
@@ -51,6 +51,7 @@ import org.metaborg.spoofax.core.analysis.taskengine.TaskEngineAnalyzer;
 import org.metaborg.spoofax.core.build.ISpoofaxBuilder;
 import org.metaborg.spoofax.core.build.SpoofaxBuildOutput;
 import org.metaborg.spoofax.core.build.SpoofaxBuilder;
+import org.metaborg.spoofax.core.completion.CompletionProposalCache;
 import org.metaborg.spoofax.core.completion.ISpoofaxCompletionService;
 import org.metaborg.spoofax.core.completion.JSGLRCompletionService;
 import org.metaborg.spoofax.core.config.ISpoofaxProjectConfigBuilder;
@@ -64,6 +65,7 @@ import org.metaborg.spoofax.core.context.scopegraph.MultiFileScopeGraphContextFa
 import org.metaborg.spoofax.core.context.scopegraph.SingleFileScopeGraphContextFactory;
 import org.metaborg.spoofax.core.language.LanguageComponentFactory;
 import org.metaborg.spoofax.core.language.LanguageDiscoveryService;
+import org.metaborg.spoofax.core.language.LanguageSnapshot;
 import org.metaborg.spoofax.core.language.dialect.DialectIdentifier;
 import org.metaborg.spoofax.core.language.dialect.DialectProcessor;
 import org.metaborg.spoofax.core.language.dialect.DialectService;
@@ -72,6 +74,7 @@ import org.metaborg.spoofax.core.outline.ISpoofaxOutlineService;
 import org.metaborg.spoofax.core.outline.OutlineService;
 import org.metaborg.spoofax.core.processing.ISpoofaxProcessor;
 import org.metaborg.spoofax.core.processing.ISpoofaxProcessorRunner;
+import org.metaborg.spoofax.core.processing.SpoofaxAsyncProcessor;
 import org.metaborg.spoofax.core.processing.SpoofaxBlockingProcessor;
 import org.metaborg.spoofax.core.processing.SpoofaxProcessorRunner;
 import org.metaborg.spoofax.core.processing.analyze.ISpoofaxAnalysisResultProcessor;
@@ -85,6 +88,7 @@ import org.metaborg.spoofax.core.processing.parse.SpoofaxParseResultProcessor;
 import org.metaborg.spoofax.core.stratego.IStrategoCommon;
 import org.metaborg.spoofax.core.stratego.IStrategoRuntimeService;
 import org.metaborg.spoofax.core.stratego.StrategoCommon;
+import org.metaborg.spoofax.core.stratego.StrategoProfiler;
 import org.metaborg.spoofax.core.stratego.StrategoRuntimeService;
 import org.metaborg.spoofax.core.stratego.primitive.AbsolutePathPrimitive;
 import org.metaborg.spoofax.core.stratego.primitive.CallStrategyPrimitive;
@@ -130,7 +134,9 @@ import org.metaborg.spoofax.core.syntax.ISpoofaxParser;
 import org.metaborg.spoofax.core.syntax.ISpoofaxSyntaxService;
 import org.metaborg.spoofax.core.syntax.JSGLRParseService;
 import org.metaborg.spoofax.core.syntax.JSGLRParserConfiguration;
+import org.metaborg.spoofax.core.syntax.ParseMemo;
 import org.metaborg.spoofax.core.syntax.SpoofaxSyntaxService;
+import org.metaborg.spoofax.core.terms.BinaryTermCache;
 import org.metaborg.spoofax.core.terms.ITermFactoryService;
 import org.metaborg.spoofax.core.terms.TermFactoryService;
 import org.metaborg.spoofax.core.tracing.HoverService;
@@ -144,6 +150,8 @@ import org.metaborg.spoofax.core.transform.ISpoofaxTransformService;
 import org.metaborg.spoofax.core.transform.IStrategoTransformer;
 import org.metaborg.spoofax.core.transform.SpoofaxTransformService;
 import org.metaborg.spoofax.core.transform.StrategoTransformer;
+import org.metaborg.spoofax.core.transform.TransformMemo;
+import org.metaborg.spoofax.core.transform.TransformOutputWriter;
 import org.metaborg.spoofax.core.unit.ISpoofaxAnalyzeUnit;
 import org.metaborg.spoofax.core.unit.ISpoofaxAnalyzeUnitUpdate;
 import org.metaborg.spoofax.core.unit.ISpoofaxInputUnit;
@@ -151,6 +159,7 @@ import org.metaborg.spoofax.core.unit.ISpoofaxInputUnitService;
 import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
 import org.metaborg.spoofax.core.unit.ISpoofaxTransformUnit;
 import org.metaborg.spoofax.core.unit.ISpoofaxUnitService;
+import org.metaborg.spoofax.core.unit.UnitResultCache;
 import org.metaborg.spoofax.core.unit.UnitService;
 import org.spoofax.interpreter.library.AbstractPrimitive;
 import org.spoofax.interpreter.library.IOperatorRegistry;
@@ -267,12 +276,16 @@ public class SpoofaxModule extends MetaborgModule {
         bind(new TypeLiteral<IInputUnitService<ISpoofaxInputUnit>>() {}).to(UnitService.class);
         bind(new TypeLiteral<IInputUnitService<?>>() {}).to(UnitService.class);
         bind(IInputUnitService.class).to(UnitService.class);
+
+        bind(UnitResultCache.class).in(Singleton.class);
+        languageCacheBinder.addBinding().to(UnitResultCache.class);
     }
 
     @Override protected void bindLanguage() {
         super.bindLanguage();
 
         bind(ILanguageComponentFactory.class).to(LanguageComponentFactory.class).in(Singleton.class);
+        bind(LanguageSnapshot.class).in(Singleton.class);
         bind(ILanguageDiscoveryService.class).to(LanguageDiscoveryService.class).in(Singleton.class);
 
         bind(IDialectService.class).to(DialectService.class).in(Singleton.class);
@@ -314,6 +327,10 @@ public class SpoofaxModule extends MetaborgModule {
         bind(TermFactoryService.class).in(Singleton.class);
         bind(ITermFactoryService.class).to(TermFactoryService.class);
         languageCacheBinder.addBinding().to(TermFactoryService.class);
+        bind(BinaryTermCache.class).in(Singleton.class);
+
+        bind(ParseMemo.class).in(Singleton.class);
+        languageCacheBinder.addBinding().to(ParseMemo.class);
     }
 
     protected void bindParsers(MapBinder<String, IParser<ISpoofaxInputUnit, ISpoofaxParseUnit>> parserBinder,
@@ -347,6 +364,8 @@ public class SpoofaxModule extends MetaborgModule {
 
         // Utilities
         bind(IStrategoCommon.class).to(StrategoCommon.class).in(Singleton.class);
+        bind(StrategoProfiler.class).in(Singleton.class);
+        autoClosableBinder.addBinding().to(StrategoProfiler.class);
         bind(AnalysisCommon.class).in(Singleton.class);
 
         // Stratego primitives
@@ -495,6 +514,10 @@ public class SpoofaxModule extends MetaborgModule {
         bind(ITransformService.class).to(SpoofaxTransformService.class);
 
         // Analyzers
+        bind(TransformOutputWriter.class).in(Singleton.class);
+        autoClosableBinder.addBinding().to(TransformOutputWriter.class);
+        bind(TransformMemo.class).in(Singleton.class);
+        languageCacheBinder.addBinding().to(TransformMemo.class);
         bind(StrategoTransformer.class).in(Singleton.class);
         bind(IStrategoTransformer.class).to(StrategoTransformer.class);
         bind(
@@ -590,6 +613,9 @@ public class SpoofaxModule extends MetaborgModule {
                 .to(SpoofaxBlockingProcessor.class);
         bind(new TypeLiteral<IProcessor<?, ?, ?, ?>>() {}).to(SpoofaxBlockingProcessor.class);
         bind(IProcessor.class).to(SpoofaxBlockingProcessor.class);
+
+        bind(SpoofaxAsyncProcessor.class).in(Singleton.class);
+        autoClosableBinder.addBinding().to(SpoofaxAsyncProcessor.class);
     }
 
     protected void bindCategorizer() {
@@ -635,6 +661,9 @@ public class SpoofaxModule extends MetaborgModule {
 
     protected void bindCompletion() {
         bind(JSGLRCompletionService.class).in(Singleton.class);
+        autoClosableBinder.addBinding().to(JSGLRCompletionService.class);
+        bind(CompletionProposalCache.class).in(Singleton.class);
+        languageCacheBinder.addBinding().to(CompletionProposalCache.class);
         bind(ISpoofaxCompletionService.class).to(JSGLRCompletionService.class);
         bind(new TypeLiteral<ICompletionService<ISpoofaxParseUnit>>() {}).to(JSGLRCompletionService.class);
         bind(new TypeLiteral<ICompletionService<?>>() {}).to(JSGLRCompletionService.class);
@@ -1,8 +1,8 @@
 package org.metaborg.spoofax.core.analysis.constraint;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -13,8 +13,8 @@ import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.vfs2.FileObject;
+import org.metaborg.core.AggregateMetaborgException;
 import org.metaborg.core.MetaborgException;
 import org.metaborg.core.analysis.AnalysisException;
 import org.metaborg.core.context.IContext;
@@ -25,6 +25,7 @@ import org.metaborg.core.language.ILanguageImpl;
 import org.metaborg.core.messages.IMessage;
 import org.metaborg.core.messages.MessageFactory;
 import org.metaborg.core.messages.MessageSeverity;
+import org.metaborg.core.metrics.IMetricsService;
 import org.metaborg.core.resource.IResourceService;
 import org.metaborg.core.source.ISourceRegion;
 import org.metaborg.spoofax.core.analysis.AnalysisCommon;
@@ -37,7 +38,9 @@ import org.metaborg.spoofax.core.analysis.SpoofaxAnalyzeResults;
 import org.metaborg.spoofax.core.context.scopegraph.ISpoofaxScopeGraphContext;
 import org.metaborg.spoofax.core.stratego.IStrategoCommon;
 import org.metaborg.spoofax.core.stratego.IStrategoRuntimeService;
+import org.metaborg.spoofax.core.stratego.StrategoRuntimeFacet;
 import org.metaborg.spoofax.core.syntax.JSGLRSourceRegionFactory;
+import org.metaborg.spoofax.core.terms.BinaryTermCache;
 import org.metaborg.spoofax.core.terms.ITermFactoryService;
 import org.metaborg.spoofax.core.tracing.ISpoofaxTracingService;
 import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
@@ -54,6 +57,7 @@ import org.spoofax.terms.ParseError;
 import org.strategoxt.HybridInterpreter;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
@@ -84,21 +88,27 @@ abstract class AbstractConstraintAnalyzer<C extends ISpoofaxScopeGraphContext<?>
     protected final IStrategoRuntimeService runtimeService;
     protected final IStrategoCommon strategoCommon;
     protected final ISpoofaxTracingService tracingService;
+    protected final IMetricsService metricsService;
 
+    protected final BinaryTermCache termCache;
     protected final ITermFactory termFactory;
-    protected final StrategoTerms strategoTerms;
+    protected final StrategoTermBridge strategoTerms;
     protected final Map<ILanguageComponent, TFFileInfo> flowSpecTransferFunctionCache = new HashMap<>();
 
     public AbstractConstraintAnalyzer(final AnalysisCommon analysisCommon, final IResourceService resourceService,
             final IStrategoRuntimeService runtimeService, final IStrategoCommon strategoCommon,
-            final ITermFactoryService termFactoryService, final ISpoofaxTracingService tracingService) {
+            final ITermFactoryService termFactoryService, final BinaryTermCache termCache,
+            final ISpoofaxTracingService tracingService, final IMetricsService metricsService) {
         this.analysisCommon = analysisCommon;
         this.resourceService = resourceService;
         this.runtimeService = runtimeService;
         this.strategoCommon = strategoCommon;
         this.tracingService = tracingService;
+        this.metricsService = metricsService;
+        this.termCache = termCache;
         this.termFactory = termFactoryService.getGeneric();
-        this.strategoTerms = new StrategoTerms(termFactory);
+        this.strategoTerms = new StrategoTermBridge(new StrategoTerms(termFactory),
+                metricsService.counter("analysis.constraint.bridge.hits"));
     }
 
     @Override public ISpoofaxAnalyzeResult analyze(ISpoofaxParseUnit input, IContext genericContext, IProgress progress,
@@ -194,8 +204,7 @@ abstract class AbstractConstraintAnalyzer<C extends ISpoofaxScopeGraphContext<?>
 
         FileObject tfs = resourceService.resolve(component.location(), TRANSFER_FUNCTIONS_FILE);
         try {
-            IStrategoTerm sTerm = termFactory.parseFromString(
-                            IOUtils.toString(tfs.getContent().getInputStream(), StandardCharsets.UTF_8));
+            IStrategoTerm sTerm = termCache.read(tfs, termFactory);
             ITerm term = strategoTerms.fromStratego(sTerm);
             transferFunctions = TFFileInfo.match().match(term, PersistentUnifier.Immutable.of()).orElseThrow(() -> new ParseException("Parse error on reading the transfer function file"));
         } catch (ParseError | ParseException | IOException e) {
@@ -274,6 +283,13 @@ abstract class AbstractConstraintAnalyzer<C extends ISpoofaxScopeGraphContext<?>
     }
 
 
+    protected void recordTimes(ConstraintDebugData debugData) {
+        metricsService.histogram("analysis.constraint.total").record(debugData.totalTime);
+        metricsService.histogram("analysis.constraint.collect").record(debugData.collectionTime);
+        metricsService.histogram("analysis.constraint.solve").record(debugData.solverTime);
+        metricsService.histogram("analysis.constraint.finalize").record(debugData.finalizeTime);
+    }
+
     protected void messagesByFile(Iterable<IMessage> messages,
             IRelation3.Transient<String, MessageSeverity, IMessage> fmessages, C context) {
         for(IMessage message : messages) {
@@ -288,13 +304,19 @@ abstract class AbstractConstraintAnalyzer<C extends ISpoofaxScopeGraphContext<?>
         numNotes.addAndGet(messages.getNotes().size());
     }
 
+    /**
+     * Creates messages from given message infos. Terms in messages are pretty-printed in one batch, using a single
+     * runtime, and each distinct term is only pretty-printed once.
+     */
     protected Set<IMessage> messages(Iterable<IMessageInfo> messages, IUnifier unifier, C context,
             FileObject defaultLocation) {
-        return Iterables2.stream(messages).map(m -> message(m, unifier, context, defaultLocation))
+        final PrettyPrinter printer = new PrettyPrinter(context);
+        return Iterables2.stream(messages).map(m -> message(m, unifier, context, defaultLocation, printer))
                 .collect(Collectors.toSet());
     }
 
-    private IMessage message(IMessageInfo message, IUnifier unifier, C context, FileObject defaultLocation) {
+    private IMessage message(IMessageInfo message, IUnifier unifier, C context, FileObject defaultLocation,
+            PrettyPrinter printer) {
         final MessageSeverity severity;
         switch(message.getKind()) {
             default:
@@ -308,40 +330,83 @@ abstract class AbstractConstraintAnalyzer<C extends ISpoofaxScopeGraphContext<?>
                 severity = MessageSeverity.NOTE;
                 break;
         }
-        return message(message.getOriginTerm(), message, severity, unifier, context, defaultLocation);
+        return message(message.getOriginTerm(), message, severity, unifier, context, defaultLocation, printer);
     }
 
     private IMessage message(ITerm originatingTerm, IMessageInfo messageInfo, MessageSeverity severity,
-            IUnifier unifier, C context, FileObject defaultLocation) {
+            IUnifier unifier, C context, FileObject defaultLocation, PrettyPrinter printer) {
         Optional<TermOrigin> maybeOrigin = TermOrigin.get(originatingTerm);
         if(maybeOrigin.isPresent()) {
             TermOrigin origin = maybeOrigin.get();
             ISourceRegion region = JSGLRSourceRegionFactory.fromTokens(origin.getLeftToken(), origin.getRightToken());
             FileObject resource = resourceService.resolve(context.location(), origin.getResource());
             String message = messageInfo.getContent().apply(unifier::findRecursive)
-                    .toString(prettyprint(context, resource(resource, context)));
+                    .toString(printer.prettyprint(resource(resource, context)));
             return MessageFactory.newAnalysisMessage(resource, region, message, severity, null);
         } else {
             String message =
-                    messageInfo.getContent().apply(unifier::findRecursive).toString(prettyprint(context, null));
+                    messageInfo.getContent().apply(unifier::findRecursive).toString(printer.prettyprint(null));
             return MessageFactory.newAnalysisMessageAtTop(defaultLocation, message, severity, null);
         }
     }
 
     protected Function<ITerm, String> prettyprint(C context, @Nullable String resource) {
-        return term -> {
-            final ITerm simpleTerm = ConstraintTerms.explicate(TermSimplifier.focus(resource, term));
+        return new PrettyPrinter(context).prettyprint(resource);
+    }
+
+
+    /**
+     * Pretty-prints terms in messages, memoising the text of each distinct term. Terms are pretty-printed with the
+     * first component of the language that pretty-prints without failing, like
+     * {@link IStrategoCommon#invoke(ILanguageImpl, IContext, IStrategoTerm, String)}. Runtimes are created once per
+     * component and reused for subsequent terms, but a runtime is discarded after an invocation fails, since it may be
+     * left in an inconsistent state.
+     */
+    private class PrettyPrinter {
+        private final C context;
+        private final Map<ITerm, String> texts = Maps.newHashMap();
+        private final Map<ILanguageComponent, HybridInterpreter> runtimes = Maps.newHashMap();
+
+
+        public PrettyPrinter(C context) {
+            this.context = context;
+        }
+
+
+        public Function<ITerm, String> prettyprint(@Nullable String resource) {
+            return term -> {
+                final ITerm simpleTerm = ConstraintTerms.explicate(TermSimplifier.focus(resource, term));
+                return texts.computeIfAbsent(simpleTerm, this::text);
+            };
+        }
+
+        private String text(ITerm simpleTerm) {
             final IStrategoTerm sterm = strategoTerms.toStratego(simpleTerm);
-            String text;
-            try {
-                text = Optional.ofNullable(strategoCommon.invoke(context.language(), context, sterm, PP_STRATEGY))
-                        .map(Tools::asJavaString).orElseGet(() -> simpleTerm.toString());
-            } catch(MetaborgException ex) {
-                logger.warn("Pretty-printing failed on {}, using simple term representation.", ex, simpleTerm);
-                text = simpleTerm.toString();
+            final List<MetaborgException> exceptions = Lists.newArrayList();
+            for(ILanguageComponent component : context.language().components()) {
+                if(component.facet(StrategoRuntimeFacet.class) == null) {
+                    continue;
+                }
+                try {
+                    final IStrategoTerm result = strategoCommon.invoke(runtime(component), sterm, PP_STRATEGY);
+                    return Optional.ofNullable(result).map(Tools::asJavaString).orElseGet(() -> simpleTerm.toString());
+                } catch(MetaborgException ex) {
+                    runtimes.remove(component);
+                    exceptions.add(ex);
+                }
             }
-            return text;
-        };
-    }
+            logger.warn("Pretty-printing failed on {}, using simple term representation.",
+                    new AggregateMetaborgException(exceptions), simpleTerm);
+            return simpleTerm.toString();
+        }
 
+        private HybridInterpreter runtime(ILanguageComponent component) throws MetaborgException {
+            HybridInterpreter runtime = runtimes.get(component);
+            if(runtime == null) {
+                runtime = runtimeService.runtime(component, context, true);
+                runtimes.put(component, runtime);
+            }
+            return runtime;
+        }
+    }
 }
@@ -11,9 +11,11 @@ import java.util.Optional;
 import org.apache.commons.vfs2.FileObject;
 import org.metaborg.core.MetaborgException;
 import org.metaborg.core.analysis.AnalysisException;
+import org.metaborg.core.context.IContext;
 import org.metaborg.core.messages.IMessage;
 import org.metaborg.core.messages.MessageFactory;
 import org.metaborg.core.messages.MessageSeverity;
+import org.metaborg.core.metrics.IMetricsService;
 import org.metaborg.core.resource.IResourceService;
 import org.metaborg.spoofax.core.analysis.AnalysisCommon;
 import org.metaborg.spoofax.core.analysis.ISpoofaxAnalyzeResults;
@@ -23,6 +25,7 @@ import org.metaborg.spoofax.core.context.scopegraph.IMultiFileScopeGraphContext;
 import org.metaborg.spoofax.core.context.scopegraph.IMultiFileScopeGraphUnit;
 import org.metaborg.spoofax.core.stratego.IStrategoCommon;
 import org.metaborg.spoofax.core.stratego.IStrategoRuntimeService;
+import org.metaborg.spoofax.core.terms.BinaryTermCache;
 import org.metaborg.spoofax.core.terms.ITermFactoryService;
 import org.metaborg.spoofax.core.tracing.ISpoofaxTracingService;
 import org.metaborg.spoofax.core.unit.AnalyzeContrib;
@@ -43,6 +46,9 @@ import org.metaborg.util.time.Timer;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 import org.strategoxt.HybridInterpreter;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -82,13 +88,29 @@ public class ConstraintMultiFileAnalyzer extends AbstractConstraintAnalyzer<IMul
 
     public static final String name = "constraint-multifile";
 
+    /**
+     * System property that enables emitting updates of unchanged units only when their messages changed since the
+     * previous analysis in the same context, detected by a hash of the messages.
+     */
+    public static final String changedUpdatesProperty = "metaborg.analysis.changedupdates";
+
     private final ISpoofaxUnitService unitService;
+    private final boolean changedUpdates = Boolean.getBoolean(changedUpdatesProperty);
+
+    private final LoadingCache<IContext, MessageHashes> messageHashes =
+            CacheBuilder.newBuilder().weakKeys().build(new CacheLoader<IContext, MessageHashes>() {
+                @Override public MessageHashes load(IContext context) {
+                    return new MessageHashes();
+                }
+            });
 
     @Inject public ConstraintMultiFileAnalyzer(final AnalysisCommon analysisCommon,
             final ISpoofaxUnitService unitService, final IResourceService resourceService,
             final IStrategoRuntimeService runtimeService, final IStrategoCommon strategoCommon,
-            final ITermFactoryService termFactoryService, final ISpoofaxTracingService tracingService) {
-        super(analysisCommon, resourceService, runtimeService, strategoCommon, termFactoryService, tracingService);
+            final ITermFactoryService termFactoryService, final BinaryTermCache termCache,
+            final ISpoofaxTracingService tracingService, final IMetricsService metricsService) {
+        super(analysisCommon, resourceService, runtimeService, strategoCommon, termFactoryService, termCache,
+                tracingService, metricsService);
         this.unitService = unitService;
     }
 
@@ -116,6 +138,9 @@ public class ConstraintMultiFileAnalyzer extends AbstractConstraintAnalyzer<IMul
         for(String input : removed) {
             context.removeUnit(input);
         }
+        if(changedUpdates) {
+            messageHashes.getUnchecked(context).remove(removed);
+        }
 
         final int n = changed.size();
         final int w = context.units().size() / 2;
@@ -125,6 +150,8 @@ public class ConstraintMultiFileAnalyzer extends AbstractConstraintAnalyzer<IMul
             logger.info("Analyzing {} files in {}.", n, context.location());
         }
         final Collection<ISpoofaxAnalyzeUnit> results = Lists.newArrayList();
+        // Message hashes are only stored once the results that carry the messages are returned.
+        final MessageHashes.Batch messageHashesBatch = messageHashes.getUnchecked(context).batch();
         final Collection<ISpoofaxAnalyzeUnitUpdate> updateResults = Lists.newArrayList();
         try {
 
@@ -382,6 +409,10 @@ public class ConstraintMultiFileAnalyzer extends AbstractConstraintAnalyzer<IMul
                     final java.util.Set<IMessage> fileMessages = messagesByFile.get(source).stream()
                             .map(Map.Entry::getValue).collect(Collectors2.toHashSet());
                     if(changed.containsKey(source)) {
+                        if(changedUpdates) {
+                            // Ambiguity messages are excluded, like from the messages of unchanged units.
+                            messageHashesBatch.changed(source, fileMessages);
+                        }
                         fileMessages.addAll(ambiguitiesByFile.get(source));
                         final boolean valid = !failures.containsKey(source);
                         final boolean success = valid && messagesByFile.get(source, MessageSeverity.ERROR).isEmpty();
@@ -389,7 +420,7 @@ public class ConstraintMultiFileAnalyzer extends AbstractConstraintAnalyzer<IMul
                         results.add(unitService.analyzeUnit(changed.get(source),
                                 new AnalyzeContrib(valid, success, analyzedAST != null, analyzedAST, fileMessages, -1),
                                 context));
-                    } else {
+                    } else if(!changedUpdates || messageHashesBatch.changed(source, fileMessages)) {
                         try {
                             final FileObject file = context.location().resolveFile(source);
                             updateResults.add(
@@ -417,11 +448,17 @@ public class ConstraintMultiFileAnalyzer extends AbstractConstraintAnalyzer<IMul
 
         final ConstraintDebugData debugData = new ConstraintDebugData(totalTimer.stop(), collectionTimer.total(),
                 solverTimer.total(), finalizeTimer.total());
+        recordTimes(debugData);
         if(debugConfig.timing()) {
             logger.info("{}", debugData);
         }
 
-        return new SpoofaxAnalyzeResults(results, updateResults, context, debugData);
+        final ISpoofaxAnalyzeResults analyzeResults =
+                new SpoofaxAnalyzeResults(results, updateResults, context, debugData);
+        if(changedUpdates) {
+            messageHashesBatch.commit();
+        }
+        return analyzeResults;
     }
 
 }
@@ -12,6 +12,7 @@ import org.metaborg.core.MetaborgException;
 import org.metaborg.core.analysis.AnalysisException;
 import org.metaborg.core.messages.IMessage;
 import org.metaborg.core.messages.MessageFactory;
+import org.metaborg.core.metrics.IMetricsService;
 import org.metaborg.core.resource.IResourceService;
 import org.metaborg.spoofax.core.analysis.AnalysisCommon;
 import org.metaborg.spoofax.core.analysis.ISpoofaxAnalyzeResults;
@@ -21,6 +22,7 @@ import org.metaborg.spoofax.core.context.scopegraph.ISingleFileScopeGraphContext
 import org.metaborg.spoofax.core.context.scopegraph.ISingleFileScopeGraphUnit;
 import org.metaborg.spoofax.core.stratego.IStrategoCommon;
 import org.metaborg.spoofax.core.stratego.IStrategoRuntimeService;
+import org.metaborg.spoofax.core.terms.BinaryTermCache;
 import org.metaborg.spoofax.core.terms.ITermFactoryService;
 import org.metaborg.spoofax.core.tracing.ISpoofaxTracingService;
 import org.metaborg.spoofax.core.unit.AnalyzeContrib;
@@ -73,8 +75,10 @@ public class ConstraintSingleFileAnalyzer extends AbstractConstraintAnalyzer<ISi
     @Inject public ConstraintSingleFileAnalyzer(final AnalysisCommon analysisCommon,
             final ISpoofaxUnitService unitService, final IResourceService resourceService,
             final IStrategoRuntimeService runtimeService, final IStrategoCommon strategoCommon,
-            final ITermFactoryService termFactoryService, final ISpoofaxTracingService tracingService) {
-        super(analysisCommon, resourceService, runtimeService, strategoCommon, termFactoryService, tracingService);
+            final ITermFactoryService termFactoryService, final BinaryTermCache termCache,
+            final ISpoofaxTracingService tracingService, final IMetricsService metricsService) {
+        super(analysisCommon, resourceService, runtimeService, strategoCommon, termFactoryService, termCache,
+                tracingService, metricsService);
         this.unitService = unitService;
     }
 
@@ -264,6 +268,7 @@ public class ConstraintSingleFileAnalyzer extends AbstractConstraintAnalyzer<ISi
 
                 final ConstraintDebugData debugData = new ConstraintDebugData(totalTimer.stop(),
                         collectionTimer.total(), solverTimer.total(), finalizeTimer.total());
+                recordTimes(debugData);
                 if(debugConfig.timing()) {
                     logger.info("{}", debugData);
                 }
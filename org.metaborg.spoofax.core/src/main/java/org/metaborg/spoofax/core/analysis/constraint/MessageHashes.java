@@ -0,0 +1,91 @@
+package org.metaborg.spoofax.core.analysis.constraint;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.metaborg.core.messages.IMessage;
+import org.metaborg.core.source.ISourceRegion;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Hashes of the messages of the units in a context, used to detect units whose messages did not change since the
+ * previous analysis, such that no update has to be emitted for them. Messages are hashed by their severity, text, and
+ * region, independent of their order.
+ */
+public class MessageHashes {
+    private static final HashFunction hashFunction = Hashing.murmur3_128();
+
+    private final Map<String, HashCode> hashes = Maps.newConcurrentMap();
+
+
+    /**
+     * Starts comparing the messages of an analysis with the stored messages. Hashes of the messages of the analysis are
+     * only stored when the batch is committed, such that an analysis that does not deliver its results does not
+     * suppress updates of the next analysis.
+     */
+    public Batch batch() {
+        return new Batch();
+    }
+
+    /**
+     * Removes the hashes of given units.
+     */
+    public void remove(Collection<String> sources) {
+        hashes.keySet().removeAll(sources);
+    }
+
+
+    private static HashCode hash(Collection<IMessage> messages) {
+        final List<HashCode> messageHashes = Lists.newArrayListWithCapacity(messages.size() + 1);
+        // Include a constant hash, since combining requires at least one hash.
+        messageHashes.add(hashFunction.hashInt(0));
+        for(IMessage message : messages) {
+            final Hasher hasher = hashFunction.newHasher();
+            hasher.putInt(message.severity().ordinal());
+            hasher.putString(message.message(), StandardCharsets.UTF_8);
+            final ISourceRegion region = message.region();
+            if(region != null) {
+                hasher.putInt(region.startOffset());
+                hasher.putInt(region.endOffset());
+            }
+            messageHashes.add(hasher.hash());
+        }
+        // Messages are unordered, so combine their hashes independent of order.
+        return Hashing.combineUnordered(messageHashes);
+    }
+
+
+    /**
+     * Messages of a single analysis.
+     */
+    public class Batch {
+        private final Map<String, HashCode> newHashes = Maps.newHashMap();
+
+
+        /**
+         * Hashes given messages of given unit, to be stored when the batch is committed.
+         *
+         * @return True if the messages changed since they were last stored, false otherwise.
+         */
+        public boolean changed(String source, Collection<IMessage> messages) {
+            final HashCode hash = hash(messages);
+            newHashes.put(source, hash);
+            return !hash.equals(hashes.get(source));
+        }
+
+        /**
+         * Stores the hashes of the messages of this batch.
+         */
+        public void commit() {
+            hashes.putAll(newHashes);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.metaborg.spoofax.core.analysis.constraint;
+
+import java.util.List;
+
+import org.metaborg.core.metrics.Counter;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import mb.nabl2.stratego.StrategoTerms;
+import mb.nabl2.terms.IApplTerm;
+import mb.nabl2.terms.ITerm;
+
+/**
+ * Converts terms between their Stratego and constraint representations, remembering conversions by identity in both
+ * directions. Converting a term back to the representation it was converted from gives the original term, and
+ * converting the same term again gives the earlier result, instead of copying the whole term again. This covers the
+ * round trips of the constraint analyzers:
+ * <ul>
+ * <li>The AST of a parse unit is converted on every analysis of the unit, and is only converted once.</li>
+ * <li>The desugared AST is a direct subterm of the unit result of the analysis strategy. Direct subterms of converted
+ * applications and tuples are remembered as well, such that converting the desugared AST back gives the Stratego term
+ * that the strategy returned.</li>
+ * </ul>
+ * Terms are compared by identity, such that equal terms with different attachments are not mixed up. Conversions are
+ * removed when the converted term is no longer used, or when memory runs low, since a constraint term may refer to the
+ * Stratego term it was converted from through its attachments.
+ */
+public class StrategoTermBridge {
+    private static final int maximumSize = 10000;
+
+    private final StrategoTerms strategoTerms;
+    private final Counter hits;
+
+    private final Cache<IStrategoTerm, ITerm> fromStratego =
+        CacheBuilder.newBuilder().maximumSize(maximumSize).weakKeys().softValues().build();
+    private final Cache<ITerm, IStrategoTerm> toStratego =
+        CacheBuilder.newBuilder().maximumSize(maximumSize).weakKeys().softValues().build();
+
+
+    public StrategoTermBridge(StrategoTerms strategoTerms, Counter hits) {
+        this.strategoTerms = strategoTerms;
+        this.hits = hits;
+    }
+
+
+    /**
+     * @return Constraint representation of given Stratego term.
+     */
+    public ITerm fromStratego(IStrategoTerm sterm) {
+        final ITerm cached = fromStratego.getIfPresent(sterm);
+        if(cached != null) {
+            hits.increment();
+            return cached;
+        }
+        final ITerm term = strategoTerms.fromStratego(sterm);
+        remember(sterm, term);
+        return term;
+    }
+
+    /**
+     * @return Stratego representation of given constraint term.
+     */
+    public IStrategoTerm toStratego(ITerm term) {
+        final IStrategoTerm cached = toStratego.getIfPresent(term);
+        if(cached != null) {
+            hits.increment();
+            return cached;
+        }
+        final IStrategoTerm sterm = strategoTerms.toStratego(term);
+        remember(sterm, term);
+        return sterm;
+    }
+
+
+    private void remember(IStrategoTerm sterm, ITerm term) {
+        put(sterm, term);
+        if(!(term instanceof IApplTerm)) {
+            return;
+        }
+        final int type = sterm.getTermType();
+        if(type != IStrategoTerm.APPL && type != IStrategoTerm.TUPLE) {
+            return;
+        }
+        final List<ITerm> args = ((IApplTerm) term).getArgs();
+        if(args.size() != sterm.getSubtermCount()) {
+            return;
+        }
+        for(int i = 0; i < args.size(); ++i) {
+            put(sterm.getSubterm(i), args.get(i));
+        }
+    }
+
+    private void put(IStrategoTerm sterm, ITerm term) {
+        fromStratego.put(sterm, term);
+        toStratego.put(term, sterm);
+    }
+}
@@ -2,6 +2,7 @@ package org.metaborg.spoofax.core.analysis.taskengine;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
@@ -14,6 +15,7 @@ import org.metaborg.core.language.FacetContribution;
 import org.metaborg.core.language.ILanguageImpl;
 import org.metaborg.core.messages.IMessage;
 import org.metaborg.core.messages.MessageSeverity;
+import org.metaborg.core.metrics.IMetricsService;
 import org.metaborg.core.resource.IResourceService;
 import org.metaborg.spoofax.core.analysis.AnalysisCommon;
 import org.metaborg.spoofax.core.analysis.AnalysisFacet;
@@ -64,18 +66,20 @@ public class TaskEngineAnalyzer implements ISpoofaxAnalyzer {
 
     private final IStrategoCommon strategoCommon;
     private final AnalysisCommon analysisCommon;
+    private final IMetricsService metricsService;
     private final IStrategoConstructor fileCons;
 
 
     @Inject public TaskEngineAnalyzer(IResourceService resourceService, ISpoofaxUnitService unitService,
         ITermFactoryService termFactoryService, IStrategoRuntimeService runtimeService, IStrategoCommon strategoCommon,
-        AnalysisCommon analysisCommon) {
+        AnalysisCommon analysisCommon, IMetricsService metricsService) {
         this.resourceService = resourceService;
         this.unitService = unitService;
         this.termFactoryService = termFactoryService;
         this.runtimeService = runtimeService;
         this.strategoCommon = strategoCommon;
         this.analysisCommon = analysisCommon;
+        this.metricsService = metricsService;
 
         this.fileCons = termFactoryService.getGeneric().makeConstructor("File", 3);
     }
@@ -185,14 +189,16 @@ public class TaskEngineAnalyzer implements ISpoofaxAnalyzer {
             updateResults.add(updateResult);
         }
 
-        // Currently unused debugging and performance data.
+        final AnalysisTimeResult timeResult = timeResult(resultTerm.getSubterm(4));
+        if(timeResult != null) {
+            recordTimes(timeResult);
+        }
+
+        // Currently unused debugging data.
         // final IStrategoTerm affectedPartitionsTerm = resultTerm.getSubterm(2);
         // final IStrategoTerm debugResultTerm = resultTerm.getSubterm(3);
-        // final IStrategoTerm timeResultTerm = resultTerm.getSubterm(4);
         // final Collection<String> affectedPartitions = affectedPartitions(affectedPartitionsTerm);
         // final AnalysisDebugResult debugResult = debugResult(debugResultTerm);
-        // final AnalysisTimeResult timeResult = timeResult(timeResultTerm);
-        // final TaskEngineAnalyzerData data = new TaskEngineAnalyzerData(affectedPartitions, debugResult, timeResult);
 
         return new SpoofaxAnalyzeResults(fileResults, updateResults, context);
     }
@@ -259,7 +265,48 @@ public class TaskEngineAnalyzer implements ISpoofaxAnalyzer {
         return unitService.analyzeUnitUpdate(source, new AnalyzeUpdateData(messages), context);
     }
 
-    /* Currently unused debugging and performance data. @formatter:off
+    /**
+     * Gets the times of the phases of the analysis from given term, which should contain 7 reals.
+     *
+     * @return Times, or null if the term does not contain times. Metrics must not break analysis, such terms are
+     *         ignored.
+     */
+    private @Nullable AnalysisTimeResult timeResult(IStrategoTerm time) {
+        if(time.getSubtermCount() != 7) {
+            return null;
+        }
+        final long[] times = new long[7];
+        for(int i = 0; i < times.length; ++i) {
+            final IStrategoTerm subterm = time.getSubterm(i);
+            if(!(subterm instanceof IStrategoReal)) {
+                logger.debug("Ignoring analysis times {}, expected 7 reals", time);
+                return null;
+            }
+            times[i] = (long) ((IStrategoReal) subterm).realValue();
+        }
+        return new AnalysisTimeResult(times[0], times[1], times[2], times[3], times[4], times[5], times[6]);
+    }
+
+    /**
+     * Records the times of the phases of the analysis, which the analysis strategy reports in milliseconds.
+     */
+    private void recordTimes(AnalysisTimeResult timeResult) {
+        metricsService.histogram("analysis.taskengine.parse").record(TimeUnit.MILLISECONDS.toNanos(timeResult.parse));
+        metricsService.histogram("analysis.taskengine.pretrans")
+            .record(TimeUnit.MILLISECONDS.toNanos(timeResult.preTrans));
+        metricsService.histogram("analysis.taskengine.collect")
+            .record(TimeUnit.MILLISECONDS.toNanos(timeResult.collect));
+        metricsService.histogram("analysis.taskengine.taskeval")
+            .record(TimeUnit.MILLISECONDS.toNanos(timeResult.taskEval));
+        metricsService.histogram("analysis.taskengine.posttrans")
+            .record(TimeUnit.MILLISECONDS.toNanos(timeResult.postTrans));
+        metricsService.histogram("analysis.taskengine.indexpersist")
+            .record(TimeUnit.MILLISECONDS.toNanos(timeResult.indexPersist));
+        metricsService.histogram("analysis.taskengine.taskpersist")
+            .record(TimeUnit.MILLISECONDS.toNanos(timeResult.taskPersist));
+    }
+
+    /* Currently unused debugging data. @formatter:off
     private Collection<String> affectedPartitions(IStrategoTerm affectedTerm) {
         final Collection<String> affected = new ArrayList<>(affectedTerm.getSubtermCount());
         for(IStrategoTerm partition : affectedTerm) {
@@ -277,11 +324,5 @@ public class TaskEngineAnalyzer implements ISpoofaxAnalyzer {
             (IStrategoList) debug.getSubterm(3));
     }
 
-    private AnalysisTimeResult timeResult(IStrategoTerm time) {
-        return new AnalysisTimeResult((long) Tools.asJavaDouble(time.getSubterm(0)),
-            (long) Tools.asJavaDouble(time.getSubterm(1)), (long) Tools.asJavaDouble(time.getSubterm(2)),
-            (long) Tools.asJavaDouble(time.getSubterm(3)), (long) Tools.asJavaDouble(time.getSubterm(4)),
-            (long) Tools.asJavaDouble(time.getSubterm(5)), (long) Tools.asJavaDouble(time.getSubterm(6)));
-    }
     @formatter:on */
 }
@@ -4,8 +4,10 @@ import org.metaborg.core.build.BuildInput;
 import org.metaborg.core.build.Builder;
 import org.metaborg.core.build.IBuildOutputInternal;
 import org.metaborg.core.build.paths.ILanguagePathService;
+import org.metaborg.core.build.paths.LanguageFileIndex;
 import org.metaborg.core.context.IContextService;
 import org.metaborg.core.language.ILanguageIdentifierService;
+import org.metaborg.core.metrics.IMetricsService;
 import org.metaborg.core.resource.IResourceService;
 import org.metaborg.core.source.ISourceTextService;
 import org.metaborg.spoofax.core.analysis.ISpoofaxAnalysisService;
@@ -36,10 +38,11 @@ public class SpoofaxBuilder extends
         ISpoofaxSyntaxService syntaxService, IContextService contextService, ISpoofaxAnalysisService analysisService,
         ISpoofaxTransformService transformService, ISpoofaxParseResultUpdater parseResultUpdater,
         ISpoofaxAnalysisResultUpdater analysisResultUpdater,
-        Provider<IBuildOutputInternal<ISpoofaxParseUnit, ISpoofaxAnalyzeUnit, ISpoofaxAnalyzeUnitUpdate, ISpoofaxTransformUnit<?>>> buildOutputProvider) {
+        Provider<IBuildOutputInternal<ISpoofaxParseUnit, ISpoofaxAnalyzeUnit, ISpoofaxAnalyzeUnitUpdate, ISpoofaxTransformUnit<?>>> buildOutputProvider,
+        IMetricsService metricsService, LanguageFileIndex fileIndex) {
         super(resourceService, languageIdentifier, languagePathService, unitService, sourceTextService, syntaxService,
             contextService, analysisService, transformService, parseResultUpdater, analysisResultUpdater,
-            buildOutputProvider);
+            buildOutputProvider, metricsService, fileIndex);
     }
 
 
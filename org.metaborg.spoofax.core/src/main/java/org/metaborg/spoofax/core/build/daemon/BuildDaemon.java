@@ -0,0 +1,456 @@
+package org.metaborg.spoofax.core.build.daemon;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.metaborg.core.MetaborgException;
+import org.metaborg.core.action.CompileGoal;
+import org.metaborg.core.build.BuildInput;
+import org.metaborg.core.build.BuildInputBuilder;
+import org.metaborg.core.build.BuildState;
+import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.core.language.IdentifiedResource;
+import org.metaborg.core.messages.IMessage;
+import org.metaborg.core.messages.IMessagePrinter;
+import org.metaborg.core.messages.MessageSeverity;
+import org.metaborg.core.messages.StreamMessagePrinter;
+import org.metaborg.core.project.IProject;
+import org.metaborg.core.project.ISimpleProjectService;
+import org.metaborg.core.resource.CacheDirectories;
+import org.metaborg.core.resource.ResourceChange;
+import org.metaborg.core.resource.ResourceChangeKind;
+import org.metaborg.core.resource.ResourceUtils;
+import org.metaborg.spoofax.core.Spoofax;
+import org.metaborg.spoofax.core.build.ISpoofaxBuildOutput;
+import org.metaborg.util.log.ILogger;
+import org.metaborg.util.log.LoggerUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.BaseEncoding;
+
+/**
+ * Long-running build process that keeps a single Spoofax instance, and with it loaded languages, parse tables, Stratego
+ * runtime prototypes, and contexts, warm between builds. The daemon remembers the build state and the modification
+ * times and sizes of the sources of each project it built, such that subsequent builds of the same project only process
+ * the sources that changed since the previous build.
+ *
+ * The daemon reads commands from standard input, or from connections to a port on the loopback address. Each command
+ * is a single line, and each response ends with a line that starts with {@code ok} or {@code error}. Other lines of a
+ * response start with {@code msg}:
+ * <ul>
+ * <li>{@code load <path>}: loads the language at given directory or archive, and forgets the build state of all
+ * projects.</li>
+ * <li>{@code build <path>}: builds the project at given directory, printing its messages, and responds with
+ * {@code ok <errors>}.</li>
+ * <li>{@code clean <path>}: forgets the build state of the project at given directory, such that its next build
+ * processes all sources.</li>
+ * <li>{@code shutdown}: stops the daemon.</li>
+ * </ul>
+ *
+ * Any local process can connect to the port, so the first line of a connection must be {@code token <token>}, with the
+ * token that the daemon writes to a file that only the user that started the daemon can read.
+ */
+public class BuildDaemon implements AutoCloseable {
+    private static final ILogger logger = LoggerUtils.logger(BuildDaemon.class);
+
+    private static final String messagePrefix = "msg ";
+
+    private final Spoofax spoofax;
+    private final ISimpleProjectService projectService;
+
+    private final Set<ILanguageImpl> languages = Sets.newLinkedHashSet();
+    private final Map<FileName, Workspace> workspaces = Maps.newHashMap();
+    private final SecureRandom random = new SecureRandom();
+    private volatile boolean running = true;
+
+
+    public BuildDaemon(Spoofax spoofax) {
+        this.spoofax = spoofax;
+        this.projectService = spoofax.injector.getInstance(ISimpleProjectService.class);
+    }
+
+
+    /**
+     * Loads the language at given directory or archive, and includes it in subsequent builds. Forgets the build state
+     * of all projects, since their previous builds did not process the sources of the language.
+     *
+     * @param path
+     *            Path or URI of the language directory or archive.
+     * @return Loaded language implementation.
+     * @throws MetaborgException
+     *             When loading the language fails.
+     */
+    public synchronized ILanguageImpl load(String path) throws MetaborgException {
+        final FileObject location = spoofax.resolve(path);
+        final ILanguageImpl language;
+        try {
+            if(location.isFolder()) {
+                language = spoofax.languageDiscoveryService.languageFromDirectory(location);
+            } else {
+                language = spoofax.languageDiscoveryService.languageFromArchive(location);
+            }
+        } catch(IOException e) {
+            throw new MetaborgException("Cannot load language at " + location, e);
+        }
+        languages.add(language);
+        workspaces.clear();
+        return language;
+    }
+
+    /**
+     * Builds the project at given directory, processing only the sources that changed since the previous build of the
+     * project.
+     *
+     * @param path
+     *            Path or URI of the project directory.
+     * @param printer
+     *            Printer for the messages of the build.
+     * @return Build output.
+     * @throws MetaborgException
+     *             When the build fails unexpectedly.
+     * @throws InterruptedException
+     *             When the build is interrupted.
+     */
+    public synchronized ISpoofaxBuildOutput build(String path, IMessagePrinter printer)
+        throws MetaborgException, InterruptedException {
+        final Workspace workspace = workspace(path);
+
+        final Map<FileName, Stamp> stamps = Maps.newHashMap();
+        final Collection<ResourceChange> changes = Lists.newArrayList();
+        try {
+            for(ILanguageImpl language : languages) {
+                for(IdentifiedResource source : spoofax.languagePathService.sourceFiles(workspace.project, language)) {
+                    final FileObject resource = source.resource;
+                    final FileName name = resource.getName();
+                    final Stamp stamp = new Stamp(ResourceUtils.lastModified(resource), ResourceUtils.size(resource));
+                    if(stamps.put(name, stamp) != null) {
+                        continue;
+                    }
+                    // Racy stamps cannot detect changes made during the previous build, such sources are rebuilt.
+                    final Stamp previous = workspace.stamps.get(name);
+                    if(previous == null) {
+                        changes.add(new ResourceChange(resource, ResourceChangeKind.Create));
+                    } else if(previous.racy || !previous.equals(stamp)) {
+                        changes.add(new ResourceChange(resource, ResourceChangeKind.Modify));
+                    }
+                }
+            }
+            for(FileName name : workspace.stamps.keySet()) {
+                if(!stamps.containsKey(name)) {
+                    changes.add(new ResourceChange(spoofax.resolve(name.getURI()), ResourceChangeKind.Delete));
+                }
+            }
+        } catch(IOException e) {
+            throw new MetaborgException("Cannot determine changed sources of " + workspace.project, e);
+        }
+        logger.debug("Building {} with {} changed sources", workspace.project, changes.size());
+
+        // @formatter:off
+        final BuildInput input = new BuildInputBuilder(workspace.project)
+            .withState(workspace.state)
+            .addLanguages(languages)
+            .withSourceChanges(changes)
+            .addTransformGoal(new CompileGoal())
+            .withMessagePrinter(printer)
+            .withThrowOnErrors(false)
+            .build(spoofax.dependencyService, spoofax.languagePathService);
+        // @formatter:on
+        final ISpoofaxBuildOutput output = spoofax.builder.build(input);
+
+        workspace.state = output.state();
+        workspace.stamps = stamps;
+        return output;
+    }
+
+    /**
+     * Forgets the build state of the project at given directory, such that its next build processes all sources.
+     *
+     * @param path
+     *            Path or URI of the project directory.
+     */
+    public synchronized void clean(String path) {
+        workspaces.remove(spoofax.resolve(path).getName());
+    }
+
+
+    /**
+     * Reads commands from given input and writes responses to given output, until the input ends or the daemon is shut
+     * down.
+     *
+     * @throws IOException
+     *             When reading or writing fails.
+     */
+    public void serve(InputStream input, OutputStream output) throws IOException {
+        serve(input, output, null);
+    }
+
+    /**
+     * Reads commands from given input and writes responses to given output, until the input ends or the daemon is shut
+     * down. If a token is given, the first line of the input must be {@code token <token>}, otherwise the input is not
+     * served.
+     *
+     * @throws IOException
+     *             When reading or writing fails.
+     */
+    public void serve(InputStream input, OutputStream output, @Nullable String token) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        final PrintStream writer = new PrintStream(output, true, StandardCharsets.UTF_8.name());
+        if(token != null && !authenticate(reader.readLine(), token)) {
+            writer.println("error Unauthorized");
+            return;
+        }
+        final PrintStream messageWriter =
+            new PrintStream(new PrefixOutputStream(output, messagePrefix), true, StandardCharsets.UTF_8.name());
+        String line;
+        while(running && (line = reader.readLine()) != null) {
+            line = line.trim();
+            if(line.isEmpty()) {
+                continue;
+            }
+            final int space = line.indexOf(' ');
+            final String command = space == -1 ? line : line.substring(0, space);
+            final String argument = space == -1 ? "" : line.substring(space + 1).trim();
+            try {
+                switch(command) {
+                    case "load":
+                        writer.println("ok " + load(argument).id());
+                        break;
+                    case "build":
+                        final IMessagePrinter printer =
+                            new StreamMessagePrinter(spoofax.sourceTextService, true, true, messageWriter,
+                                messageWriter, messageWriter);
+                        final ISpoofaxBuildOutput buildOutput = build(argument, printer);
+                        messageWriter.flush();
+                        writer.println("ok " + errors(buildOutput.allMessages()));
+                        break;
+                    case "clean":
+                        clean(argument);
+                        writer.println("ok");
+                        break;
+                    case "shutdown":
+                        running = false;
+                        writer.println("ok");
+                        break;
+                    default:
+                        writer.println("error Unknown command " + command);
+                        break;
+                }
+            } catch(MetaborgException | RuntimeException e) {
+                logger.error("Command {} failed", e, line);
+                // Keep the response on a single line, such that it is not mistaken for other lines.
+                writer.println("error " + String.valueOf(e.getMessage()).replaceAll("\\s+", " "));
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                writer.println("error Interrupted");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Accepts connections on given port of the loopback address, serving them one at a time, until the daemon is shut
+     * down. The token that connections must authenticate with is written to {@code <port>.token} in the
+     * {@code .metaborg/daemon} directory of the home directory of the user.
+     *
+     * @throws IOException
+     *             When listening on the port, or writing the token, fails.
+     */
+    public void listen(int port) throws IOException {
+        listen(port, null);
+    }
+
+    /**
+     * Accepts connections on given port of the loopback address, serving them one at a time, until the daemon is shut
+     * down.
+     *
+     * @param port
+     *            Port to listen on, or 0 to listen on any free port.
+     * @param tokenFile
+     *            File to write the token that connections must authenticate with to, or null to write it to
+     *            {@code <port>.token} in the {@code .metaborg/daemon} directory of the home directory of the user. The
+     *            file can only be read by the user, and is deleted when the daemon stops listening.
+     * @throws IOException
+     *             When listening on the port, or writing the token, fails.
+     */
+    public void listen(int port, @Nullable File tokenFile) throws IOException {
+        try(final ServerSocket server = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+            final Path tokenPath = tokenFile != null ? tokenFile.toPath()
+                : new File(System.getProperty("user.home"), ".metaborg/daemon/" + server.getLocalPort() + ".token")
+                    .toPath();
+            final String token = token();
+            writeToken(tokenPath, token);
+            logger.info("Build daemon listening on {}, token written to {}", server.getLocalSocketAddress(),
+                tokenPath);
+            try {
+                while(running) {
+                    try(final Socket socket = server.accept()) {
+                        serve(socket.getInputStream(), socket.getOutputStream(), token);
+                    } catch(IOException e) {
+                        logger.warn("Connection failed", e);
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(tokenPath);
+            }
+        }
+    }
+
+    @Override public void close() {
+        running = false;
+        spoofax.close();
+    }
+
+
+    private Workspace workspace(String path) throws MetaborgException {
+        final FileObject location = spoofax.resolve(path);
+        final FileName name = location.getName();
+        Workspace workspace = workspaces.get(name);
+        if(workspace == null) {
+            IProject project = projectService.get(location);
+            if(project == null) {
+                project = projectService.create(location);
+            }
+            workspace = new Workspace(project);
+            workspaces.put(name, workspace);
+        }
+        return workspace;
+    }
+
+    private String token() {
+        final byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return BaseEncoding.base16().lowerCase().encode(bytes);
+    }
+
+    private static void writeToken(Path file, String token) throws IOException {
+        CacheDirectories.create(file.getParent());
+        Files.deleteIfExists(file);
+        if(FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(file);
+            final File ioFile = file.toFile();
+            ioFile.setReadable(false, false);
+            ioFile.setWritable(false, false);
+            ioFile.setReadable(true, true);
+            ioFile.setWritable(true, true);
+        }
+        Files.write(file, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean authenticate(@Nullable String line, String token) {
+        if(line == null || !line.startsWith("token ")) {
+            return false;
+        }
+        final byte[] given = line.substring("token ".length()).trim().getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(given, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int errors(Iterable<IMessage> messages) {
+        int errors = 0;
+        for(IMessage message : messages) {
+            if(message.severity() == MessageSeverity.ERROR) {
+                ++errors;
+            }
+        }
+        return errors;
+    }
+
+
+    /**
+     * Starts a build daemon. Pass {@code --port <port>} to listen on a port of the loopback address, otherwise commands
+     * are read from standard input. Pass {@code --token-file <path>} to write the token that connections must
+     * authenticate with to given file. Other arguments are paths of languages to load on startup.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = -1;
+        File tokenFile = null;
+        final Collection<String> languages = Lists.newArrayList();
+        for(int i = 0; i < args.length; ++i) {
+            if("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if("--token-file".equals(args[i]) && i + 1 < args.length) {
+                tokenFile = new File(args[++i]);
+            } else {
+                languages.add(args[i]);
+            }
+        }
+
+        try(final BuildDaemon daemon = new BuildDaemon(new Spoofax())) {
+            for(String language : languages) {
+                daemon.load(language);
+            }
+            if(port == -1) {
+                daemon.serve(System.in, System.out);
+            } else {
+                daemon.listen(port, tokenFile);
+            }
+        }
+    }
+
+
+    private static class Workspace {
+        public final IProject project;
+        public BuildState state = new BuildState();
+        public Map<FileName, Stamp> stamps = Maps.newHashMap();
+
+
+        public Workspace(IProject project) {
+            this.project = project;
+        }
+    }
+
+    private static class Stamp {
+        public final long modified;
+        public final long size;
+        public final boolean racy;
+
+
+        public Stamp(long modified, long size) {
+            this.modified = modified;
+            this.size = size;
+            this.racy = ResourceUtils.racy(modified);
+        }
+
+
+        @Override public int hashCode() {
+            return Objects.hash(modified, size);
+        }
+
+        @Override public boolean equals(Object obj) {
+            if(this == obj) {
+                return true;
+            }
+            if(obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Stamp other = (Stamp) obj;
+            return modified == other.modified && size == other.size;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.metaborg.spoofax.core.build.daemon;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Output stream that writes a prefix at the start of every line, such that lines written to it can be told apart from
+ * other lines written to the underlying stream. Closing this stream does not close the underlying stream.
+ */
+public class PrefixOutputStream extends FilterOutputStream {
+    private final byte[] prefix;
+    private boolean lineStart = true;
+
+
+    public PrefixOutputStream(OutputStream out, String prefix) {
+        super(out);
+        this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+    }
+
+
+    @Override public void write(int b) throws IOException {
+        if(lineStart) {
+            out.write(prefix);
+            lineStart = false;
+        }
+        out.write(b);
+        if(b == '\n') {
+            lineStart = true;
+        }
+    }
+
+    @Override public void write(byte[] b, int off, int len) throws IOException {
+        final int end = off + len;
+        int start = off;
+        while(start < end) {
+            if(lineStart) {
+                out.write(prefix);
+                lineStart = false;
+            }
+            int newline = start;
+            while(newline < end && b[newline] != '\n') {
+                ++newline;
+            }
+            if(newline < end) {
+                out.write(b, start, newline + 1 - start);
+                lineStart = true;
+                start = newline + 1;
+            } else {
+                out.write(b, start, end - start);
+                start = end;
+            }
+        }
+    }
+
+    @Override public void close() throws IOException {
+        flush();
+    }
+}
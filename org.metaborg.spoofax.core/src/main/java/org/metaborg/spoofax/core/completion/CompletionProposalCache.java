@@ -0,0 +1,130 @@
+package org.metaborg.spoofax.core.completion;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.metaborg.core.language.ILanguageCache;
+import org.metaborg.core.language.ILanguageComponent;
+import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.util.log.ILogger;
+import org.metaborg.util.log.LoggerUtils;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+
+/**
+ * Cache of syntactic completion proposals that only depend on the grammar of a language, keyed by the component that
+ * provides the proposal strategy, the strategy, the sort, the constructor of the completed term, and a structural hash
+ * of the other document terms that are passed to the strategy, such as the parent of a placeholder. Proposals do not
+ * retain the terms of the document they were computed for; the document-dependent part of a proposal, the term that it
+ * changes, is supplied when the proposal is used, and the term that a proposal inserts must not carry origin or
+ * imploder attachments.
+ */
+public class CompletionProposalCache implements ILanguageCache {
+    private static final ILogger logger = LoggerUtils.logger(CompletionProposalCache.class);
+
+    private static final int maxEntries = 10000;
+
+    private final Cache<Key, List<Proposal>> proposals = CacheBuilder.newBuilder().maximumSize(maxEntries).build();
+
+
+    /**
+     * @param context
+     *            Structural hash of the document terms passed to the strategy that are not identified by the sort and
+     *            constructor, or null if there are no such terms.
+     * @return Cached proposals, or null if no proposals have been cached for given key yet.
+     */
+    public @Nullable List<Proposal> get(ILanguageComponent component, String strategy, String sort,
+        String constructor, @Nullable HashCode context) {
+        return proposals.getIfPresent(new Key(component, strategy, sort, constructor, context));
+    }
+
+    /**
+     * Caches given proposals.
+     */
+    public void put(ILanguageComponent component, String strategy, String sort, String constructor,
+        @Nullable HashCode context, List<Proposal> proposals) {
+        this.proposals.put(new Key(component, strategy, sort, constructor, context), proposals);
+    }
+
+
+    @Override public void invalidateCache(ILanguageComponent component) {
+        logger.debug("Removing cached completion proposals for {}", component);
+        proposals.asMap().keySet().removeIf(key -> key.component.equals(component));
+    }
+
+    @Override public void invalidateCache(ILanguageImpl impl) {
+        for(ILanguageComponent component : impl.components()) {
+            invalidateCache(component);
+        }
+    }
+
+
+    /**
+     * Document-independent part of a completion proposal.
+     */
+    public static class Proposal {
+        public final String name;
+        public final String text;
+        public final String additionalInfo;
+        /**
+         * Name of the constructor of the change, for example {@code REPLACE_TERM}, or null if the proposal does not
+         * change an existing term.
+         */
+        public final @Nullable String change;
+        /**
+         * Term that replaces or is inserted at the changed term, without origin or imploder attachments, or null if
+         * the proposal does not change an existing term.
+         */
+        public final @Nullable IStrategoTerm newTerm;
+
+
+        public Proposal(String name, String text, String additionalInfo, @Nullable String change,
+            @Nullable IStrategoTerm newTerm) {
+            this.name = name;
+            this.text = text;
+            this.additionalInfo = additionalInfo;
+            this.change = change;
+            this.newTerm = newTerm;
+        }
+    }
+
+    private static class Key {
+        private final ILanguageComponent component;
+        private final String strategy;
+        private final String sort;
+        private final String constructor;
+        private final @Nullable HashCode context;
+
+
+        public Key(ILanguageComponent component, String strategy, String sort, String constructor,
+            @Nullable HashCode context) {
+            this.component = component;
+            this.strategy = strategy;
+            this.sort = sort;
+            this.constructor = constructor;
+            this.context = context;
+        }
+
+
+        @Override public int hashCode() {
+            return Objects.hashCode(component, strategy, sort, constructor, context);
+        }
+
+        @Override public boolean equals(Object obj) {
+            if(this == obj) {
+                return true;
+            }
+            if(obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return component.equals(other.component) && strategy.equals(other.strategy) && sort.equals(other.sort)
+                && constructor.equals(other.constructor) && Objects.equal(context, other.context);
+        }
+    }
+}
@@ -1,11 +1,33 @@
 package org.metaborg.spoofax.core.completion;
 
+import javax.annotation.Nullable;
+
+import org.metaborg.core.MetaborgException;
+import org.metaborg.core.completion.ICompletion;
 import org.metaborg.core.completion.ICompletionService;
 import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
+import org.metaborg.util.task.ICancel;
 
 /**
  * Typedef interface for {@link ICompletionService} with Spoofax interfaces.
  */
 public interface ISpoofaxCompletionService extends ICompletionService<ISpoofaxParseUnit> {
-
-}
\ No newline at end of file
+    /**
+     * Gets completions at given offset, within a time budget. Proposal strategies are invoked concurrently. When the
+     * time budget runs out or completion is cancelled, the completions that have been computed so far are returned.
+     *
+     * @param offset
+     *            Offset to get completions at.
+     * @param result
+     *            Parse unit to get completions for.
+     * @param nested
+     *            If nested completions should be computed.
+     * @param timeout
+     *            Time budget in milliseconds, or 0 for no time budget.
+     * @param cancel
+     *            Cancellation token, or null if completion cannot be cancelled.
+     * @return Completions that were computed within the time budget.
+     */
+    Iterable<ICompletion> get(int offset, ISpoofaxParseUnit result, boolean nested, long timeout,
+        @Nullable ICancel cancel) throws MetaborgException;
+}
@@ -2,7 +2,15 @@ package org.metaborg.spoofax.core.completion;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.annotation.Nullable;
 
@@ -18,6 +26,7 @@ import org.metaborg.core.source.ISourceLocation;
 import org.metaborg.core.source.ISourceRegion;
 import org.metaborg.core.source.SourceLocation;
 import org.metaborg.core.source.SourceRegion;
+import org.metaborg.spoofax.core.completion.CompletionProposalCache.Proposal;
 import org.metaborg.spoofax.core.stratego.IStrategoCommon;
 import org.metaborg.spoofax.core.stratego.IStrategoRuntimeService;
 import org.metaborg.spoofax.core.syntax.ISpoofaxSyntaxService;
@@ -26,10 +35,12 @@ import org.metaborg.spoofax.core.syntax.JSGLRSourceRegionFactory;
 import org.metaborg.spoofax.core.syntax.SourceAttachment;
 import org.metaborg.spoofax.core.syntax.SyntaxFacet;
 import org.metaborg.spoofax.core.terms.ITermFactoryService;
+import org.metaborg.spoofax.core.terms.TermHashing;
 import org.metaborg.spoofax.core.unit.ISpoofaxInputUnit;
 import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
 import org.metaborg.spoofax.core.unit.ISpoofaxUnitService;
 import org.metaborg.util.iterators.Iterables2;
+import org.metaborg.util.task.ICancel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.spoofax.interpreter.core.Tools;
@@ -37,6 +48,7 @@ import org.spoofax.interpreter.terms.ISimpleTerm;
 import org.spoofax.interpreter.terms.IStrategoAppl;
 import org.spoofax.interpreter.terms.IStrategoInt;
 import org.spoofax.interpreter.terms.IStrategoList;
+import org.spoofax.interpreter.terms.IStrategoReal;
 import org.spoofax.interpreter.terms.IStrategoString;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 import org.spoofax.interpreter.terms.IStrategoTuple;
@@ -57,37 +69,63 @@ import org.strategoxt.HybridInterpreter;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 
-public class JSGLRCompletionService implements ISpoofaxCompletionService {
+public class JSGLRCompletionService implements ISpoofaxCompletionService, AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(JSGLRCompletionService.class);
 
+    private static final int completionParseTimeout = 3000;
+
     private final ITermFactoryService termFactoryService;
     private final IStrategoRuntimeService strategoRuntimeService;
     private final IStrategoCommon strategoCommon;
     private final IResourceService resourceService;
     private final ISpoofaxUnitService unitService;
     private final ISpoofaxSyntaxService syntaxService;
+    private final CompletionProposalCache proposalCache;
 
+    private final ExecutorService proposalExecutor = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        new ThreadFactoryBuilder().setNameFormat("spoofax-completion-%d").setDaemon(true).build());
 
 
     @Inject public JSGLRCompletionService(ITermFactoryService termFactoryService,
         IStrategoRuntimeService strategoRuntimeService, IStrategoCommon strategoCommon,
-        IResourceService resourceService, ISpoofaxUnitService unitService, ISpoofaxSyntaxService syntaxService) {
+        IResourceService resourceService, ISpoofaxUnitService unitService, ISpoofaxSyntaxService syntaxService,
+        CompletionProposalCache proposalCache) {
         this.termFactoryService = termFactoryService;
         this.strategoRuntimeService = strategoRuntimeService;
         this.strategoCommon = strategoCommon;
         this.resourceService = resourceService;
         this.unitService = unitService;
         this.syntaxService = syntaxService;
+        this.proposalCache = proposalCache;
+    }
+
+    @Override public void close() {
+        proposalExecutor.shutdownNow();
     }
 
     @Override public Iterable<ICompletion> get(int position, ISpoofaxParseUnit parseInput, boolean nested)
+        throws MetaborgException {
+        return get(position, parseInput, nested, new Budget(0, null));
+    }
+
+    @Override public Iterable<ICompletion> get(int position, ISpoofaxParseUnit parseInput, boolean nested,
+        long timeout, @Nullable ICancel cancel) throws MetaborgException {
+        return get(position, parseInput, nested, new Budget(timeout, cancel));
+    }
+
+    private Iterable<ICompletion> get(int position, ISpoofaxParseUnit parseInput, boolean nested, Budget budget)
         throws MetaborgException {
         ISpoofaxParseUnit completionParseResult = null;
 
         if(!nested && !parseInput.success()) {
-            final JSGLRParserConfiguration config = new JSGLRParserConfiguration(true, true, true, 3000, position);
+            final int parseTimeout = (int) Math.max(1, Math.min(completionParseTimeout, budget.remainingMillis()));
+            final JSGLRParserConfiguration config =
+                new JSGLRParserConfiguration(true, true, true, parseTimeout, position);
             final ISpoofaxInputUnit input = parseInput.input();
             final ISpoofaxInputUnit modifiedInput =
                 unitService.inputUnit(input.source(), input.text(), input.langImpl(), input.dialect(), config);
@@ -111,6 +149,9 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
         if(completionParseResult != null && completionParseResult.ast() == null) {
             return completions;
         }
+        if(budget.exhausted()) {
+            return completions;
+        }
 
         Collection<IStrategoTerm> nestedCompletionTerms = getNestedCompletionTermsFromAST(completionParseResult);
         Collection<IStrategoTerm> completionTerms = getCompletionTermsFromAST(completionParseResult);
@@ -118,16 +159,16 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
         boolean blankLineCompletion = isCompletionBlankLine(position, parseInput.input().text());
 
         if(!completionTerms.isEmpty()) {
-            completions.addAll(completionErroneousPrograms(position, completionTerms, completionParseResult));
+            completions.addAll(completionErroneousPrograms(position, completionTerms, completionParseResult, budget));
         }
 
         if(!nestedCompletionTerms.isEmpty()) {
-            completions
-                .addAll(completionErroneousProgramsNested(position, nestedCompletionTerms, completionParseResult));
+            completions.addAll(
+                completionErroneousProgramsNested(position, nestedCompletionTerms, completionParseResult, budget));
         }
 
         if(completionTerms.isEmpty() && nestedCompletionTerms.isEmpty()) {
-            completions.addAll(completionCorrectPrograms(position, blankLineCompletion, parseInput));
+            completions.addAll(completionCorrectPrograms(position, blankLineCompletion, parseInput, budget));
         }
 
 
@@ -140,44 +181,52 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
         Collection<ICompletion> completions = Lists.newLinkedList();
 
         final String languageName = language.belongsTo().name();
+        final String strategy = "get-proposals-empty-program-" + languageName;
 
         for(ILanguageComponent component : language.components()) {
-            // call Stratego part of the framework to compute change
-            final HybridInterpreter runtime = strategoRuntimeService.runtime(component, location, false);
             final ITermFactory termFactory = termFactoryService.get(component, null, false);
 
             for(String startSymbol : startSymbols) {
                 String placeholderName = startSymbol + "-Plhdr";
-                IStrategoAppl placeholder = termFactory.makeAppl(termFactory.makeConstructor(placeholderName, 0));
-                IStrategoTuple input = termFactory.makeTuple(termFactory.makeString(startSymbol), placeholder);
+                List<Proposal> proposals = proposalCache.get(component, strategy, startSymbol, placeholderName, null);
+                if(proposals == null) {
+                    // call Stratego part of the framework to compute change
+                    IStrategoAppl placeholder = termFactory.makeAppl(termFactory.makeConstructor(placeholderName, 0));
+                    IStrategoTuple input = termFactory.makeTuple(termFactory.makeString(startSymbol), placeholder);
 
-                final IStrategoTerm proposalsPlaceholder =
-                    strategoCommon.invoke(runtime, input, "get-proposals-empty-program-" + languageName);
-
-                if(proposalsPlaceholder == null) {
-                    logger.error("Getting proposals for {} failed", placeholder);
-                    continue;
-                }
+                    final HybridInterpreter runtime = strategoRuntimeService.runtime(component, location, false);
+                    final IStrategoTerm proposalsPlaceholder = strategoCommon.invoke(runtime, input, strategy);
 
-                for(IStrategoTerm proposalTerm : proposalsPlaceholder) {
-                    if(!(proposalTerm instanceof IStrategoTuple)) {
-                        logger.error("Unexpected proposal term {}, skipping", proposalTerm);
+                    if(proposalsPlaceholder == null) {
+                        logger.error("Getting proposals for {} failed", placeholder);
                         continue;
                     }
 
-                    final IStrategoTuple tuple = (IStrategoTuple) proposalTerm;
-                    if(tuple.getSubtermCount() != 2 || !(tuple.getSubterm(0) instanceof IStrategoString)
-                        || !(tuple.getSubterm(1) instanceof IStrategoString)) {
-                        logger.error("Unexpected proposal term {}, skipping", proposalTerm);
-                        continue;
-                    }
+                    proposals = Lists.newArrayList();
+                    for(IStrategoTerm proposalTerm : proposalsPlaceholder) {
+                        if(!(proposalTerm instanceof IStrategoTuple)) {
+                            logger.error("Unexpected proposal term {}, skipping", proposalTerm);
+                            continue;
+                        }
 
-                    final String name = Tools.asJavaString(tuple.getSubterm(0));
-                    final String text = Tools.asJavaString(tuple.getSubterm(1));
-                    final String additionalInfo = Tools.asJavaString(tuple.getSubterm(1));
+                        final IStrategoTuple tuple = (IStrategoTuple) proposalTerm;
+                        if(tuple.getSubtermCount() != 2 || !(tuple.getSubterm(0) instanceof IStrategoString)
+                            || !(tuple.getSubterm(1) instanceof IStrategoString)) {
+                            logger.error("Unexpected proposal term {}, skipping", proposalTerm);
+                            continue;
+                        }
 
-                    completions.add(new Completion(name, startSymbol, text, additionalInfo, 0, endOffset,
-                        CompletionKind.expansion));
+                        final String name = Tools.asJavaString(tuple.getSubterm(0));
+                        final String text = Tools.asJavaString(tuple.getSubterm(1));
+                        final String additionalInfo = Tools.asJavaString(tuple.getSubterm(1));
+                        proposals.add(new Proposal(name, text, additionalInfo, null, null));
+                    }
+                    proposalCache.put(component, strategy, startSymbol, placeholderName, null, proposals);
+                }
+
+                for(Proposal proposal : proposals) {
+                    completions.add(new Completion(proposal.name, startSymbol, proposal.text, proposal.additionalInfo,
+                        0, endOffset, CompletionKind.expansion));
                 }
             }
         }
@@ -214,6 +263,11 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
 
     public Collection<ICompletion> completionCorrectPrograms(int position, boolean blankLineCompletion,
         ISpoofaxParseUnit parseResult) throws MetaborgException {
+        return completionCorrectPrograms(position, blankLineCompletion, parseResult, new Budget(0, null));
+    }
+
+    private Collection<ICompletion> completionCorrectPrograms(int position, boolean blankLineCompletion,
+        ISpoofaxParseUnit parseResult, Budget budget) throws MetaborgException {
 
         Collection<ICompletion> completions = Sets.newHashSet();
         final FileObject location = parseResult.source();
@@ -221,7 +275,9 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
         final String languageName = language.belongsTo().name();
 
         for(ILanguageComponent component : language.components()) {
-
+            if(budget.exhausted()) {
+                break;
+            }
 
             final HybridInterpreter runtime = strategoRuntimeService.runtime(component, location, false);
             final ITermFactory termFactory = termFactoryService.get(component, null, false);
@@ -240,16 +296,16 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
             final Iterable<IStrategoTerm> rightRecursive = getRightRecursiveTerms(position, terms, rightRecursiveTerms);
 
             if(placeholder != null) {
-                completions.addAll(placeholderCompletions(placeholder, languageName, component, location));
+                completions.addAll(placeholderCompletions(placeholder, languageName, component, location, budget));
             } else {
                 if(Iterables.size(lists) != 0) {
-                    completions.addAll(
-                        listsCompletions(position, blankLineCompletion, lists, languageName, component, location));
+                    completions.addAll(listsCompletions(position, blankLineCompletion, lists, languageName,
+                        component, location, budget));
                 }
 
                 if(Iterables.size(optionals) != 0) {
-                    completions
-                        .addAll(optionalCompletions(optionals, blankLineCompletion, languageName, component, location));
+                    completions.addAll(optionalCompletions(optionals, blankLineCompletion, languageName, component,
+                        location, budget));
                 }
                 // TODO Improve recursive completions
                 // if(Iterables.size(leftRecursive) != 0 || Iterables.size(rightRecursive) != 0) {
@@ -372,11 +428,17 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
 
     public Collection<ICompletion> placeholderCompletions(IStrategoAppl placeholder, String languageName,
         ILanguageComponent component, FileObject location) throws MetaborgException {
+        return placeholderCompletions(placeholder, languageName, component, location, new Budget(0, null));
+    }
+
+    private Collection<ICompletion> placeholderCompletions(IStrategoAppl placeholder, String languageName,
+        ILanguageComponent component, FileObject location, Budget budget) throws MetaborgException {
         Collection<ICompletion> completions = Lists.newLinkedList();
 
-        // call Stratego part of the framework to compute change
-        final HybridInterpreter runtime = strategoRuntimeService.runtime(component, location, false);
         final ITermFactory termFactory = termFactoryService.get(component, null, false);
+        final String strategy = "get-proposals-placeholder-" + languageName;
+        final String sort = ImploderAttachment.getSort(placeholder);
+        final String placeholderName = placeholder.getConstructor().getName();
 
         IStrategoTerm placeholderParent = ParentAttachment.getParent(placeholder);
         if(placeholderParent == null) {
@@ -391,42 +453,37 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
             }
         }
 
-        final String sort = ImploderAttachment.getSort(placeholder);
-        final IStrategoTerm strategoInput =
-            termFactory.makeTuple(termFactory.makeString(sort), placeholder, placeholderParent, placeholderIdx);
+        // The strategy may inspect the parent of the placeholder, so it is part of the key.
+        final HashCode context = TermHashing.hash(termFactory.makeTuple(placeholderParent, placeholderIdx));
+        List<Proposal> proposals = proposalCache.get(component, strategy, sort, placeholderName, context);
+        if(proposals == null) {
+            if(budget.exhausted()) {
+                return completions;
+            }
 
-        final IStrategoTerm proposalsPlaceholder =
-            strategoCommon.invoke(runtime, strategoInput, "get-proposals-placeholder-" + languageName);
+            final IStrategoTerm strategoInput =
+                termFactory.makeTuple(termFactory.makeString(sort), placeholder, placeholderParent, placeholderIdx);
 
-        if(proposalsPlaceholder == null) {
-            logger.error("Getting proposals for {} failed", placeholder);
-            return completions;
-        }
-        for(IStrategoTerm proposalTerm : proposalsPlaceholder) {
-            if(!(proposalTerm instanceof IStrategoTuple)) {
-                logger.error("Unexpected proposal term {}, skipping", proposalTerm);
-                continue;
-            }
-            final IStrategoTuple tuple = (IStrategoTuple) proposalTerm;
-            if(tuple.getSubtermCount() != 4 || !(tuple.getSubterm(0) instanceof IStrategoString)
-                || !(tuple.getSubterm(1) instanceof IStrategoString)
-                || !(tuple.getSubterm(2) instanceof IStrategoString)
-                || !(tuple.getSubterm(3) instanceof IStrategoAppl)) {
-                logger.error("Unexpected proposal term {}, skipping", proposalTerm);
-                continue;
-            }
+            // call Stratego part of the framework to compute change
+            final HybridInterpreter runtime = strategoRuntimeService.runtime(component, location, false);
+            final IStrategoTerm proposalsPlaceholder = strategoCommon.invoke(runtime, strategoInput, strategy);
 
-            final String name = Tools.asJavaString(tuple.getSubterm(0));
-            final String text = Tools.asJavaString(tuple.getSubterm(1));
-            final String additionalInfo = Tools.asJavaString(tuple.getSubterm(2));
-            final StrategoAppl change = (StrategoAppl) tuple.getSubterm(3);
+            if(proposalsPlaceholder == null) {
+                logger.error("Getting proposals for {} failed", placeholder);
+                return completions;
+            }
+            proposals = toProposals(termFactory, proposalsPlaceholder);
+            proposalCache.put(component, strategy, sort, placeholderName, context, proposals);
+        }
 
-            if(change.getConstructor().getName().contains("REPLACE_TERM")) {
-                final ICompletion completion =
-                    createCompletionReplaceTerm(name, text, additionalInfo, change, false, "", "");
+        for(Proposal proposal : proposals) {
+            if(proposal.change.contains("REPLACE_TERM")) {
+                final IStrategoAppl change = makeChange(termFactory, proposal, placeholder);
+                final ICompletion completion = createCompletionReplaceTerm(proposal.name, proposal.text,
+                    proposal.additionalInfo, change, false, "", "");
 
                 if(completion == null) {
-                    logger.error("Unexpected proposal term {}, skipping", proposalTerm);
+                    logger.error("Unexpected proposal {} for {}, skipping", proposal.name, placeholder);
                     continue;
                 }
 
@@ -439,56 +496,58 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
 
     public Collection<ICompletion> optionalCompletions(Iterable<IStrategoTerm> optionals, boolean blankLineCompletion,
         String languageName, ILanguageComponent component, FileObject location) throws MetaborgException {
+        return optionalCompletions(optionals, blankLineCompletion, languageName, component, location,
+            new Budget(0, null));
+    }
+
+    private Collection<ICompletion> optionalCompletions(Iterable<IStrategoTerm> optionals,
+        boolean blankLineCompletion, String languageName, ILanguageComponent component, FileObject location,
+        Budget budget) throws MetaborgException {
 
         Collection<ICompletion> completions = Lists.newLinkedList();
 
         final ITermFactory termFactory = termFactoryService.get(component, null, false);
+        final String strategy = "get-proposals-optional-" + languageName;
 
         for(IStrategoTerm optional : optionals) {
+            if(budget.exhausted()) {
+                break;
+            }
 
             ImploderAttachment attachment = optional.getAttachment(ImploderAttachment.TYPE);
             String sort = attachment.getSort().substring(0, attachment.getSort().length());
             String placeholderName = sort + "-Plhdr";
-            IStrategoAppl optionalPlaceholder = termFactory.makeAppl(termFactory.makeConstructor(placeholderName, 0));
-            final IStrategoTerm strategoInput =
-                termFactory.makeTuple(termFactory.makeString(sort), optional, optionalPlaceholder);
+            final String optionalName =
+                optional instanceof IStrategoAppl ? ((IStrategoAppl) optional).getConstructor().getName() : "";
 
-            // call Stratego part of the framework to compute change
-            final HybridInterpreter runtime = strategoRuntimeService.runtime(component, location, false);
-            final IStrategoTerm proposalsOptional =
-                strategoCommon.invoke(runtime, strategoInput, "get-proposals-optional-" + languageName);
+            final HashCode context = TermHashing.hash(optional);
+            List<Proposal> proposals = proposalCache.get(component, strategy, sort, optionalName, context);
+            if(proposals == null) {
+                IStrategoAppl optionalPlaceholder =
+                    termFactory.makeAppl(termFactory.makeConstructor(placeholderName, 0));
+                final IStrategoTerm strategoInput =
+                    termFactory.makeTuple(termFactory.makeString(sort), optional, optionalPlaceholder);
 
-            if(proposalsOptional == null) {
-                logger.error("Getting proposals for {} failed", strategoInput);
-                continue;
-            }
+                // call Stratego part of the framework to compute change
+                final HybridInterpreter runtime = strategoRuntimeService.runtime(component, location, false);
+                final IStrategoTerm proposalsOptional = strategoCommon.invoke(runtime, strategoInput, strategy);
 
-            for(IStrategoTerm proposalTerm : proposalsOptional) {
-                if(!(proposalTerm instanceof IStrategoTuple)) {
-                    logger.error("Unexpected proposal term {}, skipping", proposalTerm);
+                if(proposalsOptional == null) {
+                    logger.error("Getting proposals for {} failed", strategoInput);
                     continue;
                 }
-                final IStrategoTuple tuple = (IStrategoTuple) proposalTerm;
-                if(tuple.getSubtermCount() != 4 || !(tuple.getSubterm(0) instanceof IStrategoString)
-                    || !(tuple.getSubterm(1) instanceof IStrategoString)
-                    || !(tuple.getSubterm(2) instanceof IStrategoString)
-                    || !(tuple.getSubterm(3) instanceof IStrategoAppl)) {
-                    logger.error("Unexpected proposal term {}, skipping", proposalTerm);
-                    continue;
-                }
-
-                final String name = Tools.asJavaString(tuple.getSubterm(0));
-                final String text = Tools.asJavaString(tuple.getSubterm(1));
-                final String additionalInfo = Tools.asJavaString(tuple.getSubterm(2));
-                final StrategoAppl change = (StrategoAppl) tuple.getSubterm(3);
-
-                if(change.getConstructor().getName().contains("REPLACE_TERM")) {
+                proposals = toProposals(termFactory, proposalsOptional);
+                proposalCache.put(component, strategy, sort, optionalName, context, proposals);
+            }
 
-                    final ICompletion completion =
-                        createCompletionReplaceTerm(name, text, additionalInfo, change, blankLineCompletion, "", "");
+            for(Proposal proposal : proposals) {
+                if(proposal.change.contains("REPLACE_TERM")) {
+                    final IStrategoAppl change = makeChange(termFactory, proposal, optional);
+                    final ICompletion completion = createCompletionReplaceTerm(proposal.name, proposal.text,
+                        proposal.additionalInfo, change, blankLineCompletion, "", "");
 
                     if(completion == null) {
-                        logger.error("Unexpected proposal term {}, skipping", proposalTerm);
+                        logger.error("Unexpected proposal {} for {}, skipping", proposal.name, optional);
                         continue;
                     }
 
@@ -500,15 +559,101 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
         return completions;
     }
 
+    /**
+     * Converts proposal terms of the form {@code (name, text, additionalInfo, change)} into proposals that do not
+     * retain the changed document term, skipping malformed proposal terms.
+     */
+    private List<Proposal> toProposals(ITermFactory termFactory, IStrategoTerm proposalTerms) {
+        final List<Proposal> proposals = Lists.newArrayList();
+        for(IStrategoTerm proposalTerm : proposalTerms) {
+            if(!(proposalTerm instanceof IStrategoTuple)) {
+                logger.error("Unexpected proposal term {}, skipping", proposalTerm);
+                continue;
+            }
+            final IStrategoTuple tuple = (IStrategoTuple) proposalTerm;
+            if(tuple.getSubtermCount() != 4 || !(tuple.getSubterm(0) instanceof IStrategoString)
+                || !(tuple.getSubterm(1) instanceof IStrategoString)
+                || !(tuple.getSubterm(2) instanceof IStrategoString)
+                || !(tuple.getSubterm(3) instanceof IStrategoAppl) || tuple.getSubterm(3).getSubtermCount() != 2) {
+                logger.error("Unexpected proposal term {}, skipping", proposalTerm);
+                continue;
+            }
+
+            final String name = Tools.asJavaString(tuple.getSubterm(0));
+            final String text = Tools.asJavaString(tuple.getSubterm(1));
+            final String additionalInfo = Tools.asJavaString(tuple.getSubterm(2));
+            final IStrategoAppl change = (IStrategoAppl) tuple.getSubterm(3);
+            proposals.add(new Proposal(name, text, additionalInfo, change.getConstructor().getName(),
+                withoutAttachments(termFactory, change.getSubterm(1))));
+        }
+        return proposals;
+    }
+
+    /**
+     * Copies given term without attachments, such that cached proposals do not retain the origins of the terms they
+     * were computed from, and do not carry stale imploder attachments into other documents.
+     */
+    private static IStrategoTerm withoutAttachments(ITermFactory termFactory, IStrategoTerm term) {
+        final IStrategoTerm[] subterms = new IStrategoTerm[term.getSubtermCount()];
+        for(int i = 0; i < subterms.length; i++) {
+            subterms[i] = withoutAttachments(termFactory, term.getSubterm(i));
+        }
+
+        final IStrategoTerm copy;
+        switch(term.getTermType()) {
+            case IStrategoTerm.APPL:
+                copy = termFactory.makeAppl(((IStrategoAppl) term).getConstructor(), subterms);
+                break;
+            case IStrategoTerm.LIST:
+                copy = termFactory.makeList(subterms);
+                break;
+            case IStrategoTerm.TUPLE:
+                copy = termFactory.makeTuple(subterms);
+                break;
+            case IStrategoTerm.INT:
+                copy = termFactory.makeInt(((IStrategoInt) term).intValue());
+                break;
+            case IStrategoTerm.REAL:
+                copy = termFactory.makeReal(((IStrategoReal) term).realValue());
+                break;
+            case IStrategoTerm.STRING:
+                copy = termFactory.makeString(((IStrategoString) term).stringValue());
+                break;
+            default:
+                return term;
+        }
+
+        final IStrategoList annotations = term.getAnnotations();
+        if(annotations == null || annotations.isEmpty()) {
+            return copy;
+        }
+        return termFactory.annotateTerm(copy, (IStrategoList) withoutAttachments(termFactory, annotations));
+    }
+
+    private IStrategoAppl makeChange(ITermFactory termFactory, Proposal proposal, IStrategoTerm oldTerm) {
+        return termFactory.makeAppl(termFactory.makeConstructor(proposal.change, 2), oldTerm, proposal.newTerm);
+    }
+
     public Collection<ICompletion> listsCompletions(int position, boolean blankLineCompletion,
         Iterable<IStrategoList> lists, String languageName, ILanguageComponent component, FileObject location)
         throws MetaborgException {
+        return listsCompletions(position, blankLineCompletion, lists, languageName, component, location,
+            new Budget(0, null));
+    }
+
+    private Collection<ICompletion> listsCompletions(int position, boolean blankLineCompletion,
+        Iterable<IStrategoList> lists, String languageName, ILanguageComponent component, FileObject location,
+        Budget budget) throws MetaborgException {
 
         Collection<ICompletion> completions = Lists.newLinkedList();
 
         final ITermFactory termFactory = termFactoryService.get(component, null, false);
 
         for(IStrategoList list : lists) {
+            if(budget.exhausted()) {
+                break;
+            }
+
             ListImploderAttachment attachment = list.getAttachment(null);
             String sort = attachment.getSort().substring(0, attachment.getSort().length() - 1);
             String placeholderName = sort + "-Plhdr";
@@ -572,7 +717,7 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
     }
 
     private ICompletion createCompletionReplaceTerm(String name, String text, String additionalInfo,
-        StrategoAppl change, boolean blankLineCompletion, String prefix, String suffix) {
+        IStrategoAppl change, boolean blankLineCompletion, String prefix, String suffix) {
 
         final StrategoTerm oldNode = (StrategoTerm) change.getSubterm(0);
         final StrategoTerm newNode = (StrategoTerm) change.getSubterm(1);
@@ -790,66 +935,30 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
 
     public Collection<ICompletion> completionErroneousPrograms(int cursorPosition,
         Iterable<IStrategoTerm> completionTerms, ISpoofaxParseUnit completionParseResult) throws MetaborgException {
+        return completionErroneousPrograms(cursorPosition, completionTerms, completionParseResult,
+            new Budget(0, null));
+    }
+
+    private Collection<ICompletion> completionErroneousPrograms(int cursorPosition,
+        Iterable<IStrategoTerm> completionTerms, ISpoofaxParseUnit completionParseResult, Budget budget)
+        throws MetaborgException {
 
         final FileObject location = completionParseResult.source();
         final ILanguageImpl language = completionParseResult.input().langImpl();
         final String languageName = language.belongsTo().name();
         final Collection<ICompletion> completions = Lists.newLinkedList();
         final Collection<IStrategoTerm> proposalsTerm = Lists.newLinkedList();
+        final IStrategoTerm completionAst = completionParseResult.ast();
 
         for(ILanguageComponent component : language.components()) {
             final ITermFactory termFactory = termFactoryService.get(component, null, false);
+            final List<Callable<Collection<IStrategoTerm>>> tasks = Lists.newArrayList();
             for(IStrategoTerm completionTerm : completionTerms) {
-                IStrategoTerm completionAst = completionParseResult.ast();
-                final StrategoTerm topMostAmb = findTopMostAmbNode((StrategoTerm) completionTerm);
-
-                if(ImploderAttachment.get(completionTerm).isSinglePlaceholderCompletion()) {
-                    Collection<IStrategoTerm> placeholders = Lists.newLinkedList();
-                    placeholders.addAll(findPlaceholderTerms(completionTerm));
-                    if(placeholders.size() != 1) {
-                        logger.error("Getting proposals for {} failed", completionTerm);
-                        continue;
-                    }
-
-                    IStrategoAppl placeholderTerm = (IStrategoAppl) Iterables.get(placeholders, 0);
-                    IStrategoAppl placeholder = termFactory
-                        .makeAppl(termFactory.makeConstructor(placeholderTerm.getConstructor().getName(), 0));
-
-
-                    IStrategoTerm parenthesized = parenthesizeTerm(completionTerm, termFactory);
-                    final IStrategoTerm inputStratego =
-                        termFactory.makeTuple(termFactory.makeString(ImploderAttachment.getElementSort(parenthesized)),
-                            completionAst, completionTerm, topMostAmb, parenthesized, placeholder, placeholderTerm);
-
-                    final HybridInterpreter runtime = strategoRuntimeService.runtime(component, location, false);
-                    final IStrategoTerm proposalTerm = strategoCommon.invoke(runtime, inputStratego,
-                        "get-proposals-incorrect-programs-single-placeholder-" + languageName);
-                    if(proposalTerm == null || !(proposalTerm instanceof IStrategoList)) {
-                        logger.error("Getting proposals for {} failed", completionTerm);
-                        continue;
-                    }
-
-                    for(IStrategoTerm proposalPlaceholder : proposalTerm) {
-                        proposalsTerm.add(proposalPlaceholder);
-                    }
-
-                } else {
-
-                    IStrategoTerm parenthesized = parenthesizeTerm(completionTerm, termFactory);
-                    final IStrategoTerm inputStratego =
-                        termFactory.makeTuple(termFactory.makeString(ImploderAttachment.getElementSort(parenthesized)),
-                            completionAst, completionTerm, topMostAmb, parenthesized);
-
-                    final HybridInterpreter runtime = strategoRuntimeService.runtime(component, location, false);
-                    final IStrategoTerm proposalTerm = strategoCommon.invoke(runtime, inputStratego,
-                        "get-proposals-incorrect-programs-" + languageName);
-                    if(proposalTerm == null) {
-                        logger.error("Getting proposals for {} failed", completionTerm);
-                        continue;
-                    }
-
-                    proposalsTerm.add(proposalTerm);
-                }
+                tasks.add(() -> erroneousProgramProposals(completionTerm, completionAst, component, termFactory,
+                    location, languageName));
+            }
+            for(Collection<IStrategoTerm> proposals : invokeAll(tasks, budget)) {
+                proposalsTerm.addAll(proposals);
             }
 
             for(IStrategoTerm proposalTerm : proposalsTerm) {
@@ -930,6 +1039,62 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
         return completions;
     }
 
+    private Collection<IStrategoTerm> erroneousProgramProposals(IStrategoTerm completionTerm,
+        IStrategoTerm completionAst, ILanguageComponent component, ITermFactory termFactory, FileObject location,
+        String languageName) throws MetaborgException {
+        final Collection<IStrategoTerm> proposalsTerm = Lists.newLinkedList();
+        final StrategoTerm topMostAmb = findTopMostAmbNode((StrategoTerm) completionTerm);
+
+        if(ImploderAttachment.get(completionTerm).isSinglePlaceholderCompletion()) {
+            Collection<IStrategoTerm> placeholders = Lists.newLinkedList();
+            placeholders.addAll(findPlaceholderTerms(completionTerm));
+            if(placeholders.size() != 1) {
+                logger.error("Getting proposals for {} failed", completionTerm);
+                return proposalsTerm;
+            }
+
+            IStrategoAppl placeholderTerm = (IStrategoAppl) Iterables.get(placeholders, 0);
+            IStrategoAppl placeholder =
+                termFactory.makeAppl(termFactory.makeConstructor(placeholderTerm.getConstructor().getName(), 0));
+
+
+            IStrategoTerm parenthesized = parenthesizeTerm(completionTerm, termFactory);
+            final IStrategoTerm inputStratego =
+                termFactory.makeTuple(termFactory.makeString(ImploderAttachment.getElementSort(parenthesized)),
+                    completionAst, completionTerm, topMostAmb, parenthesized, placeholder, placeholderTerm);
+
+            final HybridInterpreter runtime = strategoRuntimeService.runtime(component, location, false);
+            final IStrategoTerm proposalTerm = strategoCommon.invoke(runtime, inputStratego,
+                "get-proposals-incorrect-programs-single-placeholder-" + languageName);
+            if(proposalTerm == null || !(proposalTerm instanceof IStrategoList)) {
+                logger.error("Getting proposals for {} failed", completionTerm);
+                return proposalsTerm;
+            }
+
+            for(IStrategoTerm proposalPlaceholder : proposalTerm) {
+                proposalsTerm.add(proposalPlaceholder);
+            }
+
+        } else {
+
+            IStrategoTerm parenthesized = parenthesizeTerm(completionTerm, termFactory);
+            final IStrategoTerm inputStratego =
+                termFactory.makeTuple(termFactory.makeString(ImploderAttachment.getElementSort(parenthesized)),
+                    completionAst, completionTerm, topMostAmb, parenthesized);
+
+            final HybridInterpreter runtime = strategoRuntimeService.runtime(component, location, false);
+            final IStrategoTerm proposalTerm =
+                strategoCommon.invoke(runtime, inputStratego, "get-proposals-incorrect-programs-" + languageName);
+            if(proposalTerm == null) {
+                logger.error("Getting proposals for {} failed", completionTerm);
+                return proposalsTerm;
+            }
+
+            proposalsTerm.add(proposalTerm);
+        }
+        return proposalsTerm;
+    }
+
     private String calculatePrefix(int cursorPosition, IStrategoTerm proposalTerm) {
 
         String prefix = "";
@@ -1157,40 +1322,29 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
     public Collection<? extends ICompletion> completionErroneousProgramsNested(int cursorPosition,
         Collection<IStrategoTerm> nestedCompletionTerms, ISpoofaxParseUnit completionParseResult)
         throws MetaborgException {
+        return completionErroneousProgramsNested(cursorPosition, nestedCompletionTerms, completionParseResult,
+            new Budget(0, null));
+    }
+
+    private Collection<? extends ICompletion> completionErroneousProgramsNested(int cursorPosition,
+        Collection<IStrategoTerm> nestedCompletionTerms, ISpoofaxParseUnit completionParseResult, Budget budget)
+        throws MetaborgException {
         final FileObject location = completionParseResult.source();
         final ILanguageImpl language = completionParseResult.input().langImpl();
         final String languageName = language.belongsTo().name();
         final Collection<ICompletion> completions = Lists.newLinkedList();
-        IStrategoTerm completionAst = completionParseResult.ast();
+        final IStrategoTerm completionAst = completionParseResult.ast();
 
         for(ILanguageComponent component : language.components()) {
             final ITermFactory termFactory = termFactoryService.get(component, null, false);
+            final List<Callable<Collection<IStrategoTerm>>> tasks = Lists.newArrayList();
             for(IStrategoTerm nestedCompletionTerm : nestedCompletionTerms) {
-                final HybridInterpreter runtime = strategoRuntimeService.runtime(component, location, false);
-
-                Collection<IStrategoTerm> inputsStrategoNested = Lists.newLinkedList();
-
-                // calculate direct proposals
-                inputsStrategoNested.addAll(calculateDirectCompletionProposals(nestedCompletionTerm, termFactory,
-                    completionAst, languageName, runtime));
-
-                // calculate inner nested proposals
-                Collection<IStrategoTerm> innerNestedCompletionTerms =
-                    findNestedCompletionTerm((StrategoTerm) nestedCompletionTerm, true);
-
-                for(IStrategoTerm innerNestedCompletionTerm : innerNestedCompletionTerms) {
-                    inputsStrategoNested.addAll(calculateNestedCompletionProposals(nestedCompletionTerm,
-                        innerNestedCompletionTerm, termFactory, completionAst, languageName, runtime));
-                }
-
-                for(IStrategoTerm inputStrategoNested : inputsStrategoNested) {
-                    final IStrategoTerm proposalTermNested = strategoCommon.invoke(runtime, inputStrategoNested,
-                        "get-proposals-incorrect-programs-nested-" + languageName);
-                    if(proposalTermNested == null) {
-                        logger.error("Getting proposals for {} failed", inputStrategoNested);
-                        continue;
-                    }
+                tasks.add(() -> nestedProgramProposals(nestedCompletionTerm, completionAst, component, termFactory,
+                    location, languageName));
+            }
 
+            for(Collection<IStrategoTerm> proposalTermsNested : invokeAll(tasks, budget)) {
+                for(IStrategoTerm proposalTermNested : proposalTermsNested) {
                     final String name = Tools.asJavaString(proposalTermNested.getSubterm(0));
                     final String text = Tools.asJavaString(proposalTermNested.getSubterm(1));
                     final String additionalInfo = Tools.asJavaString(proposalTermNested.getSubterm(2));
@@ -1257,6 +1411,39 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
     }
 
 
+    private Collection<IStrategoTerm> nestedProgramProposals(IStrategoTerm nestedCompletionTerm,
+        IStrategoTerm completionAst, ILanguageComponent component, ITermFactory termFactory, FileObject location,
+        String languageName) throws MetaborgException {
+        final HybridInterpreter runtime = strategoRuntimeService.runtime(component, location, false);
+
+        Collection<IStrategoTerm> inputsStrategoNested = Lists.newLinkedList();
+
+        // calculate direct proposals
+        inputsStrategoNested.addAll(calculateDirectCompletionProposals(nestedCompletionTerm, termFactory,
+            completionAst, languageName, runtime));
+
+        // calculate inner nested proposals
+        Collection<IStrategoTerm> innerNestedCompletionTerms =
+            findNestedCompletionTerm((StrategoTerm) nestedCompletionTerm, true);
+
+        for(IStrategoTerm innerNestedCompletionTerm : innerNestedCompletionTerms) {
+            inputsStrategoNested.addAll(calculateNestedCompletionProposals(nestedCompletionTerm,
+                innerNestedCompletionTerm, termFactory, completionAst, languageName, runtime));
+        }
+
+        final Collection<IStrategoTerm> proposalTermsNested = Lists.newLinkedList();
+        for(IStrategoTerm inputStrategoNested : inputsStrategoNested) {
+            final IStrategoTerm proposalTermNested = strategoCommon.invoke(runtime, inputStrategoNested,
+                "get-proposals-incorrect-programs-nested-" + languageName);
+            if(proposalTermNested == null) {
+                logger.error("Getting proposals for {} failed", inputStrategoNested);
+                continue;
+            }
+            proposalTermsNested.add(proposalTermNested);
+        }
+        return proposalTermsNested;
+    }
+
     private Collection<IStrategoTerm> calculateNestedCompletionProposals(IStrategoTerm mainNestedCompletionTerm,
         IStrategoTerm nestedCompletionTerm, ITermFactory termFactory, IStrategoTerm completionAst, String languageName,
         HybridInterpreter runtime) throws MetaborgException {
@@ -1849,4 +2036,97 @@ public class JSGLRCompletionService implements ISpoofaxCompletionService {
 
     }
 
+
+    /**
+     * Invokes given proposal tasks concurrently, and collects their results in order until the budget is exhausted.
+     * Results of tasks that did not finish within the budget are dropped.
+     */
+    private <T> Collection<T> invokeAll(List<Callable<T>> tasks, Budget budget) throws MetaborgException {
+        final Collection<T> results = Lists.newArrayListWithCapacity(tasks.size());
+        if(tasks.size() == 1 && budget.unbounded()) {
+            try {
+                results.add(tasks.get(0).call());
+            } catch(MetaborgException e) {
+                throw e;
+            } catch(Exception e) {
+                throw new MetaborgException("Getting proposals failed unexpectedly", e);
+            }
+            return results;
+        }
+
+        final List<Future<T>> futures = Lists.newArrayListWithCapacity(tasks.size());
+        for(Callable<T> task : tasks) {
+            // Cancelling a running future does not stop the Stratego interpreter, so tasks that only start after the
+            // budget is exhausted are skipped instead.
+            futures.add(proposalExecutor.submit(() -> budget.exhausted() ? null : task.call()));
+        }
+        try {
+            for(Future<T> future : futures) {
+                final T result = budget.await(future);
+                if(result == null) {
+                    logger.debug("Completion budget exhausted, returning partial results");
+                    break;
+                }
+                results.add(result);
+            }
+        } catch(ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if(cause instanceof MetaborgException) {
+                throw (MetaborgException) cause;
+            }
+            throw new MetaborgException("Getting proposals failed unexpectedly", cause);
+        } finally {
+            for(Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+
+    /**
+     * Time budget and cancellation token of a completion request.
+     */
+    private static class Budget {
+        private static final long pollMillis = 20;
+
+        private final long deadline;
+        private final @Nullable ICancel cancel;
+
+
+        public Budget(long timeout, @Nullable ICancel cancel) {
+            this.deadline = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+            this.cancel = cancel;
+        }
+
+
+        public boolean unbounded() {
+            return deadline == Long.MAX_VALUE && cancel == null;
+        }
+
+        public boolean exhausted() {
+            return (cancel != null && cancel.cancelled()) || System.currentTimeMillis() >= deadline;
+        }
+
+        public long remainingMillis() {
+            return Math.max(0, deadline - System.currentTimeMillis());
+        }
+
+        /**
+         * @return Result of given future, or null if the budget was exhausted before the future completed.
+         */
+        public @Nullable <T> T await(Future<T> future) throws ExecutionException {
+            while(!exhausted()) {
+                try {
+                    return future.get(Math.min(pollMillis, remainingMillis()), TimeUnit.MILLISECONDS);
+                } catch(TimeoutException e) {
+                    // Check budget again.
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
 }
@@ -10,6 +10,8 @@ import javax.annotation.Nullable;
 
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
+import org.metaborg.core.MetaBorg;
+import org.metaborg.core.MetaborgConstants;
 import org.metaborg.core.MetaborgException;
 import org.metaborg.core.analysis.AnalyzerFacet;
 import org.metaborg.core.config.ConfigRequest;
@@ -57,6 +59,7 @@ import org.metaborg.spoofax.core.style.StylerFacetFromESV;
 import org.metaborg.spoofax.core.syntax.ParseFacetFromESV;
 import org.metaborg.spoofax.core.syntax.SyntaxFacet;
 import org.metaborg.spoofax.core.syntax.SyntaxFacetFromESV;
+import org.metaborg.spoofax.core.terms.BinaryTermCache;
 import org.metaborg.spoofax.core.terms.ITermFactoryService;
 import org.metaborg.spoofax.core.tracing.HoverFacet;
 import org.metaborg.spoofax.core.tracing.ResolverFacet;
@@ -66,8 +69,8 @@ import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
 import org.spoofax.interpreter.terms.IStrategoAppl;
 import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.interpreter.terms.ITermFactory;
 import org.spoofax.terms.ParseError;
-import org.spoofax.terms.io.binary.TermReader;
 
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -80,6 +83,8 @@ public class LanguageComponentFactory implements ILanguageComponentFactory {
     private final IResourceService resourceService;
     private final ILanguageComponentConfigService componentConfigService;
     private final ITermFactoryService termFactoryService;
+    private final BinaryTermCache termCache;
+    private final LanguageSnapshot languageSnapshot;
     private final Map<String, IContextFactory> contextFactories;
     private final Map<String, IContextStrategy> contextStrategies;
     private final Map<String, ISpoofaxAnalyzer> analyzers;
@@ -87,11 +92,13 @@ public class LanguageComponentFactory implements ILanguageComponentFactory {
 
     @Inject public LanguageComponentFactory(IResourceService resourceService,
         ILanguageComponentConfigService componentConfigService, ITermFactoryService termFactoryService,
-        Map<String, IContextFactory> contextFactories, Map<String, IContextStrategy> contextStrategies,
-        Map<String, ISpoofaxAnalyzer> analyzers) {
+        BinaryTermCache termCache, LanguageSnapshot languageSnapshot, Map<String, IContextFactory> contextFactories,
+        Map<String, IContextStrategy> contextStrategies, Map<String, ISpoofaxAnalyzer> analyzers) {
         this.resourceService = resourceService;
         this.componentConfigService = componentConfigService;
         this.termFactoryService = termFactoryService;
+        this.termCache = termCache;
+        this.languageSnapshot = languageSnapshot;
         this.contextFactories = contextFactories;
         this.contextStrategies = contextStrategies;
         this.analyzers = analyzers;
@@ -182,11 +189,18 @@ public class LanguageComponentFactory implements ILanguageComponentFactory {
     }
 
 
-    private IComponentCreationConfigRequest request(FileObject root) throws MetaborgException {
+    private IComponentCreationConfigRequest request(FileObject root) throws MetaborgException, IOException {
         final Collection<String> errors = Lists.newLinkedList();
         final Collection<Throwable> exceptions = Lists.newLinkedList();
 
-        final ConfigRequest<ILanguageComponentConfig> configRequest = componentConfigService.get(root);
+        final FileObject configFile = root.resolveFile(MetaborgConstants.LOC_COMPONENT_CONFIG);
+        final FileObject esvFile = root.resolveFile("target/metaborg/editor.esv.af");
+        final boolean useSnapshot = MetaBorg.fastStart();
+        final LanguageSnapshot.Entry snapshot = useSnapshot
+            ? languageSnapshot.read(root, configFile, esvFile, termFactory()) : null;
+
+        final ConfigRequest<ILanguageComponentConfig> configRequest = snapshot != null
+            ? componentConfigService.getFromText(root, snapshot.configText) : componentConfigService.get(root);
         if(!configRequest.valid()) {
             for(IMessage message : configRequest.errors()) {
                 errors.add(message.message());
@@ -206,17 +220,22 @@ public class LanguageComponentFactory implements ILanguageComponentFactory {
 
         final IStrategoAppl esvTerm;
         try {
-            final FileObject esvFile = root.resolveFile("target/metaborg/editor.esv.af");
-            if(!esvFile.exists()) {
+            if(snapshot != null) {
+                esvTerm = snapshot.esvTerm != null ? esvTerm(root, esvFile, snapshot.esvTerm) : null;
+            } else if(!esvFile.exists()) {
                 esvTerm = null;
             } else {
-                esvTerm = esvTerm(root, esvFile);
+                esvTerm = esvTerm(root, esvFile, termCache.read(esvFile, termFactory()));
             }
         } catch(ParseError | IOException | MetaborgException e) {
             exceptions.add(e);
             return new ComponentFactoryRequest(root, errors, exceptions);
         }
 
+        if(useSnapshot && snapshot == null && errors.isEmpty() && exceptions.isEmpty()) {
+            languageSnapshot.write(root, configFile, esvFile, esvTerm);
+        }
+
         SyntaxFacet syntaxFacet = null;
         StrategoRuntimeFacet strategoRuntimeFacet = null;
         if(esvTerm != null) {
@@ -248,11 +267,12 @@ public class LanguageComponentFactory implements ILanguageComponentFactory {
         return request;
     }
 
-    private IStrategoAppl esvTerm(FileObject location, FileObject esvFile)
-        throws ParseError, IOException, MetaborgException {
-        final TermReader reader =
-            new TermReader(termFactoryService.getGeneric().getFactoryWithStorageType(IStrategoTerm.MUTABLE));
-        final IStrategoTerm term = reader.parseFromStream(esvFile.getContent().getInputStream());
+    private ITermFactory termFactory() {
+        return termFactoryService.getGeneric().getFactoryWithStorageType(IStrategoTerm.MUTABLE);
+    }
+
+    private IStrategoAppl esvTerm(FileObject location, FileObject esvFile, IStrategoTerm term)
+        throws MetaborgException {
         if(term.getTermType() != IStrategoTerm.APPL) {
             final String message = logger.format(
                 "Cannot discover language at {}, ESV file at {} does not contain a valid ESV term", location, esvFile);
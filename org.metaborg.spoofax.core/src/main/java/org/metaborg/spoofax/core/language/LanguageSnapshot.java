@@ -0,0 +1,220 @@
+package org.metaborg.spoofax.core.language;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.metaborg.core.resource.CacheDirectories;
+import org.metaborg.core.resource.ResourceUtils;
+import org.metaborg.util.log.ILogger;
+import org.metaborg.util.log.LoggerUtils;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.interpreter.terms.ITermFactory;
+import org.spoofax.terms.ParseError;
+import org.spoofax.terms.io.binary.SAFWriter;
+import org.spoofax.terms.io.binary.TermReader;
+
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+
+/**
+ * Snapshot of the data that is read when requesting the creation of a language component: the text of the component
+ * configuration, and the ESV term in the binary streaming ATerm format (SAF). Each component has a single snapshot
+ * file, which is read with one sequential read instead of resolving and reading the separate files of the component,
+ * which is costly for components inside archives. Snapshots are only used when the modification times and sizes of the
+ * configuration and ESV files are unchanged.
+ *
+ * Snapshots are stored in the directory set with the {@value #directoryProperty} system property, which defaults to a
+ * per-user directory that only the user can access. Snapshots that have not been used for
+ * {@link CacheDirectories#maxAgeDays} days are evicted.
+ */
+public class LanguageSnapshot {
+    private static final ILogger logger = LoggerUtils.logger(LanguageSnapshot.class);
+
+    public static final String directoryProperty = "metaborg.languages";
+
+    private static final int version = 1;
+
+    private final File directory;
+    private final AtomicBoolean evicted = new AtomicBoolean();
+
+
+    @Inject public LanguageSnapshot() {
+        this(defaultDirectory());
+    }
+
+    public LanguageSnapshot(File directory) {
+        this.directory = directory;
+    }
+
+
+    /**
+     * Reads the snapshot of the component at given root, if it is up to date.
+     *
+     * @param root
+     *            Root directory of the component.
+     * @param configFile
+     *            Configuration file of the component.
+     * @param esvFile
+     *            ESV file of the component, which may not exist.
+     * @param termFactory
+     *            Term factory to create the ESV term with.
+     * @return Snapshot, or null if there is no snapshot, or if it is out of date.
+     */
+    public @Nullable Entry read(FileObject root, FileObject configFile, FileObject esvFile, ITermFactory termFactory) {
+        if(evicted.compareAndSet(false, true)) {
+            CacheDirectories.evict(directory.toPath());
+        }
+
+        final Path file = file(root);
+        if(!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try(final DataInputStream stream =
+            new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if(stream.readInt() != version || !stream.readUTF().equals(root.getName().getURI())) {
+                return null;
+            }
+            if(stream.readLong() != modified(configFile) || stream.readLong() != size(configFile)
+                || stream.readLong() != modified(esvFile) || stream.readLong() != size(esvFile)) {
+                logger.trace("Snapshot {} of {} is out of date", file, root);
+                return null;
+            }
+            final String configText = new String(bytes(stream), StandardCharsets.UTF_8);
+            final IStrategoTerm esvTerm;
+            if(stream.readBoolean()) {
+                final TermReader reader = new TermReader(termFactory);
+                try(final InputStream esvStream = new ByteArrayInputStream(bytes(stream))) {
+                    esvTerm = reader.parseFromStream(esvStream);
+                }
+            } else {
+                esvTerm = null;
+            }
+            logger.trace("Using snapshot {} of {}", file, root);
+            CacheDirectories.touch(file);
+            return new Entry(configText, esvTerm);
+        } catch(IOException | ParseError | RuntimeException e) {
+            logger.warn("Snapshot {} of {} is corrupt, ignoring it", e, file, root);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the component at given root. Failures are logged, not thrown, since snapshots are only used
+     * to speed up requests.
+     *
+     * @param root
+     *            Root directory of the component.
+     * @param configFile
+     *            Configuration file of the component.
+     * @param esvFile
+     *            ESV file of the component, which may not exist.
+     * @param esvTerm
+     *            ESV term read from the ESV file, or null if the ESV file does not exist.
+     */
+    public void write(FileObject root, FileObject configFile, FileObject esvFile, @Nullable IStrategoTerm esvTerm) {
+        final Path file = file(root);
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try(final DataOutputStream stream = new DataOutputStream(bytes)) {
+                stream.writeInt(version);
+                stream.writeUTF(root.getName().getURI());
+                stream.writeLong(modified(configFile));
+                stream.writeLong(size(configFile));
+                stream.writeLong(modified(esvFile));
+                stream.writeLong(size(esvFile));
+                try(final InputStream configStream = configFile.getContent().getInputStream()) {
+                    bytes(stream, IOUtils.toByteArray(configStream));
+                }
+                stream.writeBoolean(esvTerm != null);
+                if(esvTerm != null) {
+                    final ByteArrayOutputStream esvBytes = new ByteArrayOutputStream();
+                    SAFWriter.writeTermToSAFStream(esvTerm, esvBytes);
+                    bytes(stream, esvBytes.toByteArray());
+                }
+            }
+            write(file, bytes.toByteArray());
+        } catch(IOException e) {
+            logger.warn("Could not write snapshot of {} to {}", e, root, file);
+        }
+    }
+
+
+    private Path file(FileObject root) {
+        final String uri = root.getName().getURI();
+        return directory.toPath().resolve(Hashing.murmur3_128().hashString(uri, StandardCharsets.UTF_8) + ".snapshot");
+    }
+
+    private static long modified(FileObject file) throws IOException {
+        return file.exists() ? ResourceUtils.lastModified(file) : -1;
+    }
+
+    private static long size(FileObject file) throws IOException {
+        return file.exists() ? ResourceUtils.size(file) : -1;
+    }
+
+    private static byte[] bytes(DataInputStream stream) throws IOException {
+        final byte[] bytes = new byte[stream.readInt()];
+        stream.readFully(bytes);
+        return bytes;
+    }
+
+    private static void bytes(DataOutputStream stream, byte[] bytes) throws IOException {
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+    }
+
+    private static void write(Path file, byte[] bytes) throws IOException {
+        CacheDirectories.create(file.getParent());
+        final Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try(final OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                stream.write(bytes);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch(AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static File defaultDirectory() {
+        return CacheDirectories.directory(directoryProperty, "languages");
+    }
+
+
+    /**
+     * Data of a language component, read from a snapshot.
+     */
+    public static class Entry {
+        public final String configText;
+        public final @Nullable IStrategoTerm esvTerm;
+
+
+        public Entry(String configText, @Nullable IStrategoTerm esvTerm) {
+            this.configText = configText;
+            this.esvTerm = esvTerm;
+        }
+    }
+}
@@ -15,6 +15,7 @@ import org.metaborg.core.language.dialect.IDialectIdentifier;
 import org.metaborg.core.language.dialect.IDialectService;
 import org.metaborg.core.language.dialect.IdentifiedDialect;
 import org.metaborg.spoofax.core.SpoofaxConstants;
+import org.metaborg.spoofax.core.terms.BinaryTermCache;
 import org.metaborg.spoofax.core.terms.ITermFactoryService;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
@@ -22,7 +23,6 @@ import org.spoofax.interpreter.core.Tools;
 import org.spoofax.interpreter.terms.IStrategoAppl;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 import org.spoofax.terms.ParseError;
-import org.spoofax.terms.io.binary.TermReader;
 
 import com.google.inject.Inject;
 
@@ -32,13 +32,15 @@ public class DialectIdentifier implements IDialectIdentifier {
     private final ILanguageService languageService;
     private final IDialectService dialectService;
     private final ITermFactoryService termFactoryService;
+    private final BinaryTermCache termCache;
 
 
     @Inject public DialectIdentifier(ILanguageService languageService, IDialectService dialectService,
-        ITermFactoryService termFactoryService) {
+        ITermFactoryService termFactoryService, BinaryTermCache termCache) {
         this.languageService = languageService;
         this.dialectService = dialectService;
         this.termFactoryService = termFactoryService;
+        this.termCache = termCache;
     }
 
 
@@ -66,8 +68,7 @@ public class DialectIdentifier implements IDialectIdentifier {
             if(metaResource == null) {
                 return null;
             }
-            final TermReader termReader = new TermReader(termFactoryService.getGeneric());
-            final IStrategoTerm term = termReader.parseFromStream(metaResource.getContent().getInputStream());
+            final IStrategoTerm term = termCache.read(metaResource, termFactoryService.getGeneric());
             final String name = getSyntaxName(term.getSubterm(0));
             if(name == null) {
                 return null;
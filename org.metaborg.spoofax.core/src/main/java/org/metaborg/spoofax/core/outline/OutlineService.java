@@ -27,6 +27,7 @@ import org.metaborg.spoofax.core.stratego.IStrategoRuntimeService;
 import org.metaborg.spoofax.core.tracing.ISpoofaxTracingService;
 import org.metaborg.spoofax.core.unit.ISpoofaxAnalyzeUnit;
 import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
+import org.metaborg.spoofax.core.unit.UnitResultCache;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
 import org.spoofax.interpreter.core.Tools;
@@ -47,15 +48,18 @@ public class OutlineService implements ISpoofaxOutlineService {
     private final IStrategoRuntimeService strategoRuntimeService;
     private final ISpoofaxTracingService tracingService;
     private final IStrategoCommon common;
+    private final UnitResultCache resultCache;
 
 
     @Inject public OutlineService(IProjectService projectService, IContextService contextService,
-        IStrategoRuntimeService strategoRuntimeService, ISpoofaxTracingService tracingService, IStrategoCommon common) {
+        IStrategoRuntimeService strategoRuntimeService, ISpoofaxTracingService tracingService, IStrategoCommon common,
+        UnitResultCache resultCache) {
         this.projectService = projectService;
         this.contextService = contextService;
         this.strategoRuntimeService = strategoRuntimeService;
         this.tracingService = tracingService;
         this.common = common;
+        this.resultCache = resultCache;
     }
 
 
@@ -67,7 +71,11 @@ public class OutlineService implements ISpoofaxOutlineService {
         if(!result.valid()) {
             return null;
         }
+        final String strategy = facet(result.input().langImpl()).facet.strategyName;
+        return resultCache.get(result, "outline", strategy, -1, () -> createOutline(result));
+    }
 
+    private IOutline createOutline(ISpoofaxParseUnit result) throws MetaborgException {
         final FileObject source = result.source();
         final IProject project = projectService.get(source);
         final ILanguageImpl langImpl = result.input().langImpl();
@@ -111,7 +119,11 @@ public class OutlineService implements ISpoofaxOutlineService {
         if(!result.valid() || !result.hasAst()) {
             return null;
         }
+        final String strategy = facet(result.context().language()).facet.strategyName;
+        return resultCache.get(result, "outline", strategy, -1, () -> createOutline(result));
+    }
 
+    private IOutline createOutline(ISpoofaxAnalyzeUnit result) throws MetaborgException {
         final FileObject source = result.source();
         final IContext context = result.context();
         final ILanguageImpl language = context.language();
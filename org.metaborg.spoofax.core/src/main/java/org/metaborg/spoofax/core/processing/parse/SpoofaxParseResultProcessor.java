@@ -1,18 +1,31 @@
 package org.metaborg.spoofax.core.processing.parse;
 
+import org.apache.commons.vfs2.FileObject;
 import org.metaborg.core.processing.parse.ParseResultProcessor;
 import org.metaborg.spoofax.core.syntax.ISpoofaxSyntaxService;
+import org.metaborg.spoofax.core.syntax.ParseMemo;
 import org.metaborg.spoofax.core.unit.ISpoofaxInputUnit;
 import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
 
 import com.google.inject.Inject;
 
 /**
- * Typedef class for {@link ParseResultProcessor} with Spoofax interfaces.
+ * Typedef class for {@link ParseResultProcessor} with Spoofax interfaces. Parse results are also shared with the
+ * {@link ParseMemo}, such that Stratego parse primitives do not parse files again that were already parsed.
  */
 public class SpoofaxParseResultProcessor extends ParseResultProcessor<ISpoofaxInputUnit, ISpoofaxParseUnit>
     implements ISpoofaxParseResultProcessor {
-    @Inject public SpoofaxParseResultProcessor(ISpoofaxSyntaxService syntaxService) {
+    private final ParseMemo parseMemo;
+
+
+    @Inject public SpoofaxParseResultProcessor(ISpoofaxSyntaxService syntaxService, ParseMemo parseMemo) {
         super(syntaxService);
+        this.parseMemo = parseMemo;
+    }
+
+
+    @Override public void update(FileObject resource, ISpoofaxParseUnit unit) {
+        super.update(resource, unit);
+        parseMemo.put(unit);
     }
 }
@@ -10,6 +10,8 @@ import org.metaborg.core.MetaborgException;
 import org.metaborg.core.context.IContext;
 import org.metaborg.core.language.ILanguageComponent;
 import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.core.metrics.IMetricsService;
+import org.metaborg.core.metrics.Span;
 import org.metaborg.spoofax.core.terms.ITermFactoryService;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
@@ -40,12 +42,16 @@ public class StrategoCommon implements IStrategoCommon {
 
     private final IStrategoRuntimeService strategoRuntimeService;
     private final ITermFactoryService termFactoryService;
+    private final IMetricsService metricsService;
+    private final StrategoProfiler profiler;
 
 
     @Inject public StrategoCommon(IStrategoRuntimeService strategoRuntimeService,
-        ITermFactoryService termFactoryService) {
+        ITermFactoryService termFactoryService, IMetricsService metricsService, StrategoProfiler profiler) {
         this.strategoRuntimeService = strategoRuntimeService;
         this.termFactoryService = termFactoryService;
+        this.metricsService = metricsService;
+        this.profiler = profiler;
     }
 
 
@@ -101,7 +107,11 @@ public class StrategoCommon implements IStrategoCommon {
     @Override public @Nullable IStrategoTerm invoke(HybridInterpreter runtime, IStrategoTerm input, String strategy)
         throws MetaborgException {
         runtime.setCurrent(input);
-        try {
+        final boolean profile = profiler.enabled();
+        if(profile) {
+            profiler.enter(runtime, input, strategy);
+        }
+        try(final Span span = metricsService.span("stratego.invoke")) {
             boolean success = runtime.invoke(strategy);
             if(!success) {
                 return null;
@@ -109,6 +119,10 @@ public class StrategoCommon implements IStrategoCommon {
             return runtime.current();
         } catch(InterpreterException e) {
             throw handleException(e, runtime, strategy);
+        } finally {
+            if(profile) {
+                profiler.exit();
+            }
         }
     }
 
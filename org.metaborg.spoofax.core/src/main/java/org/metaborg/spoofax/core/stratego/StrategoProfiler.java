@@ -0,0 +1,259 @@
+package org.metaborg.spoofax.core.stratego;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.vfs2.FileObject;
+import org.metaborg.core.language.ILanguageComponent;
+import org.metaborg.core.language.ILanguageService;
+import org.metaborg.util.log.ILogger;
+import org.metaborg.util.log.LoggerUtils;
+import org.spoofax.interpreter.library.IOAgent;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.strategoxt.HybridInterpreter;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+
+/**
+ * Profiler of Stratego strategy invocations through {@link IStrategoCommon}. Records the number of calls, cumulative
+ * and self time, and input term size per strategy and language component, and the self time per stack of nested
+ * invocations, which can be written as a folded stack file for flame graph tools.
+ *
+ * Profiling is disabled by default, and enabled with {@link #enable()} or by setting the {@value #profileProperty}
+ * system property. If the property is set to a file path, the folded stacks are written to that file when the profiler
+ * is closed. Profiling is cheap when disabled, but computing input term sizes makes it expensive when enabled.
+ */
+public class StrategoProfiler implements AutoCloseable {
+    private static final ILogger logger = LoggerUtils.logger(StrategoProfiler.class);
+
+    public static final String profileProperty = "metaborg.stratego.profile";
+
+    private final ILanguageService languageService;
+
+    private final ConcurrentMap<Key, Stats> stats = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, LongAdder> stacks = Maps.newConcurrentMap();
+    private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+    private final @Nullable String stacksFile;
+
+    private volatile boolean enabled;
+
+
+    @Inject public StrategoProfiler(ILanguageService languageService) {
+        this.languageService = languageService;
+        final String property = System.getProperty(profileProperty);
+        this.enabled = property != null && !property.equals("false");
+        this.stacksFile = property != null && !property.isEmpty() && !property.equals("true")
+            && !property.equals("false") ? property : null;
+    }
+
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public void enable() {
+        enabled = true;
+    }
+
+    public void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Removes all recorded data.
+     */
+    public void reset() {
+        stats.clear();
+        stacks.clear();
+    }
+
+
+    /**
+     * Starts profiling an invocation of given strategy on given input. Must be followed by a call to {@link #exit} on
+     * the same thread, also when the invocation fails.
+     */
+    public void enter(HybridInterpreter runtime, IStrategoTerm input, String strategy) {
+        final String component = component(runtime);
+        final int size = size(input);
+        final Deque<Frame> stack = frames.get();
+        final Frame parent = stack.peek();
+        final String path = (parent != null ? parent.path + ";" : "") + component + ":" + strategy;
+        stack.push(new Frame(new Key(component, strategy), path, size, System.nanoTime()));
+    }
+
+    /**
+     * Stops profiling the current invocation on this thread.
+     */
+    public void exit() {
+        final long end = System.nanoTime();
+        final Deque<Frame> stack = frames.get();
+        final Frame frame = stack.poll();
+        if(frame == null) {
+            return;
+        }
+        final long total = end - frame.start;
+        final long self = total - frame.children;
+        final Frame parent = stack.peek();
+        if(parent != null) {
+            parent.children += total;
+        }
+
+        stats.computeIfAbsent(frame.key, k -> new Stats()).record(total, self, frame.size);
+        stacks.computeIfAbsent(frame.path, p -> new LongAdder()).add(self);
+    }
+
+
+    /**
+     * @return Human-readable report of all profiled strategies, sorted by descending self time.
+     */
+    public String report() {
+        final List<Map.Entry<Key, Stats>> entries = Lists.newArrayList(stats.entrySet());
+        entries.sort((e1, e2) -> Long.compare(e2.getValue().self.sum(), e1.getValue().self.sum()));
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%12s %12s %10s %12s %10s  %s%n", "self (ms)", "total (ms)", "calls", "avg size",
+            "max size", "strategy"));
+        for(Map.Entry<Key, Stats> entry : entries) {
+            final Key key = entry.getKey();
+            final Stats value = entry.getValue();
+            final long calls = value.calls.sum();
+            sb.append(String.format("%12.1f %12.1f %10d %12d %10d  %s:%s%n", value.self.sum() / 1e6,
+                value.total.sum() / 1e6, calls, calls == 0 ? 0 : value.size.sum() / calls, value.maxSize.get(),
+                key.component, key.strategy));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the self time, in microseconds, of each stack of nested invocations in the folded stack format, one
+     * {@code component:strategy;component:strategy value} line per stack, as read by flame graph tools.
+     */
+    public void writeStacks(Writer writer) throws IOException {
+        for(Map.Entry<String, LongAdder> entry : stacks.entrySet()) {
+            final long micros = entry.getValue().sum() / 1000;
+            if(micros > 0) {
+                writer.write(entry.getKey().replace(' ', '_') + " " + micros + "\n");
+            }
+        }
+    }
+
+
+    @Override public void close() {
+        if(stats.isEmpty()) {
+            return;
+        }
+        logger.info("Stratego profile:\n{}", report());
+        if(stacksFile != null) {
+            try(final Writer writer = Files.newBufferedWriter(Paths.get(stacksFile), StandardCharsets.UTF_8)) {
+                writeStacks(writer);
+                logger.info("Wrote Stratego profile stacks to {}", stacksFile);
+            } catch(IOException e) {
+                logger.error("Writing Stratego profile stacks to {} failed", e, stacksFile);
+            }
+        }
+    }
+
+
+    private String component(HybridInterpreter runtime) {
+        final IOAgent agent = runtime.getIOAgent();
+        if(agent instanceof ResourceAgent) {
+            final FileObject location = ((ResourceAgent) agent).getDefinitionDirResource();
+            if(location != null) {
+                final ILanguageComponent component = languageService.getComponent(location.getName());
+                if(component != null) {
+                    return component.id().toString();
+                }
+            }
+        }
+        return "generic";
+    }
+
+    private static int size(IStrategoTerm term) {
+        final Deque<IStrategoTerm> worklist = new ArrayDeque<>();
+        worklist.push(term);
+        int size = 0;
+        while(!worklist.isEmpty()) {
+            final IStrategoTerm current = worklist.pop();
+            ++size;
+            for(int i = 0; i < current.getSubtermCount(); ++i) {
+                worklist.push(current.getSubterm(i));
+            }
+        }
+        return size;
+    }
+
+
+    private static class Key {
+        public final String component;
+        public final String strategy;
+
+
+        public Key(String component, String strategy) {
+            this.component = component;
+            this.strategy = strategy;
+        }
+
+
+        @Override public int hashCode() {
+            return Objects.hashCode(component, strategy);
+        }
+
+        @Override public boolean equals(Object obj) {
+            if(this == obj) {
+                return true;
+            }
+            if(obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return component.equals(other.component) && strategy.equals(other.strategy);
+        }
+    }
+
+    private static class Stats {
+        public final LongAdder calls = new LongAdder();
+        public final LongAdder total = new LongAdder();
+        public final LongAdder self = new LongAdder();
+        public final LongAdder size = new LongAdder();
+        public final AtomicLong maxSize = new AtomicLong();
+
+
+        public void record(long total, long self, int size) {
+            this.calls.increment();
+            this.total.add(total);
+            this.self.add(self);
+            this.size.add(size);
+            this.maxSize.accumulateAndGet(size, Math::max);
+        }
+    }
+
+    private static class Frame {
+        public final Key key;
+        public final String path;
+        public final int size;
+        public final long start;
+        public long children = 0;
+
+
+        public Frame(Key key, String path, int size, long start) {
+            this.key = key;
+            this.path = path;
+            this.size = size;
+            this.start = start;
+        }
+    }
+}
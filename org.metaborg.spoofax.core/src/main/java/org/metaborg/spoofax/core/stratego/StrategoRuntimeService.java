@@ -1,10 +1,8 @@
 package org.metaborg.spoofax.core.stratego;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -20,17 +18,21 @@ import org.metaborg.core.project.IProject;
 import org.metaborg.core.project.IProjectService;
 import org.metaborg.core.resource.IResourceService;
 import org.metaborg.spoofax.core.stratego.strategies.ParseStrategoFileStrategy;
+import org.metaborg.spoofax.core.terms.BinaryTermCache;
 import org.metaborg.spoofax.core.terms.ITermFactoryService;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
 import org.spoofax.interpreter.core.InterpreterException;
 import org.spoofax.interpreter.library.IOperatorRegistry;
+import org.spoofax.interpreter.terms.IStrategoTerm;
 import org.spoofax.interpreter.terms.ITermFactory;
+import org.spoofax.terms.ParseError;
 import org.strategoxt.HybridInterpreter;
 import org.strategoxt.IncompatibleJarException;
 import org.strategoxt.strc.parse_stratego_file_0_0;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 
 public class StrategoRuntimeService implements IStrategoRuntimeService {
@@ -38,19 +40,22 @@ public class StrategoRuntimeService implements IStrategoRuntimeService {
 
     private final IResourceService resourceService;
     private final ITermFactoryService termFactoryService;
+    private final BinaryTermCache termCache;
     private final Set<IOperatorRegistry> strategoLibraries;
     private final ParseStrategoFileStrategy parseStrategoFileStrategy;
     private final IProjectService projectService;
     private final Set<ClassLoader> additionalClassLoaders;
 
-    private final Map<ILanguageComponent, HybridInterpreter> prototypes = new HashMap<>();
+    private final Map<ILanguageComponent, HybridInterpreter> prototypes = Maps.newConcurrentMap();
 
 
     @Inject public StrategoRuntimeService(IResourceService resourceService, ITermFactoryService termFactoryService,
-        Set<IOperatorRegistry> strategoLibraries, ParseStrategoFileStrategy parseStrategoFileStrategy,
-        IProjectService projectService, Set<ClassLoader> additionalClassLoaders) {
+        BinaryTermCache termCache, Set<IOperatorRegistry> strategoLibraries,
+        ParseStrategoFileStrategy parseStrategoFileStrategy, IProjectService projectService,
+        Set<ClassLoader> additionalClassLoaders) {
         this.resourceService = resourceService;
         this.termFactoryService = termFactoryService;
+        this.termCache = termCache;
         this.strategoLibraries = strategoLibraries;
         this.parseStrategoFileStrategy = parseStrategoFileStrategy;
         this.projectService = projectService;
@@ -59,10 +64,7 @@ public class StrategoRuntimeService implements IStrategoRuntimeService {
 
     @Override public HybridInterpreter runtime(ILanguageComponent component, IContext context, boolean typesmart)
         throws MetaborgException {
-        HybridInterpreter prototype = prototypes.get(component);
-        if(prototype == null) {
-            prototype = createPrototype(component);
-        }
+        final HybridInterpreter prototype = prototype(component);
 
         final HybridInterpreter runtime = clone(prototype, context.location(), component, context.project(), typesmart);
         runtime.getContext().setContextObject(context);
@@ -72,10 +74,7 @@ public class StrategoRuntimeService implements IStrategoRuntimeService {
 
     @Override public HybridInterpreter runtime(ILanguageComponent component, FileObject location, boolean typesmart)
         throws MetaborgException {
-        HybridInterpreter prototype = prototypes.get(component);
-        if(prototype == null) {
-            prototype = createPrototype(component);
-        }
+        final HybridInterpreter prototype = prototype(component);
 
         final IProject project = projectService.get(location);
         final HybridInterpreter runtime = clone(prototype, location, component, project, typesmart);
@@ -101,6 +100,21 @@ public class StrategoRuntimeService implements IStrategoRuntimeService {
     }
 
 
+    private HybridInterpreter prototype(ILanguageComponent component) throws MetaborgException {
+        final HybridInterpreter prototype = prototypes.get(component);
+        if(prototype != null) {
+            return prototype;
+        }
+        // Prototypes are costly to create, so creation is serialized to create each prototype only once.
+        synchronized(prototypes) {
+            final HybridInterpreter existing = prototypes.get(component);
+            if(existing != null) {
+                return existing;
+            }
+            return createPrototype(component);
+        }
+    }
+
     private HybridInterpreter clone(HybridInterpreter prototype, FileObject workingLocation,
         ILanguageComponent component, @Nullable IProject project, boolean typesmart) {
         // TODO: this seems to copy operator registries, but they should be recreated to isolate interpreters?
@@ -189,13 +203,14 @@ public class StrategoRuntimeService implements IStrategoRuntimeService {
         }
     }
 
-    private static void loadCtrees(HybridInterpreter runtime, Iterable<FileObject> ctrees) throws MetaborgException {
+    private void loadCtrees(HybridInterpreter runtime, Iterable<FileObject> ctrees) throws MetaborgException {
         try {
             for(FileObject file : ctrees) {
                 logger.trace("Loading ctree {}", file.getName());
-                runtime.load(new BufferedInputStream(file.getContent().getInputStream()));
+                final IStrategoTerm program = termCache.read(file, runtime.getProgramFactory());
+                runtime.load(program);
             }
-        } catch(IOException | InterpreterException e) {
+        } catch(IOException | ParseError | InterpreterException e) {
             throw new MetaborgException("Failed to load ctree", e);
         }
     }
@@ -17,9 +17,9 @@ import org.metaborg.core.language.LanguageVersion;
 import org.metaborg.core.language.dialect.IDialectIdentifier;
 import org.metaborg.core.language.dialect.IdentifiedDialect;
 import org.metaborg.core.resource.IResourceService;
-import org.metaborg.core.source.ISourceTextService;
 import org.metaborg.spoofax.core.stratego.primitive.generic.ASpoofaxPrimitive;
 import org.metaborg.spoofax.core.syntax.ISpoofaxSyntaxService;
+import org.metaborg.spoofax.core.syntax.ParseMemo;
 import org.metaborg.spoofax.core.unit.ISpoofaxInputUnit;
 import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
 import org.metaborg.spoofax.core.unit.ISpoofaxUnitService;
@@ -38,21 +38,21 @@ public class ParsePrimitive extends ASpoofaxPrimitive {
     private final ILanguageIdentifierService languageIdentifierService;
     private final IDialectIdentifier dialectIdentifier;
     private final ISpoofaxUnitService unitService;
-    private final ISourceTextService sourceTextService;
     private final ISpoofaxSyntaxService syntaxService;
+    private final ParseMemo parseMemo;
 
 
     @Inject public ParsePrimitive(IResourceService resourceService, ILanguageService languageService,
         ILanguageIdentifierService languageIdentifierService, IDialectIdentifier dialectIdentifier,
-        ISpoofaxUnitService unitService, ISourceTextService sourceTextService, ISpoofaxSyntaxService syntaxService) {
+        ISpoofaxUnitService unitService, ISpoofaxSyntaxService syntaxService, ParseMemo parseMemo) {
         super("parse", 0, 4);
         this.resourceService = resourceService;
         this.languageService = languageService;
         this.languageIdentifierService = languageIdentifierService;
         this.dialectIdentifier = dialectIdentifier;
         this.unitService = unitService;
-        this.sourceTextService = sourceTextService;
         this.syntaxService = syntaxService;
+        this.parseMemo = parseMemo;
     }
 
 
@@ -65,7 +65,6 @@ public class ParsePrimitive extends ASpoofaxPrimitive {
         }
         final String stringOrFile = ((IStrategoString) current).stringValue();
 
-        final String text;
         final @Nullable FileObject file;
         final IStrategoTerm isFileTerm = tvars[0];
         if(!(isFileTerm instanceof IStrategoInt)) {
@@ -76,10 +75,8 @@ public class ParsePrimitive extends ASpoofaxPrimitive {
             if(!file.exists() || !file.isFile()) {
                 throw new MetaborgException("Cannot parse, input file " + file + " does not exist or is not a file");
             }
-            text = sourceTextService.text(file);
         } else {
             file = null;
-            text = stringOrFile;
         }
 
         // Determine which language to parse it with.
@@ -141,8 +138,8 @@ public class ParsePrimitive extends ASpoofaxPrimitive {
             }
         }
 
-        // Parse the text.
-        final ISpoofaxInputUnit input;
+        // Parse the file or text.
+        final ISpoofaxParseUnit result;
         if(file != null) {
             @Nullable ILanguageImpl dialect;
             try {
@@ -156,11 +153,11 @@ public class ParsePrimitive extends ASpoofaxPrimitive {
                 // Ignore
                 dialect = null;
             }
-            input = unitService.inputUnit(file, text, langImpl, dialect);
+            result = parseMemo.parse(file, langImpl, dialect);
         } else {
-            input = unitService.inputUnit(text, langImpl, null);
+            final ISpoofaxInputUnit input = unitService.inputUnit(stringOrFile, langImpl, null);
+            result = syntaxService.parse(input);
         }
-        final ISpoofaxParseUnit result = syntaxService.parse(input);
         if(result.valid() && result.success()) {
             return result.ast();
         } else {
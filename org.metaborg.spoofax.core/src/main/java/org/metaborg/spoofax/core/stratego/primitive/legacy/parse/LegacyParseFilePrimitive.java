@@ -2,18 +2,17 @@ package org.metaborg.spoofax.core.stratego.primitive.legacy.parse;
 
 import java.io.IOException;
 
+import javax.annotation.Nullable;
+
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileType;
 import org.metaborg.core.MetaborgRuntimeException;
 import org.metaborg.core.language.ILanguageIdentifierService;
 import org.metaborg.core.language.IdentifiedResource;
 import org.metaborg.core.resource.IResourceService;
-import org.metaborg.core.source.ISourceTextService;
 import org.metaborg.core.syntax.ParseException;
-import org.metaborg.spoofax.core.syntax.ISpoofaxSyntaxService;
-import org.metaborg.spoofax.core.unit.ISpoofaxInputUnit;
+import org.metaborg.spoofax.core.syntax.ParseMemo;
 import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
-import org.metaborg.spoofax.core.unit.ISpoofaxUnitService;
 import org.spoofax.interpreter.core.IContext;
 import org.spoofax.interpreter.core.InterpreterException;
 import org.spoofax.interpreter.core.Tools;
@@ -26,28 +25,21 @@ import com.google.inject.Inject;
 public class LegacyParseFilePrimitive extends AbstractPrimitive {
     private final IResourceService resourceService;
     private final ILanguageIdentifierService languageIdentifierService;
-    private final ISpoofaxUnitService unitService;
-    private final ISourceTextService sourceTextService;
-    private final ISpoofaxSyntaxService syntaxService;
+    private final ParseMemo parseMemo;
 
 
     @Inject public LegacyParseFilePrimitive(IResourceService resourceService,
-        ILanguageIdentifierService languageIdentifierService, ISpoofaxUnitService unitService,
-        ISourceTextService sourceTextService, ISpoofaxSyntaxService syntaxService) {
-        this("STRSGLR_parse_string", resourceService, languageIdentifierService, unitService, sourceTextService,
-            syntaxService);
+        ILanguageIdentifierService languageIdentifierService, ParseMemo parseMemo) {
+        this("STRSGLR_parse_string", resourceService, languageIdentifierService, parseMemo);
     }
 
     protected LegacyParseFilePrimitive(String name, IResourceService resourceService,
-        ILanguageIdentifierService languageIdentifierService, ISpoofaxUnitService unitService,
-        ISourceTextService sourceTextService, ISpoofaxSyntaxService syntaxService) {
+        ILanguageIdentifierService languageIdentifierService, ParseMemo parseMemo) {
         super(name, 1, 4);
 
         this.resourceService = resourceService;
         this.languageIdentifierService = languageIdentifierService;
-        this.unitService = unitService;
-        this.sourceTextService = sourceTextService;
-        this.syntaxService = syntaxService;
+        this.parseMemo = parseMemo;
     }
 
 
@@ -62,14 +54,15 @@ public class LegacyParseFilePrimitive extends AbstractPrimitive {
             final String pathOrInput = Tools.asJavaString(terms[0]);
             final String pathOrInput2 = Tools.asJavaString(terms[3]);
             FileObject resource;
-            String text;
+            // Text is null when the resource itself is parsed.
+            @Nullable String text;
             try {
                 resource = resourceService.resolve(pathOrInput);
                 if(!resource.exists() || resource.getType() != FileType.FILE) {
                     resource = resourceService.resolve(pathOrInput2);
                     text = pathOrInput;
                 } else {
-                    text = sourceTextService.text(resource);
+                    text = null;
                 }
             } catch(MetaborgRuntimeException | IOException e) {
                 resource = resourceService.resolve(pathOrInput2);
@@ -84,9 +77,12 @@ public class LegacyParseFilePrimitive extends AbstractPrimitive {
             if(identifiedResource == null) {
                 return false;
             }
-            final ISpoofaxInputUnit input =
-                unitService.inputUnit(resource, text, identifiedResource.language, identifiedResource.dialect);
-            final ISpoofaxParseUnit result = syntaxService.parse(input);
+            final ISpoofaxParseUnit result;
+            if(text == null) {
+                result = parseMemo.parse(resource, identifiedResource.language, identifiedResource.dialect);
+            } else {
+                result = parseMemo.parse(resource, text, identifiedResource.language, identifiedResource.dialect);
+            }
             if(result.valid() && result.success()) {
                 env.setCurrent(result.ast());
             } else {
@@ -2,17 +2,13 @@ package org.metaborg.spoofax.core.stratego.primitive.legacy.parse;
 
 import org.metaborg.core.language.ILanguageIdentifierService;
 import org.metaborg.core.resource.IResourceService;
-import org.metaborg.core.source.ISourceTextService;
-import org.metaborg.spoofax.core.syntax.SpoofaxSyntaxService;
-import org.metaborg.spoofax.core.unit.ISpoofaxUnitService;
+import org.metaborg.spoofax.core.syntax.ParseMemo;
 
 import com.google.inject.Inject;
 
 public class LegacyParseFilePtPrimitive extends LegacyParseFilePrimitive {
     @Inject public LegacyParseFilePtPrimitive(IResourceService resourceService,
-        ILanguageIdentifierService languageIdentifierService, ISpoofaxUnitService unitService,
-        ISourceTextService sourceTextService, SpoofaxSyntaxService syntaxService) {
-        super("STRSGLR_parse_string_pt", resourceService, languageIdentifierService, unitService, sourceTextService,
-            syntaxService);
+        ILanguageIdentifierService languageIdentifierService, ParseMemo parseMemo) {
+        super("STRSGLR_parse_string_pt", resourceService, languageIdentifierService, parseMemo);
     }
 }
@@ -7,12 +7,9 @@ import org.apache.commons.vfs2.FileType;
 import org.metaborg.core.language.ILanguageIdentifierService;
 import org.metaborg.core.language.IdentifiedResource;
 import org.metaborg.core.resource.IResourceService;
-import org.metaborg.core.source.ISourceTextService;
 import org.metaborg.core.syntax.ParseException;
-import org.metaborg.spoofax.core.syntax.ISpoofaxSyntaxService;
-import org.metaborg.spoofax.core.unit.ISpoofaxInputUnit;
+import org.metaborg.spoofax.core.syntax.ParseMemo;
 import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
-import org.metaborg.spoofax.core.unit.ISpoofaxUnitService;
 import org.spoofax.interpreter.core.Tools;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 import org.strategoxt.lang.Context;
@@ -24,19 +21,14 @@ import com.google.inject.Inject;
 public class ParseFileStrategy extends Strategy {
     private final IResourceService resourceService;
     private final ILanguageIdentifierService languageIdentifierService;
-    private final ISpoofaxUnitService unitService;
-    private final ISourceTextService sourceTextService;
-    private final ISpoofaxSyntaxService syntaxService;
+    private final ParseMemo parseMemo;
 
 
     @Inject public ParseFileStrategy(IResourceService resourceService,
-        ILanguageIdentifierService languageIdentifierService, ISpoofaxUnitService unitService,
-        ISourceTextService sourceTextService, ISpoofaxSyntaxService syntaxService) {
+        ILanguageIdentifierService languageIdentifierService, ParseMemo parseMemo) {
         this.resourceService = resourceService;
         this.languageIdentifierService = languageIdentifierService;
-        this.unitService = unitService;
-        this.sourceTextService = sourceTextService;
-        this.syntaxService = syntaxService;
+        this.parseMemo = parseMemo;
     }
 
 
@@ -54,10 +46,8 @@ public class ParseFileStrategy extends Strategy {
             if(identifiedResource == null) {
                 return null;
             }
-            final String text = sourceTextService.text(resource);
-            final ISpoofaxInputUnit input =
-                unitService.inputUnit(resource, text, identifiedResource.language, identifiedResource.dialect);
-            final ISpoofaxParseUnit result = syntaxService.parse(input);
+            final ISpoofaxParseUnit result =
+                parseMemo.parse(resource, identifiedResource.language, identifiedResource.dialect);
             return result.ast();
         } catch(ParseException | IOException e) {
             throw new StrategoException("Parsing failed unexpectedly", e);
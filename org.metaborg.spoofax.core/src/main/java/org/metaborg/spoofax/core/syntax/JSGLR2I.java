@@ -40,6 +40,26 @@ public class JSGLR2I extends JSGLRI<IParseTable> {
         }
     }
 
+    /**
+     * Creates a parser that uses an existing JSGLR2 parser. Used to share incremental parsers between parses, which keep
+     * the previous parse forest of each file around to reuse unchanged subtrees.
+     */
+    public JSGLR2I(IParserConfig config, ITermFactory termFactory, ILanguageImpl language, ILanguageImpl dialect,
+        @Nullable FileObject resource, String input, JSGLR2<?, IStrategoTerm> parser) throws IOException {
+        super(config, termFactory, language, dialect, resource, input);
+
+        this.parser = parser;
+    }
+
+
+    /**
+     * Creates an incremental JSGLR2 parser for the parse table of given configuration.
+     */
+    public static JSGLR2<?, IStrategoTerm> incrementalParser(IParserConfig config) throws IOException {
+        final IParseTable parseTable = (IParseTable) config.getParseTableProvider().parseTable();
+        return JSGLR2.incremental(parseTable);
+    }
+
     public ParseContrib parse(@Nullable JSGLRParserConfiguration parserConfig) throws IOException {
         if(parserConfig == null) {
             parserConfig = new JSGLRParserConfiguration();
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
 
+import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.metaborg.core.config.JSGLRVersion;
@@ -25,8 +26,12 @@ import org.metaborg.util.task.IProgress;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 import org.spoofax.interpreter.terms.ITermFactory;
 import org.spoofax.jsglr.client.InvalidParseTableException;
+import org.spoofax.jsglr2.JSGLR2;
 import org.spoofax.jsglr2.parsetable.ParseTableReadException;
 
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -37,6 +42,8 @@ public class JSGLRParseService implements ISpoofaxParser, ILanguageCache {
 
     private static final ILogger logger = LoggerUtils.logger(JSGLRParseService.class);
 
+    private static final int maxIncrementalParsers = 64;
+
     private final ISpoofaxUnitService unitService;
     private final ITermFactoryService termFactoryService;
     private final JSGLRParserConfiguration defaultParserConfig;
@@ -47,6 +54,9 @@ public class JSGLRParseService implements ISpoofaxParser, ILanguageCache {
     private final Map<ILanguageImpl, ParseTable> referenceParseTables = Maps.newHashMap();
     private final Map<ILanguageImpl, ParseTable> referenceCompletionParseTables = Maps.newHashMap();
 
+    private final Cache<IncrementalKey, IncrementalParser> incrementalParsers =
+        CacheBuilder.newBuilder().maximumSize(maxIncrementalParsers).build();
+
     @Inject public JSGLRParseService(ISpoofaxUnitService unitService, ITermFactoryService termFactoryService,
         JSGLRParserConfiguration defaultParserConfig) {
         this.unitService = unitService;
@@ -100,23 +110,34 @@ public class JSGLRParseService implements ISpoofaxParser, ILanguageCache {
             JSGLRVersion version = jsglrVersion(input);
 
             final JSGLRI<?> parser;
-
-            if(version == JSGLRVersion.v2) {
-                parser = new JSGLR2I(config, termFactory, langImpl, null, source, text, false, false);
-            } else if(version == JSGLRVersion.layoutSensitive) {
-                parser = new JSGLR2I(config, termFactory, langImpl, null, source, text, false, true);
-            } else if(version == JSGLRVersion.dataDependent) {
-                parser = new JSGLR2I(config, termFactory, langImpl, null, source, text, true, false);
+            final ParseContrib contrib;
+
+            if(version == JSGLRVersion.v2 && isIncremental(input, langImpl, parserConfig)) {
+                logger.trace("Incrementally parsing {}", source);
+                final IncrementalParser incrementalParser =
+                    getIncrementalParser(langImpl, source, config, input.previous().input().text());
+                synchronized(incrementalParser) {
+                    parser = new JSGLR2I(config, termFactory, langImpl, null, source, text, incrementalParser.parser);
+                    contrib = parser.parse(parserConfig);
+                    incrementalParser.text = text;
+                }
             } else {
-                if(base != null) {
-                    parser = new JSGLR1I(config, termFactory, base, langImpl, source, text);
+                if(version == JSGLRVersion.v2) {
+                    parser = new JSGLR2I(config, termFactory, langImpl, null, source, text, false, false);
+                } else if(version == JSGLRVersion.layoutSensitive) {
+                    parser = new JSGLR2I(config, termFactory, langImpl, null, source, text, false, true);
+                } else if(version == JSGLRVersion.dataDependent) {
+                    parser = new JSGLR2I(config, termFactory, langImpl, null, source, text, true, false);
                 } else {
-                    parser = new JSGLR1I(config, termFactory, langImpl, null, source, text);
+                    if(base != null) {
+                        parser = new JSGLR1I(config, termFactory, base, langImpl, source, text);
+                    } else {
+                        parser = new JSGLR1I(config, termFactory, langImpl, null, source, text);
+                    }
                 }
+                contrib = parser.parse(parserConfig);
             }
 
-            final ParseContrib contrib = parser.parse(parserConfig);
-
             if(version == JSGLRVersion.v2) {
                 if(contrib.valid)
                     logger.info("Valid JSGLR2 parse");
@@ -140,6 +161,43 @@ public class JSGLRParseService implements ISpoofaxParser, ILanguageCache {
         return parseUnits;
     }
 
+    /**
+     * An input is parsed incrementally when it has a previous version of the same file and language. The incremental
+     * JSGLR2 parser keeps the parse forest of the last parse of the file, diffs the previous text against the new text,
+     * and reuses the subtrees that were not affected by the difference. The first incremental parse of a file is a full
+     * parse.
+     */
+    private boolean isIncremental(ISpoofaxInputUnit input, ILanguageImpl langImpl,
+        JSGLRParserConfiguration parserConfig) {
+        final ISpoofaxParseUnit previous = input.previous();
+        if(previous == null || parserConfig.completion || input.detached() || previous.detached()) {
+            return false;
+        }
+        final ISpoofaxInputUnit previousInput = previous.input();
+        final ILanguageImpl previousLangImpl =
+            previousInput.dialect() != null ? previousInput.dialect() : previousInput.langImpl();
+        return langImpl.equals(previousLangImpl) && input.source().equals(previous.source());
+    }
+
+    /**
+     * Gets the incremental parser of given language and source. Each source has its own parser, such that parsers only
+     * keep the parse forest of a single file, and parses of different files do not race on the same parser. Only the
+     * most recently used parsers are kept. A parser is only reused when its last parse was of given previous text,
+     * otherwise it would reuse subtrees of a version that the caller did not base its input on.
+     */
+    private IncrementalParser getIncrementalParser(ILanguageImpl lang, FileObject source, IParserConfig config,
+        String previousText) throws IOException {
+        final IncrementalKey key = new IncrementalKey(lang, source.getName());
+        synchronized(incrementalParsers) {
+            IncrementalParser parser = incrementalParsers.getIfPresent(key);
+            if(parser == null || !parser.isAt(previousText)) {
+                parser = new IncrementalParser(JSGLR2I.incrementalParser(config));
+                incrementalParsers.put(key, parser);
+            }
+            return parser;
+        }
+    }
+
     public IParserConfig getParserConfig(ILanguageImpl lang, ISpoofaxInputUnit input) throws ParseException {
         IParserConfig config = parserConfigs.get(lang);
         if(config == null) {
@@ -328,9 +386,55 @@ public class JSGLRParseService implements ISpoofaxParser, ILanguageCache {
         logger.debug("Removing cached parse table for {}", impl);
         parserConfigs.remove(impl);
         completionParserConfigs.remove(impl);
+        synchronized(incrementalParsers) {
+            incrementalParsers.asMap().keySet().removeIf(key -> key.langImpl.equals(impl));
+        }
     }
 
     @Override public void invalidateCache(ILanguageComponent component) {
 
     }
+
+
+    private static class IncrementalKey {
+        public final ILanguageImpl langImpl;
+        public final FileName source;
+
+
+        public IncrementalKey(ILanguageImpl langImpl, FileName source) {
+            this.langImpl = langImpl;
+            this.source = source;
+        }
+
+
+        @Override public boolean equals(Object obj) {
+            if(this == obj) {
+                return true;
+            }
+            if(obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final IncrementalKey other = (IncrementalKey) obj;
+            return langImpl.equals(other.langImpl) && source.equals(other.source);
+        }
+
+        @Override public int hashCode() {
+            return Objects.hashCode(langImpl, source);
+        }
+    }
+
+    private static class IncrementalParser {
+        public final JSGLR2<?, IStrategoTerm> parser;
+        public String text;
+
+
+        public IncrementalParser(JSGLR2<?, IStrategoTerm> parser) {
+            this.parser = parser;
+        }
+
+
+        public synchronized boolean isAt(String previousText) {
+            return text != null && text.equals(previousText);
+        }
+    }
 }
@@ -0,0 +1,190 @@
+package org.metaborg.spoofax.core.syntax;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.metaborg.core.language.ILanguageCache;
+import org.metaborg.core.language.ILanguageComponent;
+import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.core.resource.ResourceUtils;
+import org.metaborg.core.source.ISourceTextService;
+import org.metaborg.core.syntax.ParseException;
+import org.metaborg.spoofax.core.unit.ISpoofaxInputUnit;
+import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
+import org.metaborg.spoofax.core.unit.ISpoofaxUnitService;
+import org.metaborg.util.log.ILogger;
+import org.metaborg.util.log.LoggerUtils;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+
+/**
+ * Memo of parse results of files, used by Stratego parse primitives and strategies that parse the same files many times
+ * during a single analysis or transformation. Results are keyed by the resource, and are only reused when the content
+ * of the resource and the language and dialect it is parsed with are unchanged. The content is stamped by the
+ * modification time and size of the resource, such that unchanged files are not read again, and by a hash of the text,
+ * such that results pushed by the parse result processor can be reused. Modification times and sizes that were
+ * {@link ResourceUtils#racy racy} when the file was read are not trusted, such files are read again and compared by
+ * their hash.
+ */
+public class ParseMemo implements ILanguageCache {
+    private static final ILogger logger = LoggerUtils.logger(ParseMemo.class);
+
+    private static final HashFunction hashFunction = Hashing.murmur3_128();
+    private static final int maximumSize = 1000;
+
+    private final ISourceTextService sourceTextService;
+    private final ISpoofaxUnitService unitService;
+    private final ISpoofaxSyntaxService syntaxService;
+
+    private final Cache<FileName, Entry> entries =
+        CacheBuilder.newBuilder().maximumSize(maximumSize).softValues().build();
+
+
+    @Inject public ParseMemo(ISourceTextService sourceTextService, ISpoofaxUnitService unitService,
+        ISpoofaxSyntaxService syntaxService) {
+        this.sourceTextService = sourceTextService;
+        this.unitService = unitService;
+        this.syntaxService = syntaxService;
+    }
+
+
+    /**
+     * Parses given file, or returns the memoised parse result if the file did not change since it was last parsed.
+     *
+     * @param resource
+     *            File to parse.
+     * @param language
+     *            Language to parse with.
+     * @param dialect
+     *            Dialect to parse with, or null to parse without a dialect.
+     * @return Parse unit.
+     * @throws IOException
+     *             When reading the file fails.
+     * @throws ParseException
+     *             When parsing fails unexpectedly.
+     */
+    public ISpoofaxParseUnit parse(FileObject resource, ILanguageImpl language, @Nullable ILanguageImpl dialect)
+        throws IOException, ParseException {
+        final FileName name = resource.getName();
+        final long modified = ResourceUtils.lastModified(resource);
+        final long size = ResourceUtils.size(resource);
+        final boolean racy = ResourceUtils.racy(modified);
+
+        final Entry entry = entries.getIfPresent(name);
+        if(entry != null && entry.matches(language, dialect) && !entry.racy && entry.modified == modified
+            && entry.size == size) {
+            logger.trace("Using memoised parse result for {}", resource);
+            return entry.unit;
+        }
+
+        final String text = sourceTextService.text(resource);
+        return parse(resource, text, language, dialect, modified, size, racy);
+    }
+
+    /**
+     * Parses given text of given file, or returns the memoised parse result if the file was last parsed with the same
+     * text.
+     *
+     * @param resource
+     *            File that the text belongs to.
+     * @param text
+     *            Text to parse.
+     * @param language
+     *            Language to parse with.
+     * @param dialect
+     *            Dialect to parse with, or null to parse without a dialect.
+     * @return Parse unit.
+     * @throws ParseException
+     *             When parsing fails unexpectedly.
+     */
+    public ISpoofaxParseUnit parse(FileObject resource, String text, ILanguageImpl language,
+        @Nullable ILanguageImpl dialect) throws ParseException {
+        return parse(resource, text, language, dialect, -1, -1, true);
+    }
+
+    /**
+     * Memoises given parse unit, for example a unit that was parsed by the parse result processor.
+     */
+    public void put(ISpoofaxParseUnit unit) {
+        final ISpoofaxInputUnit input = unit.input();
+        final FileObject resource = unit.source();
+        if(resource == null || unit.detached()) {
+            return;
+        }
+        entries.put(resource.getName(),
+            new Entry(input.langImpl(), input.dialect(), hash(input.text()), -1, -1, true, unit));
+    }
+
+
+    @Override public void invalidateCache(ILanguageComponent component) {
+        entries.invalidateAll();
+    }
+
+    @Override public void invalidateCache(ILanguageImpl impl) {
+        logger.debug("Removing memoised parse results");
+        entries.invalidateAll();
+    }
+
+
+    private ISpoofaxParseUnit parse(FileObject resource, String text, ILanguageImpl language,
+        @Nullable ILanguageImpl dialect, long modified, long size, boolean racy) throws ParseException {
+        final FileName name = resource.getName();
+        final HashCode hash = hash(text);
+
+        final Entry entry = entries.getIfPresent(name);
+        if(entry != null && entry.matches(language, dialect) && entry.hash.equals(hash)) {
+            logger.trace("Using memoised parse result for {}", resource);
+            if(modified != -1) {
+                entries.put(name, new Entry(language, dialect, hash, modified, size, racy, entry.unit));
+            }
+            return entry.unit;
+        }
+
+        final ISpoofaxInputUnit input = unitService.inputUnit(resource, text, language, dialect);
+        final ISpoofaxParseUnit unit = syntaxService.parse(input);
+        entries.put(name, new Entry(language, dialect, hash, modified, size, racy, unit));
+        return unit;
+    }
+
+    private static HashCode hash(String text) {
+        return hashFunction.hashString(text, StandardCharsets.UTF_8);
+    }
+
+
+    private static class Entry {
+        public final ILanguageImpl language;
+        public final @Nullable ILanguageImpl dialect;
+        public final HashCode hash;
+        public final long modified;
+        public final long size;
+        public final boolean racy;
+        public final ISpoofaxParseUnit unit;
+
+
+        public Entry(ILanguageImpl language, @Nullable ILanguageImpl dialect, HashCode hash, long modified, long size,
+            boolean racy, ISpoofaxParseUnit unit) {
+            this.language = language;
+            this.dialect = dialect;
+            this.hash = hash;
+            this.modified = modified;
+            this.size = size;
+            this.racy = racy;
+            this.unit = unit;
+        }
+
+
+        public boolean matches(ILanguageImpl language, @Nullable ILanguageImpl dialect) {
+            return this.language.equals(language) && Objects.equal(this.dialect, dialect);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.core.metrics.IMetricsService;
 import org.metaborg.core.syntax.FenceCharacters;
 import org.metaborg.core.syntax.MultiLineCommentCharacters;
 import org.metaborg.core.syntax.SyntaxService;
@@ -16,8 +17,8 @@ import com.google.inject.Inject;
 
 public class SpoofaxSyntaxService extends SyntaxService<ISpoofaxInputUnit, ISpoofaxParseUnit>
     implements ISpoofaxSyntaxService {
-    @Inject public SpoofaxSyntaxService(Map<String, ISpoofaxParser> parsers) {
-        super(parsers);
+    @Inject public SpoofaxSyntaxService(Map<String, ISpoofaxParser> parsers, IMetricsService metricsService) {
+        super(parsers, metricsService);
     }
 
 
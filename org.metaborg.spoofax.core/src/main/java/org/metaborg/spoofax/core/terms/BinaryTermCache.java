@@ -0,0 +1,153 @@
+package org.metaborg.spoofax.core.terms;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.metaborg.core.resource.CacheDirectories;
+import org.metaborg.util.log.ILogger;
+import org.metaborg.util.log.LoggerUtils;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.interpreter.terms.ITermFactory;
+import org.spoofax.terms.ParseError;
+import org.spoofax.terms.io.binary.SAFWriter;
+import org.spoofax.terms.io.binary.TermReader;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+
+/**
+ * Reads terms from files, keeping a copy of every read term in the compact binary streaming ATerm format (SAF). Each
+ * source file has a single copy, keyed by the location of the file, which records a checksum of the contents of the
+ * file it was made from. Files with unchanged contents are read from their binary copy instead of being parsed as
+ * textual ATerms again, also after a restart, and a changed file replaces its copy.
+ *
+ * Copies are stored in the directory set with the {@value #directoryProperty} system property, which defaults to a
+ * per-user directory that only the user can access. Source files may be inside archives or on read-only locations, so
+ * copies are not stored next to the source files. Copies that have not been used for
+ * {@link CacheDirectories#maxAgeDays} days are evicted.
+ */
+public class BinaryTermCache {
+    private static final ILogger logger = LoggerUtils.logger(BinaryTermCache.class);
+
+    public static final String directoryProperty = "metaborg.terms";
+
+    private static final int version = 1;
+    private static final HashFunction hashFunction = Hashing.murmur3_128();
+
+    private final File directory;
+    private final AtomicBoolean evicted = new AtomicBoolean();
+
+
+    @Inject public BinaryTermCache() {
+        this(defaultDirectory());
+    }
+
+    public BinaryTermCache(File directory) {
+        this.directory = directory;
+    }
+
+
+    /**
+     * Reads a term from given file, using the binary copy of the file if its contents are unchanged.
+     *
+     * @param file
+     *            File to read the term from, in any format supported by {@link TermReader}.
+     * @param termFactory
+     *            Term factory to create terms with.
+     * @return Read term.
+     * @throws IOException
+     *             When reading the file fails.
+     * @throws ParseError
+     *             When the file does not contain a valid term.
+     */
+    public IStrategoTerm read(FileObject file, ITermFactory termFactory) throws IOException, ParseError {
+        if(evicted.compareAndSet(false, true)) {
+            CacheDirectories.evict(directory.toPath());
+        }
+
+        final Path copy = copy(file);
+        final TermReader reader = new TermReader(termFactory);
+        final byte[] bytes;
+        try(final InputStream stream = file.getContent().getInputStream()) {
+            bytes = IOUtils.toByteArray(stream);
+        }
+        final HashCode hash = hashFunction.hashBytes(bytes);
+
+        if(Files.isRegularFile(copy)) {
+            try(final DataInputStream stream =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(copy)))) {
+                final byte[] copyHash = new byte[hash.bits() / Byte.SIZE];
+                if(stream.readInt() == version) {
+                    stream.readFully(copyHash);
+                }
+                if(Arrays.equals(copyHash, hash.asBytes())) {
+                    final IStrategoTerm term = reader.parseFromStream(stream);
+                    CacheDirectories.touch(copy);
+                    return term;
+                }
+                logger.trace("Binary copy {} of {} is out of date", copy, file);
+            } catch(IOException | ParseError | RuntimeException e) {
+                logger.warn("Binary copy {} of {} is corrupt, reading the file instead", e, copy, file);
+                Files.deleteIfExists(copy);
+            }
+        }
+
+        final IStrategoTerm term;
+        try(final InputStream stream = new ByteArrayInputStream(bytes)) {
+            term = reader.parseFromStream(stream);
+        }
+        try {
+            write(copy, hash, term);
+        } catch(IOException e) {
+            logger.warn("Could not write binary copy of {} to {}", e, file, copy);
+        }
+        return term;
+    }
+
+
+    private Path copy(FileObject file) {
+        final HashCode hash = hashFunction.hashString(file.getName().getURI(), StandardCharsets.UTF_8);
+        return directory.toPath().resolve(hash + ".saf");
+    }
+
+    private static void write(Path copy, HashCode hash, IStrategoTerm term) throws IOException {
+        CacheDirectories.create(copy.getParent());
+        final Path temp = Files.createTempFile(copy.getParent(), copy.getFileName().toString(), ".tmp");
+        try {
+            try(final DataOutputStream stream =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                stream.writeInt(version);
+                stream.write(hash.asBytes());
+                SAFWriter.writeTermToSAFStream(term, stream);
+            }
+            try {
+                Files.move(temp, copy, StandardCopyOption.ATOMIC_MOVE);
+            } catch(AtomicMoveNotSupportedException e) {
+                Files.move(temp, copy, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static File defaultDirectory() {
+        return CacheDirectories.directory(directoryProperty, "terms");
+    }
+}
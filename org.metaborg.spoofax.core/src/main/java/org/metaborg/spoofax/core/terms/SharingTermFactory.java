@@ -0,0 +1,30 @@
+package org.metaborg.spoofax.core.terms;
+
+import org.spoofax.interpreter.terms.IStrategoConstructor;
+import org.spoofax.interpreter.terms.IStrategoString;
+import org.spoofax.terms.TermFactory;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Term factory that shares the values of strings and the constructors of terms that it creates, using weak intern
+ * tables. Identifiers, constructor names, and common literals recur across many files, such that parse and analysis
+ * results that are retained at the same time share most of their string data.
+ *
+ * Only values without attachments are shared. Terms themselves are not shared, since the imploder and the origin
+ * tracker attach positions to every term they create.
+ */
+public class SharingTermFactory extends TermFactory {
+    private final Interner<String> strings = Interners.newWeakInterner();
+    private final Interner<IStrategoConstructor> constructors = Interners.newWeakInterner();
+
+
+    @Override public IStrategoString makeString(String s) {
+        return super.makeString(strings.intern(s));
+    }
+
+    @Override public IStrategoConstructor makeConstructor(String name, int arity) {
+        return constructors.intern(super.makeConstructor(strings.intern(name), arity));
+    }
+}
@@ -25,9 +25,16 @@ import org.spoofax.terms.typesmart.TypesmartTermFactory;
 import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 
+/**
+ * Provides term factories for languages. When the {@value #sharingProperty} system property is set to {@code true},
+ * all factories share string values and constructors through a {@link SharingTermFactory}, which reduces the memory
+ * used by retained parse and analysis results.
+ */
 public class TermFactoryService implements ITermFactoryService, ILanguageCache {
     private static final ILogger typesmartLogger = LoggerUtils.logger("Typesmart");
 
+    public static final String sharingProperty = "metaborg.termsharing";
+
     private final IDependencyService dependencyService;
     private final ISpoofaxProjectConfigService configService;
 
@@ -36,7 +43,8 @@ public class TermFactoryService implements ITermFactoryService, ILanguageCache {
         this.configService = configService;
     }
 
-    private final ITermFactory genericFactory = new ImploderOriginTermFactory(new TermFactory());
+    private final ITermFactory genericFactory = new ImploderOriginTermFactory(
+        Boolean.getBoolean(sharingProperty) ? new SharingTermFactory() : new TermFactory());
 
     private final Map<ILanguageImpl, TypesmartContext> implMergedTypesmartContexts = Maps.newHashMap();
     private final Map<ILanguageComponent, TypesmartContext> mergedTypesmartContexts = Maps.newHashMap();
@@ -0,0 +1,71 @@
+package org.metaborg.spoofax.core.terms;
+
+import java.nio.charset.StandardCharsets;
+
+import org.spoofax.interpreter.terms.IStrategoAppl;
+import org.spoofax.interpreter.terms.IStrategoInt;
+import org.spoofax.interpreter.terms.IStrategoList;
+import org.spoofax.interpreter.terms.IStrategoReal;
+import org.spoofax.interpreter.terms.IStrategoString;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Computes strong structural hashes of terms. Unlike {@link IStrategoTerm#hashCode()}, which only has 32 bits and
+ * ignores annotations, structural hashes can be used as keys in caches that are persisted or shared between builds.
+ * Two terms that are structurally equal, including their annotations, have the same structural hash.
+ */
+public class TermHashing {
+    private static final HashFunction hashFunction = Hashing.murmur3_128();
+
+
+    /**
+     * @return Structural hash of given term, including annotations.
+     */
+    public static HashCode hash(IStrategoTerm term) {
+        final Hasher hasher = hashFunction.newHasher();
+        put(hasher, term);
+        return hasher.hash();
+    }
+
+    /**
+     * Adds the structure of given term, including annotations, to given hasher.
+     */
+    public static void put(Hasher hasher, IStrategoTerm term) {
+        final int termType = term.getTermType();
+        hasher.putInt(termType);
+        switch(termType) {
+            case IStrategoTerm.APPL:
+                hasher.putString(((IStrategoAppl) term).getConstructor().getName(), StandardCharsets.UTF_8);
+                break;
+            case IStrategoTerm.INT:
+                hasher.putInt(((IStrategoInt) term).intValue());
+                break;
+            case IStrategoTerm.REAL:
+                hasher.putDouble(((IStrategoReal) term).realValue());
+                break;
+            case IStrategoTerm.STRING:
+                hasher.putString(((IStrategoString) term).stringValue(), StandardCharsets.UTF_8);
+                break;
+            default:
+                break;
+        }
+
+        final int subtermCount = term.getSubtermCount();
+        hasher.putInt(subtermCount);
+        for(int i = 0; i < subtermCount; ++i) {
+            put(hasher, term.getSubterm(i));
+        }
+
+        final IStrategoList annotations = term.getAnnotations();
+        if(annotations != null && !annotations.isEmpty()) {
+            put(hasher, annotations);
+        } else {
+            hasher.putInt(-1);
+        }
+    }
+}
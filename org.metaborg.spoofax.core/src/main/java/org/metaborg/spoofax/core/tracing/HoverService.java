@@ -21,6 +21,7 @@ import org.metaborg.spoofax.core.terms.ITermFactoryService;
 import org.metaborg.spoofax.core.tracing.TracingCommon.TermWithRegion;
 import org.metaborg.spoofax.core.unit.ISpoofaxAnalyzeUnit;
 import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
+import org.metaborg.spoofax.core.unit.UnitResultCache;
 import org.metaborg.util.concurrent.IClosableLock;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
@@ -40,17 +41,19 @@ public class HoverService implements ISpoofaxHoverService {
     private final IStrategoRuntimeService strategoRuntimeService;
     private final ISpoofaxTracingService tracingService;
     private final TracingCommon common;
+    private final UnitResultCache resultCache;
 
 
     @Inject public HoverService(IProjectService projectService, IContextService contextService,
         ITermFactoryService termFactoryService, IStrategoRuntimeService strategoRuntimeService,
-        ISpoofaxTracingService tracingService, TracingCommon common) {
+        ISpoofaxTracingService tracingService, TracingCommon common, UnitResultCache resultCache) {
         this.projectService = projectService;
         this.contextService = contextService;
         this.termFactoryService = termFactoryService;
         this.strategoRuntimeService = strategoRuntimeService;
         this.tracingService = tracingService;
         this.common = common;
+        this.resultCache = resultCache;
     }
 
 
@@ -62,7 +65,11 @@ public class HoverService implements ISpoofaxHoverService {
         if(!result.valid()) {
             return null;
         }
+        final String strategy = facet(result.input().langImpl()).facet.strategyName;
+        return resultCache.get(result, "hover", strategy, offset, () -> createHover(offset, result));
+    }
 
+    private Hover createHover(int offset, ISpoofaxParseUnit result) throws MetaborgException {
         final FileObject source = result.source();
         final IProject project = projectService.get(source);
         final ILanguageImpl langImpl = result.input().langImpl();
@@ -104,7 +111,11 @@ public class HoverService implements ISpoofaxHoverService {
         if(!result.valid() || !result.hasAst()) {
             return null;
         }
+        final String strategy = facet(result.context().language()).facet.strategyName;
+        return resultCache.get(result, "hover", strategy, offset, () -> createHover(offset, result));
+    }
 
+    private Hover createHover(int offset, ISpoofaxAnalyzeUnit result) throws MetaborgException {
         final FileObject source = result.source();
         final IContext context = result.context();
         final ILanguageImpl language = context.language();
@@ -24,6 +24,7 @@ import org.metaborg.spoofax.core.terms.ITermFactoryService;
 import org.metaborg.spoofax.core.tracing.TracingCommon.TermWithRegion;
 import org.metaborg.spoofax.core.unit.ISpoofaxAnalyzeUnit;
 import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
+import org.metaborg.spoofax.core.unit.UnitResultCache;
 import org.metaborg.util.concurrent.IClosableLock;
 import org.metaborg.util.log.ILogger;
 import org.metaborg.util.log.LoggerUtils;
@@ -43,17 +44,19 @@ public class ResolverService implements ISpoofaxResolverService {
     private final IStrategoRuntimeService strategoRuntimeService;
     private final ISpoofaxTracingService tracingService;
     private final TracingCommon common;
+    private final UnitResultCache resultCache;
 
 
     @Inject public ResolverService(IProjectService projectService, IContextService contextService,
         ITermFactoryService termFactoryService, IStrategoRuntimeService strategoRuntimeService,
-        ISpoofaxTracingService tracingService, TracingCommon common) {
+        ISpoofaxTracingService tracingService, TracingCommon common, UnitResultCache resultCache) {
         this.projectService = projectService;
         this.contextService = contextService;
         this.termFactoryService = termFactoryService;
         this.strategoRuntimeService = strategoRuntimeService;
         this.tracingService = tracingService;
         this.common = common;
+        this.resultCache = resultCache;
     }
 
 
@@ -65,7 +68,11 @@ public class ResolverService implements ISpoofaxResolverService {
         if(!result.valid()) {
             return null;
         }
+        final String strategy = facet(result.input().langImpl()).facet.strategyName;
+        return resultCache.get(result, "resolve", strategy, offset, () -> createResolution(offset, result));
+    }
 
+    private Resolution createResolution(int offset, ISpoofaxParseUnit result) throws MetaborgException {
         final FileObject source = result.source();
         final IProject project = projectService.get(source);
         final ILanguageImpl langImpl = result.input().langImpl();
@@ -107,7 +114,11 @@ public class ResolverService implements ISpoofaxResolverService {
         if(!result.valid() || !result.hasAst()) {
             return null;
         }
+        final String strategy = facet(result.context().language()).facet.strategyName;
+        return resultCache.get(result, "resolve", strategy, offset, () -> createResolution(offset, result));
+    }
 
+    private Resolution createResolution(int offset, ISpoofaxAnalyzeUnit result) throws MetaborgException {
         final FileObject source = result.source();
         final IContext context = result.context();
         final IProject project = context.project();
@@ -1,13 +1,9 @@
 package org.metaborg.spoofax.core.transform;
 
-import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.metaborg.core.MetaborgException;
 import org.metaborg.core.action.ITransformAction;
@@ -16,6 +12,7 @@ import org.metaborg.core.context.IContext;
 import org.metaborg.core.editor.IEditorRegistry;
 import org.metaborg.core.language.ILanguageComponent;
 import org.metaborg.core.messages.IMessage;
+import org.metaborg.core.metrics.IMetricsService;
 import org.metaborg.core.resource.IResourceService;
 import org.metaborg.core.transform.ITransformConfig;
 import org.metaborg.core.transform.TransformException;
@@ -52,21 +49,30 @@ public class StrategoTransformer implements IStrategoTransformer {
     private final IEditorRegistry editorRegistry;
     private final IStrategoRuntimeService strategoRuntimeService;
     private final IStrategoCommon common;
+    private final TransformOutputWriter outputWriter;
+    private final TransformMemo memo;
+    private final IMetricsService metricsService;
 
 
     @Inject public StrategoTransformer(IResourceService resourceService, ISpoofaxUnitService unitService,
-        IEditorRegistry editorRegistry, IStrategoRuntimeService strategoRuntimeService, IStrategoCommon common) {
+        IEditorRegistry editorRegistry, IStrategoRuntimeService strategoRuntimeService, IStrategoCommon common,
+        TransformOutputWriter outputWriter, TransformMemo memo, IMetricsService metricsService) {
         this.resourceService = resourceService;
         this.unitService = unitService;
         this.editorRegistry = editorRegistry;
         this.strategoRuntimeService = strategoRuntimeService;
         this.common = common;
+        this.outputWriter = outputWriter;
+        this.memo = memo;
+        this.metricsService = metricsService;
     }
 
 
     @Override public ISpoofaxTransformUnit<ISpoofaxParseUnit> transform(ISpoofaxParseUnit input, IContext context,
         TransformActionContrib action, ITransformConfig config) throws TransformException {
-        return transform(input, context, action, input.source(), input.ast(), config);
+        try(final TransformOutputWriter.Batch batch = outputWriter.batch(false)) {
+            return transform(input, context, action, input.source(), input.ast(), config, batch);
+        }
     }
 
     @Override public ISpoofaxTransformUnit<ISpoofaxAnalyzeUnit> transform(ISpoofaxAnalyzeUnit input, IContext context,
@@ -77,7 +83,9 @@ public class StrategoTransformer implements IStrategoTransformer {
         if(!input.hasAst()) {
             throw new TransformException("Cannot transform analyze unit " + input + ", it has no AST");
         }
-        return transform(input, context, action, input.source(), input.ast(), config);
+        try(final TransformOutputWriter.Batch batch = outputWriter.batch(false)) {
+            return transform(input, context, action, input.source(), input.ast(), config, batch);
+        }
     }
 
     @Override public Collection<ISpoofaxTransformUnit<ISpoofaxParseUnit>> transformAllParsed(
@@ -86,8 +94,10 @@ public class StrategoTransformer implements IStrategoTransformer {
         final int size = Iterables.size(inputs);
         final Collection<ISpoofaxTransformUnit<ISpoofaxParseUnit>> transformUnits =
             Lists.newArrayListWithCapacity(size);
-        for(ISpoofaxParseUnit input : inputs) {
-            transformUnits.add(transform(input, context, action, input.source(), input.ast(), config));
+        try(final TransformOutputWriter.Batch batch = outputWriter.batch(config.backgroundWrite())) {
+            for(ISpoofaxParseUnit input : inputs) {
+                transformUnits.add(transform(input, context, action, input.source(), input.ast(), config, batch));
+            }
         }
         return transformUnits;
     }
@@ -98,22 +108,24 @@ public class StrategoTransformer implements IStrategoTransformer {
         final int size = Iterables.size(inputs);
         final Collection<ISpoofaxTransformUnit<ISpoofaxAnalyzeUnit>> transformUnits =
             Lists.newArrayListWithCapacity(size);
-        for(ISpoofaxAnalyzeUnit input : inputs) {
-            if(!input.valid()) {
-                throw new TransformException("Cannot transform analyze unit " + input + ", it is not valid");
-            }
-            if(!input.hasAst()) {
-                throw new TransformException("Cannot transform analyze unit " + input + ", it has no AST");
+        try(final TransformOutputWriter.Batch batch = outputWriter.batch(config.backgroundWrite())) {
+            for(ISpoofaxAnalyzeUnit input : inputs) {
+                if(!input.valid()) {
+                    throw new TransformException("Cannot transform analyze unit " + input + ", it is not valid");
+                }
+                if(!input.hasAst()) {
+                    throw new TransformException("Cannot transform analyze unit " + input + ", it has no AST");
+                }
+                transformUnits.add(transform(input, context, action, input.source(), input.ast(), config, batch));
             }
-            transformUnits.add(transform(input, context, action, input.source(), input.ast(), config));
         }
         return transformUnits;
     }
 
 
     private <I extends IUnit> ISpoofaxTransformUnit<I> transform(I input, IContext context,
-        TransformActionContrib actionContribution, FileObject source, IStrategoTerm term, ITransformConfig config)
-        throws TransformException {
+        TransformActionContrib actionContribution, FileObject source, IStrategoTerm term, ITransformConfig config,
+        TransformOutputWriter.Batch batch) throws TransformException {
         final FileObject location = context.location();
         final ILanguageComponent component = actionContribution.contributor;
         final TransformAction action = action(actionContribution.action);
@@ -121,24 +133,36 @@ public class StrategoTransformer implements IStrategoTransformer {
         // Get input term
         final IStrategoTerm inputTerm = common.builderInputTerm(term, source, location);
 
-        // Get Stratego runtime
-        final HybridInterpreter runtime;
-        try {
-            runtime = strategoRuntimeService.runtime(component, context, true);
-        } catch(MetaborgException e) {
-            throw new TransformException("Transformation failed unexpectedly; cannot get Stratego interpreter", e);
-        }
-
-        // Transform
-        logger.debug("Transforming {} with '{}'", source, action.name);
+        // Get memoised result
+        final TransformMemo.Key memoKey =
+            config.memoize() ? memo.key(component, action.strategy, inputTerm, source, location) : null;
         final Timer timer = new Timer(true);
-        final IStrategoTerm outputTerm;
-        try {
-            outputTerm = common.invoke(runtime, inputTerm, action.strategy);
-        } catch(MetaborgException e) {
-            throw new TransformException(e.getMessage(), e.getCause());
+        IStrategoTerm outputTerm = memoKey != null ? memo.get(memoKey) : null;
+        if(outputTerm != null) {
+            logger.debug("Reusing memoised result of transforming {} with '{}'", source, action.name);
+            metricsService.counter("transform.memo.hits").increment();
+        } else {
+            // Get Stratego runtime
+            final HybridInterpreter runtime;
+            try {
+                runtime = strategoRuntimeService.runtime(component, context, true);
+            } catch(MetaborgException e) {
+                throw new TransformException("Transformation failed unexpectedly; cannot get Stratego interpreter", e);
+            }
+
+            // Transform
+            logger.debug("Transforming {} with '{}'", source, action.name);
+            try {
+                outputTerm = common.invoke(runtime, inputTerm, action.strategy);
+            } catch(MetaborgException e) {
+                throw new TransformException(e.getMessage(), e.getCause());
+            }
+            if(outputTerm != null && memoKey != null) {
+                memo.put(memoKey, outputTerm);
+            }
         }
         final long duration = timer.stop();
+        metricsService.histogram("transform").record(duration);
         if(outputTerm == null) {
             final String message = logger.format("Invoking Stratego strategy {} failed", action.strategy);
             throw new TransformException(message);
@@ -153,7 +177,7 @@ public class StrategoTransformer implements IStrategoTransformer {
             try {
                 if(resourceTerm instanceof IStrategoString) {
                     resultTerm = contentTerm;
-                    outputs = Lists.newArrayList(output(resourceTerm, contentTerm, location, config));
+                    outputs = Lists.newArrayList(output(resourceTerm, contentTerm, location, config, batch));
                 } else if(resourceTerm instanceof IStrategoList) {
                     if(!(contentTerm instanceof IStrategoList) || resourceTerm.getSubtermCount() != contentTerm.getSubtermCount()) {
                         logger.error("List of terms does not match list of file names, cannot write to file.");
@@ -162,7 +186,8 @@ public class StrategoTransformer implements IStrategoTransformer {
                     } else {
                         outputs = Lists.newArrayListWithExpectedSize(resourceTerm.getSubtermCount());
                         for(int i = 0; i < resourceTerm.getSubtermCount(); i++) {
-                            outputs.add(output(resourceTerm.getSubterm(i), contentTerm.getSubterm(i), location, config));
+                            outputs.add(
+                                output(resourceTerm.getSubterm(i), contentTerm.getSubterm(i), location, config, batch));
                         }
                         resultTerm = resourceTerm.getSubtermCount() == 1 ? resourceTerm.getSubterm(0) : null;
                     }
@@ -182,6 +207,8 @@ public class StrategoTransformer implements IStrategoTransformer {
 
         // Open editor
         if(action.flags.openEditor) {
+            // Outputs must be written before they can be opened.
+            batch.close();
             List<FileObject> resources = Lists.newArrayListWithExpectedSize(outputs.size());
             for(TransformOutput output : outputs) {
                 if(output.resource != null) {
@@ -206,7 +233,7 @@ public class StrategoTransformer implements IStrategoTransformer {
     }
  
     private TransformOutput output(IStrategoTerm resourceTerm, IStrategoTerm contentTerm, FileObject location,
-            ITransformConfig config) throws MetaborgException {
+            ITransformConfig config, TransformOutputWriter.Batch batch) throws MetaborgException {
         if(!(resourceTerm instanceof IStrategoString)) {
             throw new MetaborgException("First term of result tuple {} is not a string, cannot write output file");
         } else {
@@ -214,17 +241,14 @@ public class StrategoTransformer implements IStrategoTransformer {
             final String resultContents = common.toString(contentTerm);
             // writing to output file is allowed
             FileObject output;
+            boolean unchanged = false;
             if(!config.dryRun()) {
                 output = resourceService.resolve(location, resourceString);
-                try(OutputStream stream = output.getContent().getOutputStream()) {
-                    IOUtils.write(resultContents, stream, Charset.defaultCharset());
-                } catch(IOException e) {
-                    logger.error("Error occurred while writing output file", e);
-                }
+                unchanged = !batch.write(output, resultContents, config.writeIfChanged());
             } else {
                 output = null;
             }
-            return new TransformOutput(resourceString, output, contentTerm);
+            return new TransformOutput(resourceString, output, contentTerm, unchanged);
         }
     }
  
@@ -0,0 +1,268 @@
+package org.metaborg.spoofax.core.transform;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.metaborg.core.build.CommonPaths;
+import org.metaborg.core.language.ILanguageCache;
+import org.metaborg.core.language.ILanguageComponent;
+import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.core.resource.ResourceUtils;
+import org.metaborg.spoofax.core.stratego.StrategoRuntimeFacet;
+import org.metaborg.spoofax.core.terms.ITermFactoryService;
+import org.metaborg.spoofax.core.terms.TermHashing;
+import org.metaborg.util.log.ILogger;
+import org.metaborg.util.log.LoggerUtils;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.terms.io.binary.SAFWriter;
+import org.spoofax.terms.io.binary.TermReader;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+
+/**
+ * Memo of Stratego transformation results. Results are keyed by a structural hash of the input term, the name of the
+ * strategy, and a stamp of the language component that contributes the strategy. The stamp consists of the identifier
+ * of the component and the modification times of its Stratego CTree and JAR files, such that rebuilding a language
+ * invalidates its memoised results even when its version does not change.
+ * <p>
+ * Memoised results are kept in memory, and are persisted in the {@code target/transform-memo} directory of the context
+ * location, such that they can be reused across processes. Only the most recent result of transforming each source
+ * file with each strategy is persisted; older results are deleted when a new result is persisted. Results are persisted
+ * in the streaming ATerm format (SAF), which keeps annotations, but not origins or other attachments. Results that are
+ * read back from disk therefore have no origin information.
+ * <p>
+ * Memoisation is only sound for strategies that only depend on their input term. Strategies that query analysis results
+ * of other files, or that have side effects, should not be memoised.
+ */
+public class TransformMemo implements ILanguageCache {
+    private static final ILogger logger = LoggerUtils.logger(TransformMemo.class);
+
+    private static final String memoDirName = "transform-memo";
+    private static final int maximumSize = 10000;
+
+    private final ITermFactoryService termFactoryService;
+
+    private final Cache<HashCode, IStrategoTerm> memo =
+        CacheBuilder.newBuilder().maximumSize(maximumSize).softValues().build();
+    private final Map<ILanguageComponent, HashCode> componentStamps = Maps.newConcurrentMap();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+
+    @Inject public TransformMemo(ITermFactoryService termFactoryService) {
+        this.termFactoryService = termFactoryService;
+    }
+
+
+    /**
+     * Creates the memo key for invoking given strategy on given input term.
+     *
+     * @param component
+     *            Language component that contributes the strategy.
+     * @param strategy
+     *            Name of the strategy.
+     * @param input
+     *            Input term of the strategy.
+     * @param source
+     *            Source file of the input term, or null if the input has no source file. Results of inputs without a
+     *            source file are not persisted.
+     * @param location
+     *            Location of the context in which the strategy is invoked, used to persist the result.
+     * @return Memo key.
+     */
+    public Key key(ILanguageComponent component, String strategy, IStrategoTerm input, @Nullable FileObject source,
+        FileObject location) {
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putBytes(componentStamp(component).asBytes());
+        hasher.putString(strategy, StandardCharsets.UTF_8);
+        TermHashing.put(hasher, input);
+        final HashCode slot;
+        if(source != null) {
+            slot = Hashing.murmur3_128().newHasher().putString(source.getName().getURI(), StandardCharsets.UTF_8)
+                .putString(strategy, StandardCharsets.UTF_8).hash();
+        } else {
+            slot = null;
+        }
+        return new Key(hasher.hash(), slot, location);
+    }
+
+    /**
+     * @return Memoised result for given key, or null if there is no memoised result.
+     */
+    public @Nullable IStrategoTerm get(Key key) {
+        IStrategoTerm result = memo.getIfPresent(key.hash);
+        if(result == null) {
+            result = read(key);
+            if(result != null) {
+                memo.put(key.hash, result);
+            }
+        }
+        if(result != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Memoises given result for given key.
+     */
+    public void put(Key key, IStrategoTerm result) {
+        memo.put(key.hash, result);
+        write(key, result);
+    }
+
+
+    /**
+     * @return Number of memo lookups that returned a memoised result.
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Number of memo lookups that did not return a memoised result.
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+
+    @Override public void invalidateCache(ILanguageComponent component) {
+        logger.debug("Removing memoised transformation results for {}", component);
+        componentStamps.remove(component);
+        // Keys of the component cannot be distinguished, but they are unreachable after its stamp changes.
+        memo.invalidateAll();
+    }
+
+    @Override public void invalidateCache(ILanguageImpl impl) {
+        for(ILanguageComponent component : impl.components()) {
+            invalidateCache(component);
+        }
+    }
+
+
+    private HashCode componentStamp(ILanguageComponent component) {
+        HashCode stamp = componentStamps.get(component);
+        if(stamp == null) {
+            final Hasher hasher = Hashing.murmur3_128().newHasher();
+            hasher.putString(component.id().toString(), StandardCharsets.UTF_8);
+            final StrategoRuntimeFacet facet = component.facet(StrategoRuntimeFacet.class);
+            if(facet != null) {
+                putStamps(hasher, facet.ctreeFiles);
+                putStamps(hasher, facet.jarFiles);
+            }
+            stamp = hasher.hash();
+            componentStamps.put(component, stamp);
+        }
+        return stamp;
+    }
+
+    private static void putStamps(Hasher hasher, Iterable<FileObject> files) {
+        for(FileObject file : files) {
+            hasher.putString(file.getName().getURI(), StandardCharsets.UTF_8);
+            try {
+                hasher.putLong(file.exists() ? ResourceUtils.lastModified(file) : -1);
+            } catch(FileSystemException e) {
+                hasher.putLong(-1);
+            }
+        }
+    }
+
+
+    private @Nullable IStrategoTerm read(Key key) {
+        final FileObject file = key.file();
+        if(file == null) {
+            return null;
+        }
+        try {
+            if(!file.exists()) {
+                return null;
+            }
+            try(final InputStream stream = file.getContent().getInputStream()) {
+                final TermReader reader = new TermReader(termFactoryService.getGeneric());
+                return reader.parseFromStream(stream);
+            }
+        } catch(IOException | RuntimeException e) {
+            logger.warn("Could not read memoised transformation result from {}, ignoring", e, file);
+            return null;
+        }
+    }
+
+    private void write(Key key, IStrategoTerm result) {
+        final FileObject file = key.file();
+        if(file == null) {
+            return;
+        }
+        try {
+            prune(file);
+            file.createFile();
+            try(final OutputStream stream = file.getContent().getOutputStream()) {
+                SAFWriter.writeTermToSAFStream(result, stream);
+            }
+        } catch(IOException e) {
+            logger.warn("Could not persist memoised transformation result to {}", e, file);
+        }
+    }
+
+    /**
+     * Deletes the results of earlier versions of the same source file and strategy as given result file.
+     */
+    private static void prune(FileObject file) throws FileSystemException {
+        final FileObject slotDir = file.getParent();
+        if(!slotDir.exists()) {
+            return;
+        }
+        for(FileObject previous : slotDir.getChildren()) {
+            if(!previous.getName().equals(file.getName())) {
+                previous.delete();
+            }
+        }
+    }
+
+
+    /**
+     * Key of a memoised transformation result.
+     */
+    public static class Key {
+        private final HashCode hash;
+        private final @Nullable HashCode slot;
+        private final FileObject location;
+
+
+        private Key(HashCode hash, @Nullable HashCode slot, FileObject location) {
+            this.hash = hash;
+            this.slot = slot;
+            this.location = location;
+        }
+
+
+        private @Nullable FileObject file() {
+            if(slot == null) {
+                return null;
+            }
+            try {
+                return new CommonPaths(location).targetDir()
+                    .resolveFile(memoDirName + "/" + slot + "/" + hash + ".saf");
+            } catch(FileSystemException e) {
+                return null;
+            }
+        }
+    }
+}
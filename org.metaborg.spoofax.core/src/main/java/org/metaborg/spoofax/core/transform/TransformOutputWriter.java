@@ -0,0 +1,213 @@
+package org.metaborg.spoofax.core.transform;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.metaborg.core.resource.ResourceUtils;
+import org.metaborg.util.log.ILogger;
+import org.metaborg.util.log.LoggerUtils;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Writes output files of transformations. Output files can be written only if their content changed, which is detected
+ * by comparing content hashes. Hashes of written files are remembered together with their modification time and size,
+ * such that files written by earlier transformations do not have to be read again to compare them. A remembered hash is
+ * not trusted if it was taken while the modification time of its file was {@link ResourceUtils#racy racy}. Such files
+ * are read and hashed again.
+ */
+public class TransformOutputWriter implements AutoCloseable {
+    private static final ILogger logger = LoggerUtils.logger(TransformOutputWriter.class);
+
+    private static final HashFunction hashFunction = Hashing.murmur3_128();
+    private static final long pendingStamp = Long.MIN_VALUE;
+    private static final int maxStamps = 10000;
+
+    private final Charset charset = Charset.defaultCharset();
+    private final Map<FileName, Stamp> stamps =
+        CacheBuilder.newBuilder().maximumSize(maxStamps).<FileName, Stamp>build().asMap();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+        new ThreadFactoryBuilder().setNameFormat("spoofax-transform-writer").setDaemon(true).build());
+
+
+    /**
+     * Creates a new batch of writes.
+     *
+     * @param background
+     *            If the writes of the batch should be executed in the background.
+     * @return Write batch, which must be closed to ensure that all writes have completed.
+     */
+    public Batch batch(boolean background) {
+        return new Batch(background);
+    }
+
+    /**
+     * Writes given contents to given resource, and blocks until writing has completed.
+     *
+     * @param resource
+     *            Resource to write to.
+     * @param contents
+     *            Contents to write.
+     * @param writeIfChanged
+     *            If the resource should only be written when its current contents differ from given contents.
+     * @return True if the resource was written, false if it was not written because it was unchanged.
+     */
+    public boolean write(FileObject resource, String contents, boolean writeIfChanged) {
+        try(final Batch batch = batch(false)) {
+            return batch.write(resource, contents, writeIfChanged);
+        }
+    }
+
+
+    /**
+     * Waits for queued background writes to complete, and stops the writer thread.
+     */
+    @Override public void close() {
+        executor.shutdown();
+        try {
+            if(!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.warn("Background writes of output files did not complete in time");
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stamps.clear();
+    }
+
+
+    private boolean unchanged(FileObject resource, HashCode hash) throws IOException {
+        if(!resource.exists()) {
+            return false;
+        }
+        final FileName name = resource.getName();
+        final Stamp stamp = stamps.get(name);
+        if(stamp != null && stamp.modified == pendingStamp) {
+            return stamp.hash.equals(hash);
+        }
+        final long modified = ResourceUtils.lastModified(resource);
+        final long size = ResourceUtils.size(resource);
+        if(stamp != null && !stamp.racy && stamp.modified == modified && stamp.size == size) {
+            return stamp.hash.equals(hash);
+        }
+        final HashCode currentHash;
+        try(final InputStream stream = resource.getContent().getInputStream()) {
+            currentHash = hashFunction.hashBytes(IOUtils.toByteArray(stream));
+        }
+        stamps.put(name, new Stamp(currentHash, modified, size));
+        return currentHash.equals(hash);
+    }
+
+    private void doWrite(FileObject resource, byte[] bytes, HashCode hash) {
+        final FileName name = resource.getName();
+        try {
+            try(OutputStream stream = resource.getContent().getOutputStream()) {
+                stream.write(bytes);
+            }
+            stamps.put(name, new Stamp(hash, ResourceUtils.lastModified(resource), bytes.length));
+        } catch(IOException e) {
+            stamps.remove(name);
+            logger.error("Error occurred while writing output file", e);
+        }
+    }
+
+
+    /**
+     * Batch of writes, which are executed in the background if requested. Closing the batch blocks until all writes of
+     * the batch have completed.
+     */
+    public class Batch implements AutoCloseable {
+        private final boolean background;
+        private final Collection<Future<?>> writes = Lists.newArrayList();
+
+
+        private Batch(boolean background) {
+            this.background = background;
+        }
+
+
+        /**
+         * Writes given contents to given resource. Whether the resource is unchanged is determined immediately, the write
+         * itself may happen in the background.
+         *
+         * @param resource
+         *            Resource to write to.
+         * @param contents
+         *            Contents to write.
+         * @param writeIfChanged
+         *            If the resource should only be written when its current contents differ from given contents.
+         * @return True if the resource is written, false if it is not written because it was unchanged.
+         */
+        public boolean write(final FileObject resource, String contents, boolean writeIfChanged) {
+            final byte[] bytes = contents.getBytes(charset);
+            final HashCode hash = hashFunction.hashBytes(bytes);
+            if(writeIfChanged) {
+                try {
+                    if(unchanged(resource, hash)) {
+                        logger.trace("Not writing output file {}, its content is unchanged", resource);
+                        return false;
+                    }
+                } catch(IOException e) {
+                    logger.warn("Could not compare output file {} with its previous content, writing it", e, resource);
+                }
+            }
+
+            if(background) {
+                stamps.put(resource.getName(), new Stamp(hash, pendingStamp, bytes.length));
+                writes.add(executor.submit(new Runnable() {
+                    @Override public void run() {
+                        doWrite(resource, bytes, hash);
+                    }
+                }));
+            } else {
+                doWrite(resource, bytes, hash);
+            }
+            return true;
+        }
+
+        @Override public void close() {
+            for(Future<?> write : writes) {
+                try {
+                    write.get();
+                } catch(ExecutionException e) {
+                    logger.error("Error occurred while writing output file", e.getCause());
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            writes.clear();
+        }
+    }
+
+    private static class Stamp {
+        public final HashCode hash;
+        public final long modified;
+        public final long size;
+        public final boolean racy;
+
+
+        public Stamp(HashCode hash, long modified, long size) {
+            this.hash = hash;
+            this.modified = modified;
+            this.size = size;
+            this.racy = modified != pendingStamp && ResourceUtils.racy(modified);
+        }
+    }
+}
@@ -13,4 +13,10 @@ public interface ISpoofaxInputUnit extends IInputUnit {
      * @return Parser-specific configuration, or null when no configuration has been set.
      */
     @Nullable JSGLRParserConfiguration config();
+
+    /**
+     * @return Parse unit of the previous version of this input, or null when this input must be parsed from scratch.
+     *         Used by incremental parsers to reuse unchanged subtrees.
+     */
+    @Nullable ISpoofaxParseUnit previous();
 }
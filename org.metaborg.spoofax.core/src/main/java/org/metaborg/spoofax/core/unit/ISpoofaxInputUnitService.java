@@ -13,4 +13,20 @@ public interface ISpoofaxInputUnitService extends IInputUnitService<ISpoofaxInpu
 
     ISpoofaxInputUnit inputUnit(String text, ILanguageImpl langImpl, @Nullable ILanguageImpl dialect,
         @Nullable JSGLRParserConfiguration config);
+
+    /**
+     * Creates an input unit for the next version of a previously parsed input. The source, language implementation, and
+     * dialect are taken from the previous input. Parsers that support incremental parsing use the previous parse unit
+     * to reuse unchanged parts of the parse.
+     * 
+     * @param previous
+     *            Parse unit of the previous version of the input.
+     * @param text
+     *            Text of the next version of the input.
+     * @param config
+     *            Parser-specific configuration, or null to use the default configuration.
+     * @return Input unit for the next version.
+     */
+    ISpoofaxInputUnit incrementalInputUnit(ISpoofaxParseUnit previous, String text,
+        @Nullable JSGLRParserConfiguration config);
 }
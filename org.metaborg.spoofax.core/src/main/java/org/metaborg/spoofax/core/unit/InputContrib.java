@@ -11,14 +11,21 @@ public class InputContrib implements IUnitContrib {
     public final ILanguageImpl langImpl;
     public final @Nullable ILanguageImpl dialect;
     public final @Nullable JSGLRParserConfiguration config;
+    public final @Nullable ISpoofaxParseUnit previous;
 
 
     public InputContrib(String text, ILanguageImpl langImpl, @Nullable ILanguageImpl dialect,
-        @Nullable JSGLRParserConfiguration config) {
+        @Nullable JSGLRParserConfiguration config, @Nullable ISpoofaxParseUnit previous) {
         this.text = text;
         this.langImpl = langImpl;
         this.dialect = dialect;
         this.config = config;
+        this.previous = previous;
+    }
+
+    public InputContrib(String text, ILanguageImpl langImpl, @Nullable ILanguageImpl dialect,
+        @Nullable JSGLRParserConfiguration config) {
+        this(text, langImpl, dialect, config, null);
     }
 
     public InputContrib(String text, ILanguageImpl langImpl, @Nullable ILanguageImpl dialect) {
@@ -32,4 +32,8 @@ public class InputUnit extends UnitWrapper implements ISpoofaxInputUnit {
     @Override public JSGLRParserConfiguration config() {
         return contrib.config;
     }
+
+    @Override public ISpoofaxParseUnit previous() {
+        return contrib.previous;
+    }
 }
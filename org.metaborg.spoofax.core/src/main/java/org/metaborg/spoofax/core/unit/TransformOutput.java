@@ -9,11 +9,17 @@ public class TransformOutput implements ISpoofaxTransformOutput {
     public final String name;
     public final @Nullable FileObject resource;
     public final IStrategoTerm ast;
+    public final boolean unchanged;
 
-    public TransformOutput(String name, @Nullable FileObject output, IStrategoTerm ast) {
+    public TransformOutput(String name, @Nullable FileObject output, IStrategoTerm ast, boolean unchanged) {
         this.name = name;
         this.resource = output;
         this.ast = ast;
+        this.unchanged = unchanged;
+    }
+
+    public TransformOutput(String name, @Nullable FileObject output, IStrategoTerm ast) {
+        this(name, output, ast, false);
     }
     
     @Override
@@ -30,5 +36,10 @@ public class TransformOutput implements ISpoofaxTransformOutput {
     public IStrategoTerm ast() {
       return ast;
     }
+
+    @Override
+    public boolean unchanged() {
+        return unchanged;
+    }
  
 }
\ No newline at end of file
@@ -0,0 +1,179 @@
+package org.metaborg.spoofax.core.unit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import org.metaborg.core.MetaborgException;
+import org.metaborg.core.analysis.AnalyzerFacet;
+import org.metaborg.core.analysis.IAnalyzeUnit;
+import org.metaborg.core.context.IContext;
+import org.metaborg.core.language.ILanguageCache;
+import org.metaborg.core.language.ILanguageComponent;
+import org.metaborg.core.language.ILanguageImpl;
+import org.metaborg.core.syntax.IParseUnit;
+import org.metaborg.core.unit.IUnit;
+import org.metaborg.util.log.ILogger;
+import org.metaborg.spoofax.core.analysis.constraint.ConstraintSingleFileAnalyzer;
+import org.metaborg.util.log.LoggerUtils;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Maps;
+
+/**
+ * Cache of results of editor services, such as outlines, hover information, and reference resolutions, per unit. Units
+ * are immutable, but strategies are invoked with the context of the language, which is not:
+ * <ul>
+ * <li>Strategies invoked on the analysis result of a multi-file analysis may query the analysis of other files in the
+ * same context, which changes when those files are analyzed again. Results for analyze units are therefore only cached
+ * when the language is analyzed by the {@link ConstraintSingleFileAnalyzer}, whose results are part of the unit.</li>
+ * <li>Strategies invoked on a parse unit may query the analysis of the context, which changes when the parsed file, or
+ * any other file, is analyzed after the parse unit was created. Results for parse units are therefore only cached when
+ * the language is not analyzed at all.</li>
+ * </ul>
+ * Results are weakly attached to their unit, and are freed when the unit is no longer used.
+ */
+public class UnitResultCache implements ILanguageCache {
+    private static final ILogger logger = LoggerUtils.logger(UnitResultCache.class);
+
+    private final LoadingCache<IUnit, ConcurrentMap<Key, Result>> results =
+        CacheBuilder.newBuilder().weakKeys().build(new CacheLoader<IUnit, ConcurrentMap<Key, Result>>() {
+            @Override public ConcurrentMap<Key, Result> load(IUnit unit) {
+                return Maps.newConcurrentMap();
+            }
+        });
+
+    private final AtomicLong savedInvocations = new AtomicLong();
+
+
+    /**
+     * Gets the cached result of invoking given strategy on given unit and region, or produces, caches, and returns the
+     * result if it has not been cached yet. Exceptions thrown while producing the result are not cached.
+     *
+     * @param unit
+     *            Unit to get the result for.
+     * @param service
+     *            Name of the service that produces the result.
+     * @param strategy
+     *            Name of the strategy that produces the result.
+     * @param offset
+     *            Offset in the unit to get the result for, or -1 if the result is not specific to an offset.
+     * @param producer
+     *            Producer of the result, when it has not been cached yet.
+     * @return Result, may be null.
+     * @throws MetaborgException
+     *             When producing the result fails.
+     */
+    public @Nullable <T> T get(IUnit unit, String service, String strategy, int offset, Producer<T> producer)
+        throws MetaborgException {
+        if(!cacheable(unit)) {
+            return producer.produce();
+        }
+
+        final Map<Key, Result> unitResults;
+        try {
+            unitResults = results.get(unit);
+        } catch(ExecutionException e) {
+            throw new MetaborgException("Getting cached results of " + unit + " failed unexpectedly", e.getCause());
+        }
+
+        final Key key = new Key(service, strategy, offset);
+        final Result cached = unitResults.get(key);
+        if(cached != null) {
+            savedInvocations.incrementAndGet();
+            logger.trace("Using cached {} result of {} for {}", service, strategy, unit.source());
+            @SuppressWarnings("unchecked") final T value = (T) cached.value;
+            return value;
+        }
+
+        final T value = producer.produce();
+        unitResults.put(key, new Result(value));
+        return value;
+    }
+
+    /**
+     * @return Number of strategy invocations that were saved by using cached results.
+     */
+    public long savedInvocations() {
+        return savedInvocations.get();
+    }
+
+
+    private static boolean cacheable(IUnit unit) {
+        if(unit instanceof IParseUnit) {
+            final ILanguageImpl language = ((IParseUnit) unit).input().langImpl();
+            return language.facet(AnalyzerFacet.class) == null;
+        }
+        if(!(unit instanceof IAnalyzeUnit)) {
+            return true;
+        }
+        final IContext context = ((IAnalyzeUnit) unit).context();
+        if(context == null) {
+            return false;
+        }
+        final AnalyzerFacet<?, ?, ?> facet = context.language().facet(AnalyzerFacet.class);
+        return facet != null && facet.analyzer instanceof ConstraintSingleFileAnalyzer;
+    }
+
+
+    @Override public void invalidateCache(ILanguageComponent component) {
+        // Units do not refer to components, and reloading components is rare, drop all results.
+        results.invalidateAll();
+    }
+
+    @Override public void invalidateCache(ILanguageImpl impl) {
+        results.invalidateAll();
+    }
+
+
+    /**
+     * Producer of results that are not cached yet.
+     */
+    @FunctionalInterface public interface Producer<T> {
+        @Nullable T produce() throws MetaborgException;
+    }
+
+    private static class Key {
+        private final String service;
+        private final String strategy;
+        private final int offset;
+
+
+        public Key(String service, String strategy, int offset) {
+            this.service = service;
+            this.strategy = strategy;
+            this.offset = offset;
+        }
+
+
+        @Override public int hashCode() {
+            return Objects.hashCode(service, strategy, offset);
+        }
+
+        @Override public boolean equals(Object obj) {
+            if(this == obj) {
+                return true;
+            }
+            if(obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return offset == other.offset && service.equals(other.service) && strategy.equals(other.strategy);
+        }
+    }
+
+    private static class Result {
+        public final @Nullable Object value;
+
+
+        public Result(@Nullable Object value) {
+            this.value = value;
+        }
+    }
+}
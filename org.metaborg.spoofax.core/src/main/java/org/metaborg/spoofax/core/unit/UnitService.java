@@ -56,6 +56,16 @@ public class UnitService implements ISpoofaxUnitService {
         return inputUnit(text, langImpl, dialect, null);
     }
 
+    @Override public ISpoofaxInputUnit incrementalInputUnit(ISpoofaxParseUnit previous, String text,
+        @Nullable JSGLRParserConfiguration config) {
+        final ISpoofaxInputUnit previousInput = previous.input();
+        final Unit unit = previous.detached() ? unit() : unit(previous.source());
+        final InputContrib contrib =
+            new InputContrib(text, previousInput.langImpl(), previousInput.dialect(), config, previous);
+        final InputUnit inputUnit = new InputUnit(unit, contrib);
+        return inputUnit;
+    }
+
     @Override public ISpoofaxInputUnit emptyInputUnit(FileObject source, ILanguageImpl langImpl,
         @Nullable ILanguageImpl dialect) {
         final Unit unit = unit(source);
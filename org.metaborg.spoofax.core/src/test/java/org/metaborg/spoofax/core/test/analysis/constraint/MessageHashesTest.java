@@ -0,0 +1,106 @@
+package org.metaborg.spoofax.core.test.analysis.constraint;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+
+import org.junit.Test;
+import org.metaborg.core.messages.IMessage;
+import org.metaborg.core.messages.MessageBuilder;
+import org.metaborg.core.source.SourceRegion;
+import org.metaborg.spoofax.core.analysis.constraint.MessageHashes;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests the detection of units whose messages did not change, with which the multi-file constraint analyzer suppresses
+ * updates of unchanged units.
+ */
+public class MessageHashesTest {
+    @Test public void unchangedUnitGetsNoUpdate() {
+        final MessageHashes hashes = new MessageHashes();
+
+        final MessageHashes.Batch first = hashes.batch();
+        assertTrue(first.changed("a", messages(error("Undefined x", 0, 1))));
+        assertTrue(first.changed("b", messages()));
+        first.commit();
+
+        final MessageHashes.Batch second = hashes.batch();
+        assertFalse(second.changed("a", messages(error("Undefined x", 0, 1))));
+        assertFalse(second.changed("b", messages()));
+        second.commit();
+    }
+
+    @Test public void changedMessagesGetUpdate() {
+        final MessageHashes hashes = new MessageHashes();
+
+        final MessageHashes.Batch first = hashes.batch();
+        first.changed("a", messages(error("Undefined x", 0, 1)));
+        first.commit();
+
+        // Different text, region, and severity.
+        final MessageHashes.Batch second = hashes.batch();
+        assertTrue(second.changed("a", messages(error("Undefined y", 0, 1))));
+        assertTrue(second.changed("a", messages(error("Undefined x", 2, 3))));
+        assertTrue(second.changed("a", messages(warning("Undefined x", 0, 1))));
+        assertTrue(second.changed("a", messages()));
+        second.commit();
+
+        // The messages of the last call of the committed batch are stored.
+        final MessageHashes.Batch third = hashes.batch();
+        assertFalse(third.changed("a", messages()));
+        assertTrue(third.changed("a", messages(error("Undefined x", 0, 1))));
+    }
+
+    @Test public void orderIndependent() {
+        final MessageHashes hashes = new MessageHashes();
+
+        final MessageHashes.Batch first = hashes.batch();
+        first.changed("a", messages(error("Undefined x", 0, 1), warning("Unused y", 4, 5)));
+        first.commit();
+
+        final MessageHashes.Batch second = hashes.batch();
+        assertFalse(second.changed("a", messages(warning("Unused y", 4, 5), error("Undefined x", 0, 1))));
+    }
+
+    @Test public void uncommittedBatchIsNotStored() {
+        final MessageHashes hashes = new MessageHashes();
+
+        final MessageHashes.Batch first = hashes.batch();
+        first.changed("a", messages(error("Undefined x", 0, 1)));
+
+        final MessageHashes.Batch second = hashes.batch();
+        assertTrue(second.changed("a", messages(error("Undefined x", 0, 1))));
+    }
+
+    @Test public void removedUnitGetsUpdate() {
+        final MessageHashes hashes = new MessageHashes();
+
+        final MessageHashes.Batch first = hashes.batch();
+        first.changed("a", messages(error("Undefined x", 0, 1)));
+        first.changed("b", messages(error("Undefined x", 0, 1)));
+        first.commit();
+
+        hashes.remove(Lists.newArrayList("a"));
+
+        final MessageHashes.Batch second = hashes.batch();
+        assertTrue(second.changed("a", messages(error("Undefined x", 0, 1))));
+        assertFalse(second.changed("b", messages(error("Undefined x", 0, 1))));
+    }
+
+
+    private static Collection<IMessage> messages(IMessage... messages) {
+        return Lists.newArrayList(messages);
+    }
+
+    private static IMessage error(String message, int startOffset, int endOffset) {
+        return MessageBuilder.create().asError().asAnalysis().withMessage(message)
+            .withRegion(new SourceRegion(startOffset, endOffset)).build();
+    }
+
+    private static IMessage warning(String message, int startOffset, int endOffset) {
+        return MessageBuilder.create().asWarning().asAnalysis().withMessage(message)
+            .withRegion(new SourceRegion(startOffset, endOffset)).build();
+    }
+}
@@ -0,0 +1,121 @@
+package org.metaborg.spoofax.core.test.build.daemon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.metaborg.core.MetaborgException;
+import org.metaborg.spoofax.core.Spoofax;
+import org.metaborg.spoofax.core.SpoofaxModule;
+import org.metaborg.spoofax.core.build.daemon.BuildDaemon;
+import org.metaborg.spoofax.core.build.daemon.PrefixOutputStream;
+
+public class BuildDaemonTest {
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private BuildDaemon daemon;
+
+
+    @Before public void setUp() throws MetaborgException {
+        daemon = new BuildDaemon(new Spoofax(new SpoofaxModule()));
+    }
+
+    @After public void tearDown() {
+        daemon.close();
+    }
+
+
+    @Test public void testUnknownCommand() throws Exception {
+        assertEquals(Arrays.asList("error Unknown command frobnicate"), serve(null, "frobnicate"));
+    }
+
+    @Test public void testBuildAndClean() throws Exception {
+        final String project = temporaryFolder.newFolder("project").getAbsolutePath();
+        assertEquals(Arrays.asList("ok 0", "ok 0", "ok", "ok"),
+            serve(null, "build " + project, "build " + project, "clean " + project, "shutdown"));
+    }
+
+    @Test public void testServeRequiresToken() throws Exception {
+        assertEquals(Arrays.asList("error Unauthorized"), serve("secret", "shutdown"));
+        assertEquals(Arrays.asList("error Unauthorized"), serve("secret", "token wrong", "shutdown"));
+        assertEquals(Arrays.asList("ok"), serve("secret", "token secret", "shutdown"));
+    }
+
+    @Test(timeout = 30000) public void testListenWritesPrivateToken() throws Exception {
+        final File tokenFile = new File(temporaryFolder.getRoot(), "daemon/daemon.token");
+        final int port;
+        try(final ServerSocket socket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+        final Thread listener = new Thread(() -> {
+            try {
+                daemon.listen(port, tokenFile);
+            } catch(Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        listener.start();
+        while(!tokenFile.isFile() || tokenFile.length() == 0) {
+            Thread.sleep(10);
+        }
+        if(FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertEquals(PosixFilePermissions.fromString("rw-------"),
+                Files.getPosixFilePermissions(tokenFile.toPath()));
+        }
+        final String token = new String(Files.readAllBytes(tokenFile.toPath()), StandardCharsets.UTF_8);
+
+        try(final Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            final PrintStream writer = new PrintStream(socket.getOutputStream(), true, StandardCharsets.UTF_8.name());
+            final BufferedReader reader =
+                new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            writer.println("token " + token);
+            writer.println("shutdown");
+            assertEquals("ok", reader.readLine());
+        }
+        listener.join();
+        assertFalse(tokenFile.exists());
+    }
+
+    @Test public void testPrefixOutputStream() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(final OutputStream stream = new PrefixOutputStream(bytes, "msg ")) {
+            stream.write("ok 1\nerror x\n".getBytes(StandardCharsets.UTF_8));
+            stream.write('a');
+            stream.write('\n');
+            stream.write("partial".getBytes(StandardCharsets.UTF_8), 0, 4);
+        }
+        assertEquals("msg ok 1\nmsg error x\nmsg a\nmsg part", new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+
+    private List<String> serve(@Nullable String token, String... commands) throws Exception {
+        final String input = String.join("\n", commands) + "\n";
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        daemon.serve(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output, token);
+        final String text = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        return Arrays.asList(text.split("\\r?\\n"));
+    }
+}
@@ -0,0 +1,10 @@
+package org.metaborg.spoofax.core.test.build.paths;
+
+import org.metaborg.core.test.build.paths.LanguageFileIndexTest;
+import org.metaborg.spoofax.core.SpoofaxModule;
+
+public class SpoofaxLanguageFileIndexTest extends LanguageFileIndexTest {
+    public SpoofaxLanguageFileIndexTest() {
+        super(new SpoofaxModule());
+    }
+}